@@ -54,6 +54,11 @@ public class Settings implements PersistentStateComponent<Settings> {
 
     public boolean remoteDevFileScheduler = false;
 
+    /**
+     * Reparse changed compiled container files in background and serve the previous state meanwhile
+     */
+    public boolean containerBackgroundRefresh = false;
+
     public boolean pluginEnabled = false;
 
     public boolean symfonyContainerTypeProvider = true;
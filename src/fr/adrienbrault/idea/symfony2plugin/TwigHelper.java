@@ -2,12 +2,13 @@ package fr.adrienbrault.idea.symfony2plugin;
 
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.UserDataHolderEx;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileVisitor;
 import com.intellij.patterns.ElementPattern;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.patterns.PsiElementPattern;
@@ -16,7 +17,9 @@ import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.PsiElementProcessor;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.*;
+import com.intellij.util.PairProcessor;
 import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.FileBasedIndexImpl;
 import com.jetbrains.twig.TwigFile;
 import com.jetbrains.twig.TwigFileType;
@@ -28,6 +31,8 @@ import fr.adrienbrault.idea.symfony2plugin.asset.dic.AssetFile;
 import fr.adrienbrault.idea.symfony2plugin.extension.TwigNamespaceExtension;
 import fr.adrienbrault.idea.symfony2plugin.extension.TwigNamespaceExtensionParameter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TemplateFileNameIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TwigMacroFunctionStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.templating.TemplateLookupElement;
 import fr.adrienbrault.idea.symfony2plugin.templating.assets.TwigNamedAssetsServiceParser;
@@ -35,8 +40,10 @@ import fr.adrienbrault.idea.symfony2plugin.templating.dict.TemplateFileMap;
 import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigBlock;
 import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigNamespaceSetting;
 import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPath;
+import fr.adrienbrault.idea.symfony2plugin.templating.path.TemplateFileMapBuilder;
 import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPathContentIterator;
 import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPathIndex;
+import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPathServiceParser;
 import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigTypeResolveUtil;
 import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
@@ -74,6 +81,7 @@ public class TwigHelper {
 
     private static final Key<CachedValue<TemplateFileMap>> TEMPLATE_CACHE_TWIG = new Key<>("TEMPLATE_CACHE_TWIG");
     private static final Key<CachedValue<TemplateFileMap>> TEMPLATE_CACHE_ALL = new Key<>("TEMPLATE_CACHE_ALL");
+    private static final Key<CachedValue<Map<VirtualFile, List<TwigPath>>>> TEMPLATE_ROOTS = new Key<>("SYMFONY_TEMPLATE_ROOTS");
 
     public static final String DOC_SEE_REGEX  = "\\{#[\\s]+@see[\\s]+([-@\\./\\:\\w\\\\\\[\\]]+)[\\s]*#}";
     public static final String DOC_SEE_REGEX_WITHOUT_SEE  = "\\{#[\\s]+([-@\\./\\:\\w\\\\\\[\\]]+)[\\s]*#}";
@@ -94,7 +102,16 @@ public class TwigHelper {
     }
 
     @NotNull
-    public static synchronized TemplateFileMap getTemplateMap(@NotNull Project project, boolean useTwig, final boolean usePhp) {
+    public static TemplateFileMap getTemplateMap(@NotNull Project project, boolean useTwig, final boolean usePhp) {
+
+        // compiled container provides "twig.loader" paths; trigger a lazy reparse which notifies the tracker on changes
+        ServiceXmlParserFactory.getInstance(project, TwigPathServiceParser.class);
+
+        return getCachedTemplateMap(project, useTwig, usePhp);
+    }
+
+    @NotNull
+    private static TemplateFileMap getCachedTemplateMap(@NotNull Project project, boolean useTwig, final boolean usePhp) {
 
         TemplateFileMap templateMapProxy = null;
 
@@ -102,10 +119,10 @@ public class TwigHelper {
         // only PHP files we dont need to cache
         if(useTwig && !usePhp) {
             // cache twig files only, most use case
+            // no lock here: template walks must not be awaited while holding a monitor
             CachedValue<TemplateFileMap> cache = project.getUserData(TEMPLATE_CACHE_TWIG);
             if (cache == null) {
-                cache = CachedValuesManager.getManager(project).createCachedValue(new MyTwigOnlyTemplateFileMapCachedValueProvider(project), false);
-                project.putUserData(TEMPLATE_CACHE_TWIG, cache);
+                cache = ((UserDataHolderEx) project).putUserDataIfAbsent(TEMPLATE_CACHE_TWIG, CachedValuesManager.getManager(project).createCachedValue(new MyTwigOnlyTemplateFileMapCachedValueProvider(project), false));
             }
 
             templateMapProxy = cache.getValue();
@@ -114,8 +131,7 @@ public class TwigHelper {
             // cache all files
             CachedValue<TemplateFileMap> cache = project.getUserData(TEMPLATE_CACHE_ALL);
             if (cache == null) {
-                cache = CachedValuesManager.getManager(project).createCachedValue(new MyAllTemplateFileMapCachedValueProvider(project), false);
-                project.putUserData(TEMPLATE_CACHE_ALL, cache);
+                cache = ((UserDataHolderEx) project).putUserDataIfAbsent(TEMPLATE_CACHE_ALL, CachedValuesManager.getManager(project).createCachedValue(new MyAllTemplateFileMapCachedValueProvider(project), false));
             }
 
             templateMapProxy = cache.getValue();
@@ -132,11 +148,28 @@ public class TwigHelper {
     @NotNull
     private static TemplateFileMap getTemplateMapProxy(@NotNull Project project, boolean useTwig, boolean usePhp) {
 
+        List<TwigPath> twigPaths = getTemplateTwigPaths(project);
+        if(twigPaths.size() == 0) {
+            return new TemplateFileMap();
+        }
+
+        return new TemplateFileMapBuilder(project)
+            .setWithPhp(usePhp)
+            .setWithTwig(useTwig)
+            .build(twigPaths);
+    }
+
+    /**
+     * All namespaces including bundle overwrites of "app/Resources" and parent bundles
+     */
+    @NotNull
+    private static List<TwigPath> getTemplateTwigPaths(@NotNull Project project) {
+
         List<TwigPath> twigPaths = new ArrayList<>();
         twigPaths.addAll(getTwigNamespaces(project));
 
         if(twigPaths.size() == 0) {
-            return new TemplateFileMap();
+            return twigPaths;
         }
 
         // app/Resources/ParentBundle/Resources/views
@@ -168,21 +201,181 @@ public class TwigHelper {
             }
         }
 
-        TemplateFileMap container = new TemplateFileMap();
+        return twigPaths;
+    }
+
+    /**
+     * Enabled namespaces by their root directory; same invalidation as the template map
+     */
+    @NotNull
+    private static Map<VirtualFile, List<TwigPath>> getTemplateRootDirectories(@NotNull Project project) {
+
+        // compiled container provides "twig.loader" paths; trigger a lazy reparse which notifies the tracker on changes
+        ServiceXmlParserFactory.getInstance(project, TwigPathServiceParser.class);
+
+        CachedValue<Map<VirtualFile, List<TwigPath>>> cache = project.getUserData(TEMPLATE_ROOTS);
+        if (cache == null) {
+            cache = ((UserDataHolderEx) project).putUserDataIfAbsent(TEMPLATE_ROOTS, CachedValuesManager.getManager(project).createCachedValue(() -> {
+                Map<VirtualFile, List<TwigPath>> roots = new HashMap<>();
+
+                for (TwigPath twigPath : getTemplateTwigPaths(project)) {
+                    if(!twigPath.isEnabled()) {
+                        continue;
+                    }
+
+                    VirtualFile directory = twigPath.getDirectory(project);
+                    if(directory != null) {
+                        roots.computeIfAbsent(directory, k -> new ArrayList<>()).add(twigPath);
+                    }
+                }
+
+                return CachedValueProvider.Result.create(roots, IndexTracker.TEMPLATES.getTracker(project));
+            }, false));
+        }
+
+        return cache.getValue();
+    }
+
+    /**
+     * Logical template names of a file computed on its parent directories; no template map needed
+     *
+     * "src/FooBundle/Resources/views/Car/index.html.twig": "FooBundle:Car:index.html.twig", "@Foo/Car/index.html.twig"
+     */
+    @NotNull
+    public static Set<String> getTemplateNames(@NotNull Project project, @NotNull VirtualFile virtualFile) {
+        return getTemplateNames(getTemplateRootDirectories(project), virtualFile);
+    }
+
+    @NotNull
+    private static Set<String> getTemplateNames(@NotNull Map<VirtualFile, List<TwigPath>> roots, @NotNull VirtualFile virtualFile) {
+
+        Set<String> names = new HashSet<>();
+        if(roots.isEmpty()) {
+            return names;
+        }
 
-        for (TwigPath twigPath : twigPaths) {
-            if(twigPath.isEnabled()) {
-                VirtualFile virtualDirectoryFile = twigPath.getDirectory(project);
-                if(virtualDirectoryFile != null) {
-                    final TwigPathContentIterator iterator = new TwigPathContentIterator(project, twigPath).setWithPhp(usePhp).setWithTwig(useTwig);
-                    VfsUtil.visitChildrenRecursively(virtualDirectoryFile, new MyLimitedVirtualFileVisitor(iterator, 5, 150));
-                    container.putAll(iterator.getResults());
+        String templatePath = virtualFile.getName();
+        for (VirtualFile parent = virtualFile.getParent(); parent != null; parent = parent.getParent()) {
+            List<TwigPath> twigPaths = roots.get(parent);
+            if(twigPaths != null) {
+                for (TwigPath twigPath : twigPaths) {
+                    names.add(TwigPathContentIterator.getTemplateName(twigPath, templatePath));
                 }
             }
 
+            templatePath = parent.getName() + "/" + templatePath;
+        }
+
+        return names;
+    }
+
+    /**
+     * Single template name lookup on the template file name index: "FooBundle:Car:index.html.twig" only
+     * visits the "index.html.twig" files and keeps the ones providing the name on the current namespaces.
+     *
+     * Dumb mode and files outside of the index, eg namespace paths outside of the project, are resolved directly
+     */
+    @NotNull
+    public static Collection<VirtualFile> getTemplateFiles(@NotNull Project project, @NotNull String templateName) {
+
+        String normalizedTemplateName = normalizeTemplateName(templateName);
+
+        Collection<VirtualFile> virtualFiles = new HashSet<>();
+
+        if(!DumbService.isDumb(project)) {
+            String fileName = normalizedTemplateName.substring(Math.max(normalizedTemplateName.lastIndexOf("/"), normalizedTemplateName.lastIndexOf(":")) + 1);
+            if(StringUtils.isBlank(fileName)) {
+                return virtualFiles;
+            }
+
+            Map<VirtualFile, List<TwigPath>> roots = getTemplateRootDirectories(project);
+            for (VirtualFile virtualFile : FileBasedIndex.getInstance().getContainingFiles(TemplateFileNameIndex.KEY, fileName, GlobalSearchScope.allScope(project))) {
+                if(getTemplateNames(roots, virtualFile).contains(normalizedTemplateName)) {
+                    virtualFiles.add(virtualFile);
+                }
+            }
+
+            if(virtualFiles.size() > 0) {
+                return virtualFiles;
+            }
+        }
+
+        for (PsiFile psiFile : getTemplatePsiElements(project, templateName)) {
+            VirtualFile virtualFile = psiFile.getVirtualFile();
+            if(virtualFile != null) {
+                virtualFiles.add(virtualFile);
+            }
+        }
+
+        return virtualFiles;
+    }
+
+    /**
+     * Streams all template names from the template file name index without building a template map;
+     * a name provided by multiple files is visited for each of them.
+     *
+     * Php templates need a format in their name: "index.html.php". Namespace paths outside of the index
+     * and dumb mode are still walked on the file system
+     */
+    public static void processTemplates(@NotNull Project project, boolean usePhp, @NotNull PairProcessor<String, VirtualFile> processor) {
+
+        if(DumbService.isDumb(project)) {
+            for (Map.Entry<String, Set<VirtualFile>> entry : getTemplateMap(project, true, usePhp).getTemplateNames().entrySet()) {
+                for (VirtualFile virtualFile : entry.getValue()) {
+                    if(!processor.process(entry.getKey(), virtualFile)) {
+                        return;
+                    }
+                }
+            }
+
+            return;
+        }
+
+        Map<VirtualFile, List<TwigPath>> roots = getTemplateRootDirectories(project);
+        if(roots.isEmpty()) {
+            return;
+        }
+
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+        FileBasedIndex index = FileBasedIndex.getInstance();
+
+        for (String fileName : index.getAllKeys(TemplateFileNameIndex.KEY, project)) {
+            for (VirtualFile virtualFile : index.getContainingFiles(TemplateFileNameIndex.KEY, fileName, scope)) {
+                if(!usePhp && virtualFile.getFileType() != TwigFileType.INSTANCE) {
+                    continue;
+                }
+
+                for (String templateName : getTemplateNames(roots, virtualFile)) {
+                    if(!processor.process(templateName, virtualFile)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        // namespaces outside of project and libraries are not indexed
+        List<TwigPath> twigPaths = new ArrayList<>();
+        for (Map.Entry<VirtualFile, List<TwigPath>> entry : roots.entrySet()) {
+            if(!scope.contains(entry.getKey())) {
+                twigPaths.addAll(entry.getValue());
+            }
+        }
+
+        if(twigPaths.isEmpty()) {
+            return;
+        }
+
+        TemplateFileMap templateFileMap = new TemplateFileMapBuilder(project)
+            .setWithPhp(usePhp)
+            .build(twigPaths);
+
+        for (Map.Entry<String, Set<VirtualFile>> entry : templateFileMap.getTemplateNames().entrySet()) {
+            for (VirtualFile virtualFile : entry.getValue()) {
+                if(!processor.process(entry.getKey(), virtualFile)) {
+                    return;
+                }
+            }
         }
-        
-        return container;
     }
 
     public static Map<String, VirtualFile> getTwigFilesByName(Project project) {
@@ -1502,29 +1695,27 @@ public class TwigHelper {
     }
 
     public static Collection<LookupElement> getTwigLookupElements(Project project) {
-        VirtualFile baseDir = project.getBaseDir();
-
-        Collection<LookupElement> lookupElements = new ArrayList<>();
-
-        for (Map.Entry<String, VirtualFile> entry : TwigHelper.getTwigFilesByName(project).entrySet()) {
-            lookupElements.add(
-                new TemplateLookupElement(entry.getKey(), entry.getValue(), baseDir)
-            );
-        }
-
-        return lookupElements;
+        return getTemplateLookupElements(project, false);
     }
 
     public static Collection<LookupElement> getAllTemplateLookupElements(Project project) {
+        return getTemplateLookupElements(project, true);
+    }
+
+    @NotNull
+    private static Collection<LookupElement> getTemplateLookupElements(@NotNull Project project, boolean usePhp) {
         VirtualFile baseDir = project.getBaseDir();
 
         Collection<LookupElement> lookupElements = new ArrayList<>();
+        Set<String> templateNames = new HashSet<>();
 
-        for (Map.Entry<String, VirtualFile> entry : TwigHelper.getTemplateFilesByName(project).entrySet()) {
-            lookupElements.add(
-                new TemplateLookupElement(entry.getKey(), entry.getValue(), baseDir)
-            );
-        }
+        processTemplates(project, usePhp, (templateName, virtualFile) -> {
+            if(templateNames.add(templateName)) {
+                lookupElements.add(new TemplateLookupElement(templateName, virtualFile, baseDir));
+            }
+
+            return true;
+        });
 
         return lookupElements;
     }
@@ -1753,7 +1944,7 @@ public class TwigHelper {
         @Nullable
         @Override
         public Result<TemplateFileMap> compute() {
-            return Result.create(getTemplateMapProxy(project, true, false), PsiModificationTracker.MODIFICATION_COUNT);
+            return Result.create(getTemplateMapProxy(project, true, false), IndexTracker.TEMPLATES.getTracker(project));
         }
     }
 
@@ -1768,7 +1959,7 @@ public class TwigHelper {
         @Nullable
         @Override
         public Result<TemplateFileMap> compute() {
-            return Result.create(getTemplateMapProxy(project, true, true), PsiModificationTracker.MODIFICATION_COUNT);
+            return Result.create(getTemplateMapProxy(project, true, true), IndexTracker.TEMPLATES.getTracker(project));
         }
     }
 
@@ -1891,30 +2082,4 @@ public class TwigHelper {
 
         return paths;
     }
-
-    private static class MyLimitedVirtualFileVisitor extends VirtualFileVisitor {
-        @NotNull
-        private final TwigPathContentIterator twigPathContentIterator;
-        private int childrenAllowToVisit = 1000;
-
-        MyLimitedVirtualFileVisitor(@NotNull TwigPathContentIterator twigPathContentIterator, int maxDepth, int maxDirs) {
-            super(VirtualFileVisitor.limit(maxDepth));
-            this.twigPathContentIterator = twigPathContentIterator;
-            this.childrenAllowToVisit = maxDirs;
-        }
-
-        @Override
-        public boolean visitFile(@NotNull VirtualFile virtualFile) {
-            // per path directory limit
-            if(virtualFile.isDirectory()) {
-                if(childrenAllowToVisit-- <= 0) {
-                    return false;
-                }
-            }
-
-            twigPathContentIterator.processFile(virtualFile);
-
-            return super.visitFile(virtualFile);
-        }
-    }
 }
@@ -6,7 +6,6 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.*;
@@ -17,7 +16,6 @@ import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.HashMap;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIndex;
-import com.jetbrains.php.lang.parser.PhpElementTypes;
 import com.jetbrains.php.lang.psi.PhpFile;
 import com.jetbrains.php.lang.psi.elements.*;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
@@ -25,11 +23,14 @@ import fr.adrienbrault.idea.symfony2plugin.config.dic.EventDispatcherSubscribedE
 import fr.adrienbrault.idea.symfony2plugin.dic.XmlEventParser;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexCacheValue;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.DispatcherEvent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.EventSubscriberMethod;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventAnnotationStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventSubscriberStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.EventSubscriberUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang.StringUtils;
@@ -44,7 +45,9 @@ import java.util.*;
 public class EventDispatcherSubscriberUtil {
 
     private static final Key<CachedValue<Collection<EventDispatcherSubscribedEvent>>> EVENT_SUBSCRIBERS = new Key<>("SYMFONY_EVENT_SUBSCRIBERS");
-    private static final Key<CachedValue<Set<String>>> EVENT_ANNOTATIONS = new Key<>("SYMFONY_EVENT_ANNOTATIONS");
+    private static final Key<CachedValue<Map<String, Collection<String>>>> EVENT_SUBSCRIBER_CONSTANTS = new Key<>("SYMFONY_EVENT_SUBSCRIBER_CONSTANTS");
+    private static final Key<IndexCacheValue<Set<String>>> EVENT_SUBSCRIBER_KEYS = new Key<>("SYMFONY_EVENT_SUBSCRIBER_KEYS");
+    private static final Key<IndexCacheValue<Set<String>>> EVENT_ANNOTATIONS = new Key<>("SYMFONY_EVENT_ANNOTATIONS");
 
     @NotNull
     public static Collection<EventDispatcherSubscribedEvent> getSubscribedEvents(final @NotNull Project project) {
@@ -52,7 +55,7 @@ public class EventDispatcherSubscriberUtil {
         CachedValue<Collection<EventDispatcherSubscribedEvent>> cache = project.getUserData(EVENT_SUBSCRIBERS);
         if (cache == null) {
             cache = CachedValuesManager.getManager(project).createCachedValue(() ->
-                CachedValueProvider.Result.create(getSubscribedEventsProxy(project), PsiModificationTracker.MODIFICATION_COUNT), false
+                CachedValueProvider.Result.create(getSubscribedEventsProxy(project), IndexTracker.EVENTS.getTracker(project)), false
             );
             project.putUserData(EVENT_SUBSCRIBERS, cache);
         }
@@ -66,133 +69,132 @@ public class EventDispatcherSubscriberUtil {
         Collection<EventDispatcherSubscribedEvent> events = new ArrayList<>();
 
         // http://symfony.com/doc/current/components/event_dispatcher/introduction.html
-        PhpIndex phpIndex = PhpIndex.getInstance(project);
-        Collection<PhpClass> phpClasses = phpIndex.getAllSubclasses("\\Symfony\\Component\\EventDispatcher\\EventSubscriberInterface");
-
-        for(PhpClass phpClass: phpClasses) {
-
-            if(PhpElementsUtil.isTestClass(phpClass)) {
-                continue;
+        for (String key : FileIndexCaches.getIndexKeysCache(project, EVENT_SUBSCRIBER_KEYS, EventSubscriberStubIndex.KEY, IndexTracker.EVENTS)) {
+            if(!key.startsWith(EventSubscriberStubIndex.CONSTANT_SIGNATURE_PREFIX)) {
+                events.addAll(getIndexedSubscribedEvents(project, key, key));
             }
+        }
 
-            Method method = phpClass.findMethodByName("getSubscribedEvents");
-            if(method != null) {
-                PhpReturn phpReturn = PsiTreeUtil.findChildOfType(method, PhpReturn.class);
-                if(phpReturn != null) {
-                    attachSubscriberEventNames(events, phpClass, phpReturn);
-                }
+        // [FOO::BAR => 'method']
+        for (Map.Entry<String, Collection<String>> entry : getEventConstants(project).entrySet()) {
+            for (String signature : entry.getValue()) {
+                events.addAll(getIndexedSubscribedEvents(project, entry.getKey(), signature));
             }
         }
 
        return events;
     }
 
-    private static void attachSubscriberEventNames(@NotNull Collection<EventDispatcherSubscribedEvent> events, @NotNull PhpClass phpClass, @NotNull PhpReturn phpReturn) {
+    /**
+     * Event name to signatures of class constants holding it: "post.foo" => "#K#C\Foo\Bar.BAR"
+     */
+    @NotNull
+    private static Map<String, Collection<String>> getEventConstants(@NotNull Project project) {
 
-        PhpPsiElement array = phpReturn.getFirstPsiChild();
-        if(!(array instanceof ArrayCreationExpression)) {
-            return;
+        CachedValue<Map<String, Collection<String>>> cache = project.getUserData(EVENT_SUBSCRIBER_CONSTANTS);
+        if (cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(getEventConstantsProxy(project), IndexTracker.EVENTS.getTracker(project)), false
+            );
+            project.putUserData(EVENT_SUBSCRIBER_CONSTANTS, cache);
         }
 
-        String presentableFQN = phpClass.getPresentableFQN();
+        return cache.getValue();
+    }
+
+    @NotNull
+    private static Map<String, Collection<String>> getEventConstantsProxy(@NotNull Project project) {
 
-        Iterable<ArrayHashElement> arrayHashElements = ((ArrayCreationExpression) array).getHashElements();
-        for(ArrayHashElement arrayHashElement: arrayHashElements) {
-            PsiElement arrayKey = arrayHashElement.getKey();
+        Map<String, Collection<String>> constants = new HashMap<>();
 
-            PsiElement value = null;
-            // get method name
-            // @TODO: support multiple method names, currently we only use method name if type hint, so first item helps for now
-            Collection<PsiElement> subscriberMethods = getSubscriberMethods(arrayHashElement);
-            if(subscriberMethods.size() > 0) {
-                value = subscriberMethods.iterator().next();
+        PhpIndex phpIndex = PhpIndex.getInstance(project);
+        for (String key : FileIndexCaches.getIndexKeysCache(project, EVENT_SUBSCRIBER_KEYS, EventSubscriberStubIndex.KEY, IndexTracker.EVENTS)) {
+            if(!key.startsWith(EventSubscriberStubIndex.CONSTANT_SIGNATURE_PREFIX)) {
+                continue;
             }
 
-            if(arrayKey instanceof StringLiteralExpression) {
-
-                // ['doh' => 'method']
-                events.add(new EventDispatcherSubscribedEvent(
-                    ((StringLiteralExpression) arrayKey).getContents(),
-                    presentableFQN,
-                    PhpElementsUtil.getStringValue(value)
-                ));
-
-            } else if(arrayKey instanceof PhpReference) {
-                String resolvedString = PhpElementsUtil.getStringValue(arrayKey);
-                if(resolvedString != null) {
-
-                    // [FOO::BAR => 'method']
-                    events.add(new EventDispatcherSubscribedEvent(
-                        resolvedString,
-                        presentableFQN,
-                        PhpElementsUtil.getStringValue(value),
-                        ((PhpReference) arrayKey).getSignature())
-                    );
+            for (PhpNamedElement phpNamedElement : phpIndex.getBySignature(key, null, 0)) {
+                if(!(phpNamedElement instanceof Field)) {
+                    continue;
                 }
 
+                PsiElement defaultValue = ((Field) phpNamedElement).getDefaultValue();
+                if(defaultValue instanceof StringLiteralExpression) {
+                    String contents = ((StringLiteralExpression) defaultValue).getContents();
+                    if(StringUtils.isNotBlank(contents)) {
+                        if(!constants.containsKey(contents)) {
+                            constants.put(contents, new HashSet<>());
+                        }
+
+                        constants.get(contents).add(key);
+                        break;
+                    }
+                }
             }
+        }
 
+        return constants;
+    }
+
+    @NotNull
+    private static Collection<EventDispatcherSubscribedEvent> getIndexedSubscribedEvents(@NotNull Project project, @NotNull String eventName, @NotNull String key) {
+
+        Collection<EventDispatcherSubscribedEvent> events = new ArrayList<>();
+
+        for (List<EventSubscriberMethod> methods : FileBasedIndex.getInstance().getValues(EventSubscriberStubIndex.KEY, key, GlobalSearchScope.allScope(project))) {
+            for (EventSubscriberMethod method : methods) {
+                for (String fqnClassName : getSubscriberClasses(project, method.getFqnClassName())) {
+                    if(method.getSignature() != null) {
+                        events.add(new EventDispatcherSubscribedEvent(eventName, fqnClassName, method.getMethodName(), method.getSignature()));
+                    } else {
+                        events.add(new EventDispatcherSubscribedEvent(eventName, fqnClassName, method.getMethodName()));
+                    }
+                }
+            }
         }
 
+        return events;
     }
 
     /**
-     * Extract method name for subscribe
-     *
-     * 'pre.foo1' => 'foo'
-     * 'pre.foo1' => ['onStoreOrder', 0]
-     * 'pre.foo2' => [['onStoreOrder', 0]]
+     * Index only knows the class declaring "getSubscribedEvents"; add all subclasses inheriting it without overwriting
      */
     @NotNull
-    private static Collection<PsiElement> getSubscriberMethods(@NotNull ArrayHashElement arrayHashElement) {
+    private static Collection<String> getSubscriberClasses(@NotNull Project project, @NotNull String fqnClassName) {
 
-        // support string, constants and array values
-        PhpPsiElement value = arrayHashElement.getValue();
-        if(value == null) {
-            Collections.emptySet();
-        }
+        Collection<String> classes = new ArrayList<>(Collections.singletonList(fqnClassName));
 
-        // 'pre.foo' => [...]
-        if(!(value instanceof ArrayCreationExpression)) {
-            return new ArrayList<>(Collections.singletonList(value));
-        }
+        for (PhpClass phpClass : PhpIndex.getInstance(project).getAllSubclasses("\\" + fqnClassName)) {
+            if(PhpElementsUtil.isTestClass(phpClass)) {
+                continue;
+            }
 
-        Collection<PsiElement> psiElements = new HashSet<>();
-
-        // 'pre.foo' => [<caret>]
-        PsiElement firstChild = value.getFirstPsiChild();
-        if(firstChild != null && firstChild.getNode().getElementType() == PhpElementTypes.ARRAY_VALUE) {
-            PhpPsiElement firstPsiChild = ((PhpPsiElement) firstChild).getFirstPsiChild();
-            if(firstPsiChild instanceof StringLiteralExpression) {
-                // 'pre.foo' => ['method']
-                psiElements.add(firstPsiChild);
-            } else if(firstPsiChild instanceof ArrayCreationExpression) {
-
-                // 'pre.foo' => [['method', ...], ['method2', ...]]
-                for (PsiElement psiElement : PsiElementUtils.getChildrenOfTypeAsList(firstPsiChild, PlatformPatterns.psiElement().withElementType(PhpElementTypes.ARRAY_VALUE))) {
-                    if(!(psiElement instanceof PhpPsiElement)) {
-                        continue;
-                    }
+            Method method = phpClass.findMethodByName(EventSubscriberStubIndex.METHOD_NAME);
+            if(method == null) {
+                continue;
+            }
 
-                    PhpPsiElement prioValue = ((PhpPsiElement) psiElement).getFirstPsiChild();
-                    if(prioValue instanceof StringLiteralExpression) {
-                        psiElements.add(prioValue);
-                    }
-                }
+            PhpClass containingClass = method.getContainingClass();
+            if(containingClass != null && fqnClassName.equals(StringUtils.stripStart(containingClass.getFQN(), "\\"))) {
+                classes.add(StringUtils.stripStart(phpClass.getFQN(), "\\"));
             }
         }
 
-        return psiElements;
+        return classes;
     }
 
+    /**
+     * Direct index lookup for event name and all constants holding it
+     */
     @NotNull
     public static Collection<EventDispatcherSubscribedEvent> getSubscribedEvent(@NotNull Project project, @NotNull String eventName) {
 
-        List<EventDispatcherSubscribedEvent> events = new ArrayList<>();
+        List<EventDispatcherSubscribedEvent> events = new ArrayList<>(getIndexedSubscribedEvents(project, eventName, eventName));
 
-        for(EventDispatcherSubscribedEvent event: getSubscribedEvents(project)) {
-            if(event.getStringValue().equals(eventName)) {
-                events.add(event);
+        Collection<String> signatures = getEventConstants(project).get(eventName);
+        if(signatures != null) {
+            for (String signature : signatures) {
+                events.addAll(getIndexedSubscribedEvents(project, eventName, signature));
             }
         }
 
@@ -275,7 +277,7 @@ public class EventDispatcherSubscriberUtil {
             }
         });
 
-        for (String s : FileIndexCaches.getIndexKeysCache(project, EVENT_ANNOTATIONS, EventAnnotationStubIndex.KEY)) {
+        for (String s : FileIndexCaches.getIndexKeysCache(project, EVENT_ANNOTATIONS, EventAnnotationStubIndex.KEY, IndexTracker.EVENTS)) {
 
             String typeText = "Event";
 
@@ -70,11 +70,18 @@ public class ParameterServiceCollector {
 
         for (int i = 0; i < ((NodeList) nodeList).getLength(); i++) {
             Element node = (Element) ((NodeList) nodeList).item(i);
-            String parameterValue = node.hasAttribute("type") && node.getAttribute("type").equals("collection") ?  "collection" : node.getTextContent();
-            parameterMap.put(node.getAttribute("key"), parameterValue);
+            parameterMap.put(node.getAttribute("key"), getParameterValue(node));
         }
 
         return parameterMap;
     }
 
+    /**
+     * Value of a "parameter" element; collections are not supported
+     */
+    @NotNull
+    public static String getParameterValue(@NotNull Element node) {
+        return node.hasAttribute("type") && node.getAttribute("type").equals("collection") ?  "collection" : node.getTextContent();
+    }
+
 }
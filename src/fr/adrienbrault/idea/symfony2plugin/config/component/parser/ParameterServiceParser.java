@@ -1,25 +1,30 @@
 package fr.adrienbrault.idea.symfony2plugin.config.component.parser;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
-import java.io.InputStream;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Element;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class ParameterServiceParser extends AbstractServiceParser {
+public class ParameterServiceParser extends AbstractStreamServiceParser {
 
     protected Map<String, String> parameterMap = new ConcurrentHashMap<>();
 
     @Override
     public String getXPathFilter() {
-        return "";
+        return "/container/parameters/parameter[@key]";
     }
 
-    public void parser(final InputStream file) {
-        this.parameterMap.putAll(ParameterServiceCollector.collect(file));
+    @Override
+    public void visit(@NotNull Element element) {
+        if(isParameter(element) && element.hasAttribute("key")) {
+            this.parameterMap.put(element.getAttribute("key"), ParameterServiceCollector.getParameterValue(element));
+        }
     }
 
     public Map<String, String> getParameterMap() {
         return parameterMap;
     }
 
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package fr.adrienbrault.idea.symfony2plugin.dic;
 
 import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -41,19 +42,25 @@ public class ServiceMapParser {
 
         NodeList servicesNodes = document.getElementsByTagName("service");
         for (int i = 0; i < servicesNodes.getLength(); i++) {
-            Element node = (Element) servicesNodes.item(i);
-            if (node.hasAttribute("class") && node.hasAttribute("id")) {
-                map.put(node.getAttribute("id"), StringUtils.stripStart(node.getAttribute("class"), "\\"));
-            }
-            if (!(node.hasAttribute("public") && node.getAttribute("public").equals("false"))) {
-                publicMap.put(node.getAttribute("id"), StringUtils.stripStart(node.getAttribute("class"), "\\"));
-            }
-            if (node.hasAttribute("alias") && publicMap.get(node.getAttribute("alias")) != null) {
-                map.put(node.getAttribute("id"), map.get(node.getAttribute("alias")));
-                publicMap.put(node.getAttribute("id"), map.get(node.getAttribute("alias")));
-            }
+            visit((Element) servicesNodes.item(i), map, publicMap);
         }
 
         return new ServiceMap(map, publicMap);
     }
+
+    /**
+     * Collect a single "service" element; aliases are only resolved for services which are already visited
+     */
+    public static void visit(@NotNull Element node, @NotNull Map<String, String> map, @NotNull Map<String, String> publicMap) {
+        if (node.hasAttribute("class") && node.hasAttribute("id")) {
+            map.put(node.getAttribute("id"), StringUtils.stripStart(node.getAttribute("class"), "\\"));
+        }
+        if (!(node.hasAttribute("public") && node.getAttribute("public").equals("false"))) {
+            publicMap.put(node.getAttribute("id"), StringUtils.stripStart(node.getAttribute("class"), "\\"));
+        }
+        if (node.hasAttribute("alias") && publicMap.get(node.getAttribute("alias")) != null) {
+            map.put(node.getAttribute("id"), map.get(node.getAttribute("alias")));
+            publicMap.put(node.getAttribute("id"), map.get(node.getAttribute("alias")));
+        }
+    }
 }
@@ -1,18 +1,16 @@
 package fr.adrienbrault.idea.symfony2plugin.dic;
 
 import fr.adrienbrault.idea.symfony2plugin.config.dic.EventDispatcherSubscribedEvent;
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
-import java.io.File;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class XmlEventParser extends AbstractServiceParser {
+public class XmlEventParser extends AbstractStreamServiceParser {
 
     protected Map<String, String> list = new ConcurrentHashMap<>();
     protected List<EventDispatcherSubscribedEvent> events = new ArrayList<>();
@@ -22,22 +20,22 @@ public class XmlEventParser extends AbstractServiceParser {
         return "/container/services/service[@id]/tag[@event]";
     }
 
-    public void parser(InputStream file) {
-        NodeList nodeList = this.parserer(file);
-
-        if(nodeList == null) {
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element) || !element.hasAttribute("id")) {
             return;
         }
 
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Element node = (Element) nodeList.item(i);
-            this.list.put(node.getAttribute("event"), node.getAttribute("name"));
-            if(((Element) node.getParentNode()).hasAttribute("class")) {
-                this.events.add(new EventDispatcherSubscribedEvent(node.getAttribute("event"), ((Element) node.getParentNode()).getAttribute("class"), null).setType(node.getAttribute("name")));
+        for (Element node : getChildElements(element, "tag")) {
+            if(!node.hasAttribute("event")) {
+                continue;
             }
 
+            this.list.put(node.getAttribute("event"), node.getAttribute("name"));
+            if(element.hasAttribute("class")) {
+                this.events.add(new EventDispatcherSubscribedEvent(node.getAttribute("event"), element.getAttribute("class"), null).setType(node.getAttribute("name")));
+            }
         }
-
     }
 
     public Map<String, String> get() {
@@ -1,14 +1,11 @@
 package fr.adrienbrault.idea.symfony2plugin.dic;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
-import org.xml.sax.SAXException;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
-import javax.xml.parsers.ParserConfigurationException;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-
-public class XmlServiceParser extends AbstractServiceParser {
+public class XmlServiceParser extends AbstractStreamServiceParser {
 
     protected ServiceMap serviceMap = new ServiceMap();
 
@@ -17,13 +14,18 @@ public class XmlServiceParser extends AbstractServiceParser {
         return "";
     }
 
-    public void parser(InputStream file) {
-        try {
-            // @TODO: make this one beautiful
-            ServiceMap serviceMap1 = new ServiceMapParser().parse(file);
-            this.serviceMap.getMap().putAll(serviceMap1.getMap());
-            this.serviceMap.getPublicMap().putAll(serviceMap1.getPublicMap());
-        } catch (SAXException | IOException | ParserConfigurationException ignored) {
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element)) {
+            return;
+        }
+
+        ServiceMapParser.visit(element, this.serviceMap.getMap(), this.serviceMap.getPublicMap());
+
+        // inline services
+        NodeList services = element.getElementsByTagName("service");
+        for (int i = 0; i < services.getLength(); i++) {
+            ServiceMapParser.visit((Element) services.item(i), this.serviceMap.getMap(), this.serviceMap.getPublicMap());
         }
     }
 
@@ -31,4 +33,4 @@ public class XmlServiceParser extends AbstractServiceParser {
         return serviceMap;
     }
 
-}
\ No newline at end of file
+}
@@ -1,18 +1,17 @@
 package fr.adrienbrault.idea.symfony2plugin.dic;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class XmlTagParser extends AbstractServiceParser {
+public class XmlTagParser extends AbstractStreamServiceParser {
 
     protected Set<String> list = new HashSet<>();
     protected Map<String, ArrayList<String>> taggedClasses = new ConcurrentHashMap<>();
@@ -22,23 +21,23 @@ public class XmlTagParser extends AbstractServiceParser {
         return "/container/services/service[@id]/tag[@name]";
     }
 
-    public void parser(InputStream file) {
-        NodeList nodeList = this.parserer(file);
-
-        if(nodeList == null) {
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element) || !element.hasAttribute("id")) {
             return;
         }
 
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Element node = (Element) nodeList.item(i);
+        for (Element node : getChildElements(element, "tag")) {
+            if(!node.hasAttribute("name")) {
+                continue;
+            }
+
             String tagName = node.getAttribute("name");
             this.list.add(tagName);
-            Element parentNode = (Element) node.getParentNode();
-            if(parentNode.hasAttribute("class")) {
-                this.addTaggedClass(tagName, parentNode.getAttribute("class"));
+            if(element.hasAttribute("class")) {
+                this.addTaggedClass(tagName, element.getAttribute("class"));
             }
         }
-
     }
 
 
@@ -169,6 +169,34 @@ public class SerializableService implements ServiceSerializable {
         return this;
     }
 
+    /**
+     * Raw state including "not defined" as null; needed by index externalizer to keep equals on read
+     */
+    @Nullable
+    public Boolean getRawPublic() {
+        return isPublic;
+    }
+
+    @Nullable
+    public Boolean getRawLazy() {
+        return isLazy;
+    }
+
+    @Nullable
+    public Boolean getRawAbstract() {
+        return isAbstract;
+    }
+
+    @Nullable
+    public Boolean getRawAutowire() {
+        return isAutowire;
+    }
+
+    @Nullable
+    public Boolean getRawDeprecated() {
+        return isDeprecated;
+    }
+
     @Override
     public int hashCode() {
         return new HashCodeBuilder()
@@ -1,15 +1,14 @@
 package fr.adrienbrault.idea.symfony2plugin.doctrine.component;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import java.io.File;
-import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class DocumentNamespacesParser extends AbstractServiceParser {
+public class DocumentNamespacesParser extends AbstractStreamServiceParser {
 
 
     protected Map<String, String> entityNameMap = new ConcurrentHashMap<>();
@@ -19,9 +18,14 @@ public class DocumentNamespacesParser extends AbstractServiceParser {
         return "/container/services/service[@id[starts-with(.,'doctrine_mongodb.odm.')] or @id[starts-with(.,'doctrine_couchdb.odm.')]]//call[@method='setDocumentNamespaces']//argument[@key]";
     }
 
-    public void parser(InputStream file) {
-        NodeList nodeList = this.parserer(file);
+    @Override
+    public void visit(@NotNull Element element) {
+        String id = element.getAttribute("id");
+        if(!isService(element) || (!id.startsWith("doctrine_mongodb.odm.") && !id.startsWith("doctrine_couchdb.odm."))) {
+            return;
+        }
 
+        NodeList nodeList = evaluate(element, ".//call[@method='setDocumentNamespaces']//argument[@key]");
         if(nodeList == null) {
             return;
         }
@@ -30,7 +34,6 @@ public class DocumentNamespacesParser extends AbstractServiceParser {
             Element node = (Element) nodeList.item(i);
             this.entityNameMap.put(node.getAttribute("key"), "\\" + node.getTextContent());
         }
-
     }
 
     public Map<String, String> getNamespaceMap() {
@@ -21,6 +21,8 @@ import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.dict.DoctrineMetada
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.driver.*;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.lookup.DoctrineRepositoryLookupElement;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexCacheValue;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.DoctrineMetadataFileStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import org.apache.commons.lang.StringUtils;
@@ -37,7 +39,7 @@ import java.util.regex.Pattern;
  */
 public class DoctrineMetadataUtil {
 
-    private static final Key<CachedValue<Set<String>>> CLASS_KEYS = new Key<>("CLASS_KEYS");
+    private static final Key<IndexCacheValue<Set<String>>> CLASS_KEYS = new Key<>("CLASS_KEYS");
 
     private static DoctrineMappingDriverInterface[] MAPPING_DRIVERS = new DoctrineMappingDriverInterface[] {
         new DoctrineXmlMappingDriver(),
@@ -112,7 +114,7 @@ public class DoctrineMetadataUtil {
         if(cache == null) {
             cache = CachedValuesManager.getManager(project).createCachedValue(() -> {
                 Map<String, Collection<String>> repositoryMap = new HashMap<>();
-                for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY)) {
+                for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY, IndexTracker.DOCTRINE_METADATA)) {
                     for (DoctrineModelInterface repositoryDefinition : FileBasedIndex.getInstance().getValues(DoctrineMetadataFileStubIndex.KEY, key, GlobalSearchScope.allScope(project))) {
                         if(StringUtils.isBlank(repositoryDefinition.getRepositoryClass())) {
                             continue;
@@ -156,7 +158,7 @@ public class DoctrineMetadataUtil {
 
         Collection<Pair<String, PsiElement>> pair = new ArrayList<>();
 
-        for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY)) {
+        for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY, IndexTracker.DOCTRINE_METADATA)) {
             for (VirtualFile virtualFile : FileBasedIndex.getInstance().getContainingFiles(DoctrineMetadataFileStubIndex.KEY, key, GlobalSearchScope.allScope(project))) {
                 PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
                 if(psiFile == null) {
@@ -188,7 +190,7 @@ public class DoctrineMetadataUtil {
     @Nullable
     public static DoctrineMetadataModel getMetadataByTable(@NotNull Project project, @NotNull String tableName) {
 
-        for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY)) {
+        for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY, IndexTracker.DOCTRINE_METADATA)) {
             for (VirtualFile virtualFile : FileBasedIndex.getInstance().getContainingFiles(DoctrineMetadataFileStubIndex.KEY, key, GlobalSearchScope.allScope(project))) {
                 PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
                 if(psiFile == null) {
@@ -239,7 +241,7 @@ public class DoctrineMetadataUtil {
     public static Collection<PhpClass> getModels(@NotNull Project project) {
 
         Collection<PhpClass> phpClasses = new ArrayList<>();
-        for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY)) {
+        for (String key : FileIndexCaches.getIndexKeysCache(project, CLASS_KEYS, DoctrineMetadataFileStubIndex.KEY, IndexTracker.DOCTRINE_METADATA)) {
             PhpClass classInterface = PhpElementsUtil.getClassInterface(project, key);
             if(classInterface != null) {
                 phpClasses.add(classInterface);
@@ -1,15 +1,13 @@
 package fr.adrienbrault.idea.symfony2plugin.form.dict;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
-import java.io.File;
-import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class FormExtensionServiceParser extends AbstractServiceParser {
+public class FormExtensionServiceParser extends AbstractStreamServiceParser {
 
     protected Map<String, String> formExtensions = new ConcurrentHashMap<>();
 
@@ -18,18 +16,17 @@ public class FormExtensionServiceParser extends AbstractServiceParser {
         return "/container/services/service/tag[@name='form.type_extension']";
     }
 
-    public void parser(InputStream file) {
-        NodeList nodeList = this.parserer(file);
-
-        if(nodeList == null) {
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element) || !element.hasAttribute("class")) {
             return;
         }
 
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Element node = (Element) nodeList.item(i);
-            formExtensions.put(node.getParentNode().getAttributes().getNamedItem("class").getTextContent(), node.getAttribute("alias"));
+        for (Element node : getChildElements(element, "tag")) {
+            if("form.type_extension".equals(node.getAttribute("name"))) {
+                formExtensions.put(element.getAttribute("class"), node.getAttribute("alias"));
+            }
         }
-
     }
 
     public Map<String, String> getFormExtensions() {
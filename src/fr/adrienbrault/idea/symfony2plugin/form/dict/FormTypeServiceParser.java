@@ -1,12 +1,11 @@
 package fr.adrienbrault.idea.symfony2plugin.form.dict;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import java.io.InputStream;
-
-public class FormTypeServiceParser extends AbstractServiceParser {
+public class FormTypeServiceParser extends AbstractStreamServiceParser {
 
     protected FormTypeMap formTypeMap = new FormTypeMap();
 
@@ -15,9 +14,13 @@ public class FormTypeServiceParser extends AbstractServiceParser {
         return "/container/services/service[@id='form.registry']//service[@class]/argument[@type='collection'][1]/argument[@key]";
     }
 
-    public void parser(InputStream file) {
-        NodeList nodeList = this.parserer(file);
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element) || !"form.registry".equals(element.getAttribute("id"))) {
+            return;
+        }
 
+        NodeList nodeList = evaluate(element, ".//service[@class]/argument[@type='collection'][1]/argument[@key]");
         if(nodeList == null) {
             return;
         }
@@ -26,7 +29,6 @@ public class FormTypeServiceParser extends AbstractServiceParser {
             Element node = (Element) nodeList.item(i);
             this.formTypeMap.getMap().put(node.getTextContent(), node.getAttribute("key"));
         }
-
     }
 
     public FormTypeMap getFormTypeMap() {
@@ -7,7 +7,6 @@ import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.containers.ContainerUtil;
-import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
 import fr.adrienbrault.idea.symfony2plugin.form.dict.*;
@@ -15,7 +14,6 @@ import fr.adrienbrault.idea.symfony2plugin.form.visitor.FormOptionLookupVisitor;
 import fr.adrienbrault.idea.symfony2plugin.form.visitor.FormOptionVisitor;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
-import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -38,15 +36,10 @@ public class FormOptionsUtil {
     @NotNull
     public static Collection<FormClass> getExtendedTypeClasses(@NotNull Project project, @NotNull String... formTypeNames) {
 
-        // strip "\"
-        List<String> formTypeNamesList = ContainerUtil.map(Arrays.asList(formTypeNames), s -> {
-            return StringUtils.stripStart(s, "\\");
-        });
-
         Collection<FormClass> extendedTypeClasses = new ArrayList<>();
-        for(PhpClass phpClass: getFormTypeExtensionClassNames(project)) {
-            String formExtendedType = FormUtil.getFormExtendedType(phpClass);
-            if(formExtendedType != null && formTypeNamesList.contains(formExtendedType)) {
+        for(String className: FormTypeRegistry.getInstance(project).getExtensionClasses(Arrays.asList(formTypeNames))) {
+            PhpClass phpClass = PhpElementsUtil.getClass(project, className);
+            if(phpClass != null) {
                 extendedTypeClasses.add(new FormClass(FormClassEnum.EXTENSION, phpClass, true));
             }
         }
@@ -54,30 +47,6 @@ public class FormOptionsUtil {
         return extendedTypeClasses;
     }
 
-    @NotNull
-    private static Set<PhpClass> getFormTypeExtensionClassNames(@NotNull Project project) {
-
-        Set<PhpClass> phpClasses = new HashSet<>();
-
-        // @TODO: should be same as interface?
-        for (String s : ServiceXmlParserFactory.getInstance(project, FormExtensionServiceParser.class).getFormExtensions().keySet()) {
-            ContainerUtil.addIfNotNull(
-                phpClasses,
-                PhpElementsUtil.getClass(project, s)
-            );
-        }
-
-        for(PhpClass phpClass: PhpIndex.getInstance(project).getAllSubclasses(FormUtil.FORM_EXTENSION_INTERFACE)) {
-            if(!FormUtil.isValidFormPhpClass(phpClass)) {
-                continue;
-            }
-
-            phpClasses.add(phpClass);
-        }
-
-        return phpClasses;
-    }
-
     @NotNull
     public static Map<String, FormOption> getFormExtensionKeys(@NotNull Project project, @NotNull String... formTypeNames) {
 
@@ -226,7 +195,7 @@ public class FormOptionsUtil {
 
         // recursive search for parent form types
         if (depth < 10) {
-            String formParent = FormUtil.getFormParentOfPhpClass(phpClass);
+            String formParent = FormTypeRegistry.getInstance(project).getFormParent(phpClass);
             if(formParent != null) {
                 visitFormOptions(project, formParent, defaultValues, collector, ++depth, visitor);
             }
@@ -250,7 +219,7 @@ public class FormOptionsUtil {
 
         // recursive search for parent form types
         if (depth < 10) {
-            String formParent = FormUtil.getFormParentOfPhpClass(phpClass);
+            String formParent = FormTypeRegistry.getInstance(project).getFormParent(phpClass);
             if(formParent != null) {
                 getFormDefaultKeys(project, formParent, defaultValues, collector, ++depth, visitor);
             }
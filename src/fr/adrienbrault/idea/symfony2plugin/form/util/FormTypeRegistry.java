@@ -0,0 +1,198 @@
+package fr.adrienbrault.idea.symfony2plugin.form.util;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.containers.ContainerUtil;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import fr.adrienbrault.idea.symfony2plugin.form.dict.EnumFormTypeSource;
+import fr.adrienbrault.idea.symfony2plugin.form.dict.FormExtensionServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.form.dict.FormTypeClass;
+import fr.adrienbrault.idea.symfony2plugin.form.dict.FormTypeServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Project wide form types of index and compiled container, shared by all completion and reference sessions:
+ * name or alias to class, class to parent type and extended type to its extension classes
+ *
+ * Only class names are hold, so no psi element survives a reparse. Cache is rebuild on php class structure or
+ * compiled container changes
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class FormTypeRegistry {
+
+    private static final Key<CachedValue<FormTypeRegistry>> FORM_TYPE_REGISTRY = new Key<>("SYMFONY_FORM_TYPE_REGISTRY");
+
+    /**
+     * Index types overwritten by compiled container aliases
+     */
+    @NotNull
+    private final Map<String, FormTypeClass> formTypes = new HashMap<>();
+
+    @NotNull
+    private final Map<String, FormTypeClass> indexFormTypes = new HashMap<>();
+
+    /**
+     * Lowercase class name without leading backslash to its "getParent" type
+     */
+    @NotNull
+    private final Map<String, String> parents = new HashMap<>();
+
+    /**
+     * "getExtendedType" to extension class names
+     */
+    @NotNull
+    private final Map<String, Set<String>> extensions = new HashMap<>();
+
+    private FormTypeRegistry() {
+    }
+
+    @NotNull
+    public static FormTypeRegistry getInstance(@NotNull Project project) {
+
+        // compiled container changes increments our trackers
+        ServiceXmlParserFactory.getInstance(project, FormTypeServiceParser.class);
+        ServiceXmlParserFactory.getInstance(project, FormExtensionServiceParser.class);
+
+        CachedValue<FormTypeRegistry> cache = project.getUserData(FORM_TYPE_REGISTRY);
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(
+                    create(project),
+                    PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT,
+                    IndexTracker.SERVICES.getTracker(project)
+                )
+            , false);
+
+            project.putUserData(FORM_TYPE_REGISTRY, cache);
+        }
+
+        return cache.getValue();
+    }
+
+    /**
+     * Form name or alias to its type; compiler wins
+     */
+    @NotNull
+    public Map<String, FormTypeClass> getFormTypes() {
+        return Collections.unmodifiableMap(formTypes);
+    }
+
+    @Nullable
+    public FormTypeClass getFormType(@NotNull String formTypeName) {
+        return formTypes.get(formTypeName);
+    }
+
+    /**
+     * Form types found in php index only
+     */
+    @Nullable
+    public FormTypeClass getIndexFormType(@NotNull String formTypeName) {
+        return indexFormTypes.get(formTypeName);
+    }
+
+    /**
+     * "getParent" of form type classes, without leaving the cache for known classes
+     */
+    @Nullable
+    public String getFormParent(@NotNull PhpClass phpClass) {
+        String key = normalizeClassName(phpClass.getFQN());
+        if(parents.containsKey(key)) {
+            return parents.get(key);
+        }
+
+        return FormUtil.getFormParentOfPhpClass(phpClass);
+    }
+
+    /**
+     * Class names of extensions for any of the given types
+     */
+    @NotNull
+    public Set<String> getExtensionClasses(@NotNull Collection<String> formTypeNames) {
+        Set<String> classes = new LinkedHashSet<>();
+
+        for (String formTypeName : formTypeNames) {
+            Set<String> extensionClasses = extensions.get(StringUtils.stripStart(formTypeName, "\\"));
+            if(extensionClasses != null) {
+                classes.addAll(extensionClasses);
+            }
+        }
+
+        return classes;
+    }
+
+    @NotNull
+    private static FormTypeRegistry create(@NotNull Project project) {
+        FormTypeRegistry registry = new FormTypeRegistry();
+
+        // on indexer, compiler wins...
+        for (FormTypeClass formTypeClass : FormUtil.getFormTypeClasses(project).values()) {
+            PhpClass phpClass = formTypeClass.getPhpClass();
+            if(phpClass == null) {
+                continue;
+            }
+
+            String className = StringUtils.stripStart(phpClass.getFQN(), "\\");
+
+            FormTypeClass indexType = new FormTypeClass(formTypeClass.getName(), className, EnumFormTypeSource.INDEX);
+            registry.indexFormTypes.put(indexType.getName(), indexType);
+            registry.formTypes.put(indexType.getName(), indexType);
+
+            String parent = FormUtil.getFormParentOfPhpClass(phpClass);
+            registry.parents.put(normalizeClassName(className), parent);
+        }
+
+        // find on registered formtype aliases on compiled container
+        FormTypeServiceParser formTypeServiceParser = ServiceXmlParserFactory.getInstance(project, FormTypeServiceParser.class);
+        for(Map.Entry<String, String> entry: formTypeServiceParser.getFormTypeMap().getMap().entrySet()) {
+            String formTypeName = entry.getValue();
+            registry.formTypes.put(formTypeName, new FormTypeClass(formTypeName, entry.getKey(), EnumFormTypeSource.COMPILER));
+        }
+
+        Set<PhpClass> extensionClasses = new HashSet<>();
+
+        // @TODO: should be same as interface?
+        for (String s : ServiceXmlParserFactory.getInstance(project, FormExtensionServiceParser.class).getFormExtensions().keySet()) {
+            ContainerUtil.addIfNotNull(extensionClasses, PhpElementsUtil.getClass(project, s));
+        }
+
+        for(PhpClass phpClass: PhpIndex.getInstance(project).getAllSubclasses(FormUtil.FORM_EXTENSION_INTERFACE)) {
+            if(FormUtil.isValidFormPhpClass(phpClass)) {
+                extensionClasses.add(phpClass);
+            }
+        }
+
+        for (PhpClass phpClass : extensionClasses) {
+            String extendedType = FormUtil.getFormExtendedType(phpClass);
+            if(extendedType == null) {
+                continue;
+            }
+
+            extendedType = StringUtils.stripStart(extendedType, "\\");
+            if(!registry.extensions.containsKey(extendedType)) {
+                registry.extensions.put(extendedType, new LinkedHashSet<>());
+            }
+
+            registry.extensions.get(extendedType).add(StringUtils.stripStart(phpClass.getFQN(), "\\"));
+        }
+
+        return registry;
+    }
+
+    @NotNull
+    private static String normalizeClassName(@NotNull String className) {
+        return StringUtils.stripStart(className, "\\").toLowerCase();
+    }
+}
@@ -19,11 +19,9 @@ import fr.adrienbrault.idea.symfony2plugin.Symfony2InterfacesUtil;
 import fr.adrienbrault.idea.symfony2plugin.form.FormTypeLookup;
 import fr.adrienbrault.idea.symfony2plugin.form.dict.EnumFormTypeSource;
 import fr.adrienbrault.idea.symfony2plugin.form.dict.FormTypeClass;
-import fr.adrienbrault.idea.symfony2plugin.form.dict.FormTypeServiceParser;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
 import fr.adrienbrault.idea.symfony2plugin.util.psi.PsiElementAssertUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -54,14 +52,13 @@ public class FormUtil {
             String name = entry.getValue().getName();
             String typeText = entry.getValue().getPhpClassName();
 
-            PhpClass phpClass = entry.getValue().getPhpClass();
-            if(phpClass != null) {
-                typeText = phpClass.getName();
-            }
-
-            FormTypeLookup formTypeLookup = new FormTypeLookup(typeText, name);
+            FormTypeLookup formTypeLookup;
             if(entry.getValue().getSource() == EnumFormTypeSource.INDEX) {
+                // short class name; registry only holds names
+                formTypeLookup = new FormTypeLookup(StringUtils.substringAfterLast("\\" + typeText, "\\"), name);
                 formTypeLookup.withWeak(true);
+            } else {
+                formTypeLookup = new FormTypeLookup(typeText, name);
             }
 
             lookupElements.add(formTypeLookup);
@@ -340,15 +337,8 @@ public class FormUtil {
 
         public FormTypeCollector collect() {
 
-            // on indexer, compiler wins...
-            formTypesMap.putAll(FormUtil.getFormTypeClasses(project));
-
-            // find on registered formtype aliases on compiled container
-            FormTypeServiceParser formTypeServiceParser = ServiceXmlParserFactory.getInstance(project, FormTypeServiceParser.class);
-            for(Map.Entry<String, String> entry: formTypeServiceParser.getFormTypeMap().getMap().entrySet()) {
-                String formTypeName = entry.getValue();
-                formTypesMap.put(formTypeName, new FormTypeClass(formTypeName, entry.getKey(), EnumFormTypeSource.COMPILER));
-            }
+            // index and compiled container types are shared on project level
+            formTypesMap.putAll(FormTypeRegistry.getInstance(project).getFormTypes());
 
             return this;
         }
@@ -398,12 +388,12 @@ public class FormUtil {
             }
 
             // on indexer
-            Map<String, FormTypeClass> forms = FormUtil.getFormTypeClasses(project);
-            if(!forms.containsKey(formTypeName)) {
+            FormTypeClass formTypeClass = FormTypeRegistry.getInstance(project).getIndexFormType(formTypeName);
+            if(formTypeClass == null) {
                 return null;
             }
 
-            return forms.get(formTypeName).getPhpClass();
+            return formTypeClass.getPhpClass(project);
         }
 
         public Map<String, FormTypeClass> getFormTypesMap() {
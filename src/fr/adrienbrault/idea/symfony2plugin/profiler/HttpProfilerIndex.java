@@ -10,6 +10,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -44,6 +45,18 @@ public class HttpProfilerIndex implements ProfilerIndexInterface {
         );
     }
 
+    @Override
+    public void processRequests(@NotNull Consumer<ProfilerRequestInterface> consumer) {
+        String content = ProfilerUtil.getProfilerUrlContent(String.format("%s/%s/empty/search/results?ip=&limit=10", this.url, PROFILER_PATH));
+        if(content == null) {
+            return;
+        }
+
+        ProfilerUtil.processHttpDataForRequest(
+            project, ProfilerUtil.createRequestsFromIndexHtml(this.project, content, this.url), consumer
+        );
+    }
+
     @Nullable
     @Override
     public String getUrlForRequest(@NotNull ProfilerRequestInterface request) {
@@ -1,70 +1,74 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
-import com.intellij.util.containers.ContainerUtil;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalDefaultDataCollector;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalMailCollector;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.LocalProfilerRequest;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
-import fr.adrienbrault.idea.symfony2plugin.profiler.reader.ReverseFileLineReader;
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.LocalProfileContent;
 import fr.adrienbrault.idea.symfony2plugin.profiler.utils.ProfilerUtil;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class LocalProfilerIndex implements ProfilerIndexInterface {
+    @NotNull
+    private final Project project;
+
     @NotNull
     private File file;
 
     @Nullable
     private String baseUrl;
 
-    public LocalProfilerIndex(@NotNull File file) {
+    public LocalProfilerIndex(@NotNull Project project, @NotNull File file) {
+        this.project = project;
         this.file = file;
     }
 
-    public LocalProfilerIndex(@NotNull File file, @Nullable String baseUrl) {
+    public LocalProfilerIndex(@NotNull Project project, @NotNull File file, @Nullable String baseUrl) {
+        this.project = project;
         this.file = file;
         this.baseUrl = baseUrl;
     }
 
+    /**
+     * Requests are only build from the csv line; profile content is read and parsed when a collector is accessed.
+     * Only lines appended since last call are parsed, already known requests are reused
+     */
     @NotNull
     public List<ProfilerRequestInterface> getRequests() {
-        List<String> lines = new ArrayList<>();
-
-        try {
-            // empty line and end of line need +1
-            ContainerUtil.addAll(lines, new ReverseFileLineReader(this.file, "UTF-8", 11).readLines());
-        } catch (IOException ignored) {
-        }
-
-        Collection<Callable<ProfilerRequestInterface>> callable = new ArrayList<>();
+        return LocalProfilerIndexTail.getInstance(this.project, this.file).getRequests(this::createRequest);
+    }
 
-        // build thread callable collection
-        lines.stream().filter(StringUtils::isNotBlank).forEachOrdered(line -> {
+    /**
+     * @param listener called after new requests are appended to the index file
+     */
+    public void addListener(@NotNull Runnable listener, @NotNull Disposable parent) {
+        LocalProfilerIndexTail.getInstance(this.project, this.file).addListener(listener, parent);
+    }
 
-            // we need at least this information for a valid line:
-            // "18e6b8,127.0.0.1,GET,http://127.0.0.1:8000/foobar"
-            String[] split = line.split(",");
-            if (split.length <= 4) {
-                return;
-            }
+    @NotNull
+    public File getFile() {
+        return file;
+    }
 
-            callable.add(new MyProfilerRequestBuilderCallable(split));
-        });
+    @Nullable
+    public String getBaseUrl() {
+        return baseUrl;
+    }
 
-        return ProfilerUtil.getProfilerRequestCollectorDecorated(callable, 15);
+    @Override
+    public void processRequests(@NotNull Consumer<ProfilerRequestInterface> consumer) {
+        getRequests().forEach(consumer);
     }
 
     @Nullable
@@ -95,47 +99,19 @@ public class LocalProfilerIndex implements ProfilerIndexInterface {
         return file;
     }
 
-    @Nullable
-    private String getContentForHash(@NotNull String hash) {
-        File file = this.getFile(hash);
+    @NotNull
+    private ProfilerRequestInterface createRequest(@NotNull String[] split) {
+        File file = getFile(split[0]);
         if(file == null) {
-            return  null;
+            return new LocalProfilerRequest(split);
         }
 
-        StringBuilder content = new StringBuilder();
+        LocalProfileContent content = new LocalProfileContent(file);
 
-        try {
-            BufferedReader in = new BufferedReader(new FileReader(file));
-            String str;
-            while ((str = in.readLine()) != null) {
-                content.append(str);
-            }
-            in.close();
-        } catch (IOException ignored) {
-        }
-
-        return content.toString();
-    }
-
-    private class MyProfilerRequestBuilderCallable implements Callable<ProfilerRequestInterface> {
-        private final String[] split;
-
-        MyProfilerRequestBuilderCallable(String[] split) {
-            this.split = split;
-        }
-
-        @Override
-        public ProfilerRequestInterface call() throws Exception {
-            String content = getContentForHash(split[0]);
-            if(content == null) {
-                return new LocalProfilerRequest(split);
-            }
-
-            return new LocalProfilerRequest(
-                split,
-                new LocalDefaultDataCollector(content),
-                new LocalMailCollector(content)
-            );
-        }
+        return new LocalProfilerRequest(
+            split,
+            new LocalDefaultDataCollector(content::getContent),
+            new LocalMailCollector(content::getContent)
+        );
     }
 }
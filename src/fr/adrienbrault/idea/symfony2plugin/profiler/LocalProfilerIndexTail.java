@@ -0,0 +1,184 @@
+package fr.adrienbrault.idea.symfony2plugin.profiler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.containers.ContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.CsvIndexTailReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Shared state of a local "index.csv": all LocalProfilerIndex instances of the same project and file use it,
+ * so already decoded requests survive between the short living index instances. State is dropped with the project
+ *
+ * Listeners are notified only if new lines were appended; the file is followed by vfs events, there is no polling
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class LocalProfilerIndexTail {
+
+    private static final Key<Map<String, LocalProfilerIndexTail>> TAILS = new Key<>("SYMFONY_PROFILER_INDEX_TAILS");
+
+    private static final int MAX_REQUESTS = 10;
+
+    @NotNull
+    private final CsvIndexTailReader reader;
+
+    /**
+     * Hash to already decoded request; a line in the csv never changes for its hash
+     */
+    @NotNull
+    private final Cache<String, ProfilerRequestInterface> requests = CacheBuilder.newBuilder()
+        .maximumSize(MAX_REQUESTS * 5)
+        .build();
+
+    @NotNull
+    private final List<Runnable> listeners = ContainerUtil.createLockFreeCopyOnWriteList();
+
+    @NotNull
+    private final Project project;
+
+    @NotNull
+    private final File file;
+
+    /**
+     * Vfs subscription and watch root, alive as long as there are listeners
+     */
+    private Disposable watchDisposable = null;
+
+    private LocalProfilerIndexTail(@NotNull Project project, @NotNull File file) {
+        this.project = project;
+        this.file = file;
+        this.reader = new CsvIndexTailReader(file, MAX_REQUESTS);
+    }
+
+    @NotNull
+    public static LocalProfilerIndexTail getInstance(@NotNull Project project, @NotNull File file) {
+        Map<String, LocalProfilerIndexTail> tails = project.getUserData(TAILS);
+        if(tails == null) {
+            tails = ((UserDataHolderEx) project).putUserDataIfAbsent(TAILS, new ConcurrentHashMap<>());
+        }
+
+        return tails.computeIfAbsent(file.getAbsolutePath(), path -> new LocalProfilerIndexTail(project, file));
+    }
+
+    /**
+     * @param factory creates a request for a csv line, which is known to be valid
+     */
+    @NotNull
+    public List<ProfilerRequestInterface> getRequests(@NotNull Function<String[], ProfilerRequestInterface> factory) {
+        update();
+
+        List<ProfilerRequestInterface> profilerRequests = new ArrayList<>();
+
+        for (String line : reader.getLines()) {
+            // we need at least this information for a valid line:
+            // "18e6b8,127.0.0.1,GET,http://127.0.0.1:8000/foobar"
+            String[] split = line.split(",");
+            if (split.length <= 4) {
+                continue;
+            }
+
+            try {
+                profilerRequests.add(requests.get(split[0], () -> factory.apply(split)));
+            } catch (ExecutionException ignored) {
+            }
+        }
+
+        return profilerRequests;
+    }
+
+    /**
+     * Listener is called on a background thread after new requests were appended;
+     * the file is only watched as long as there are listeners and the project is open
+     */
+    public void addListener(@NotNull Runnable listener, @NotNull Disposable parent) {
+        listeners.add(listener);
+
+        synchronized (this) {
+            if(watchDisposable == null) {
+                watchDisposable = Disposer.newDisposable();
+                Disposer.register(project, watchDisposable);
+                watchFile(watchDisposable);
+            }
+        }
+
+        Disposer.register(parent, () -> {
+            listeners.remove(listener);
+
+            synchronized (this) {
+                if(listeners.isEmpty() && watchDisposable != null) {
+                    Disposer.dispose(watchDisposable);
+                    watchDisposable = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Profiler files are mostly inside excluded cache folders or outside of the project, so the vfs needs to
+     * know the file and its folder must be watched to get external changes
+     */
+    private void watchFile(@NotNull Disposable disposable) {
+        String path = FileUtil.toSystemIndependentName(file.getAbsolutePath());
+
+        LocalFileSystem.WatchRequest watchRequest = LocalFileSystem.getInstance().addRootToWatch(file.getParent(), false);
+        Disposer.register(disposable, () -> {
+            if(watchRequest != null) {
+                LocalFileSystem.getInstance().removeWatchedRoot(watchRequest);
+            }
+        });
+
+        project.getMessageBus().connect(disposable).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    if(path.equals(event.getPath())) {
+                        // file reading must not block the vfs event
+                        ApplicationManager.getApplication().executeOnPooledThread(LocalProfilerIndexTail.this::checkForChanges);
+                        return;
+                    }
+                }
+            }
+        });
+
+        // vfs only provides events for known files; refresh is async, so we dont block the caller
+        LocalFileSystem.getInstance().refreshIoFiles(Collections.singletonList(file), true, false, null);
+    }
+
+    private void checkForChanges() {
+        if(update()) {
+            listeners.forEach(Runnable::run);
+        }
+    }
+
+    private boolean update() {
+        try {
+            return reader.update();
+        } catch (IOException ignored) {
+        }
+
+        return false;
+    }
+}
@@ -5,6 +5,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -13,6 +14,11 @@ public interface ProfilerIndexInterface {
     @NotNull
     List<ProfilerRequestInterface> getRequests();
 
+    /**
+     * Provides every request as soon as it is resolved; order is not guaranteed
+     */
+    void processRequests(@NotNull Consumer<ProfilerRequestInterface> consumer);
+
     @Nullable
     String getUrlForRequest(@NotNull ProfilerRequestInterface request);
 }
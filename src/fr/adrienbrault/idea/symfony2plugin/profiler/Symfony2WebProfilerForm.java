@@ -1,5 +1,7 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.project.Project;
 import com.intellij.ui.SimpleColoredComponent;
 import com.jetbrains.php.PhpIcons;
@@ -17,6 +19,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.Collection;
 
 public class Symfony2WebProfilerForm {
@@ -31,6 +34,8 @@ public class Symfony2WebProfilerForm {
 
     private ProfilerIndexInterface profilerIndex;
 
+    private int renderGeneration = 0;
+
     Symfony2WebProfilerForm(@NotNull Project project) {
         DefaultListModel listenModel = new DefaultListModel();
         this.list1.setModel(listenModel);
@@ -99,31 +104,59 @@ public class Symfony2WebProfilerForm {
 
     }
 
+    /**
+     * Requests are loaded in background and added to the list as soon as they are resolved;
+     * a newer refresh drops all pending items of an older one
+     */
     private void renderRequests() {
         DefaultListModel<ProfilerRequestInterface> listModel = (DefaultListModel<ProfilerRequestInterface>) listRequest.getModel();
         listModel.removeAllElements();
 
-        this.profilerIndex.getRequests().forEach(listModel::addElement);
+        int generation = ++this.renderGeneration;
+
+        ApplicationManager.getApplication().executeOnPooledThread(() ->
+            this.profilerIndex.processRequests(request -> ApplicationManager.getApplication().invokeLater(() -> {
+                if(generation == this.renderGeneration) {
+                    listModel.addElement(request);
+                }
+            }, ModalityState.any()))
+        );
     }
 
+    /**
+     * Collector content is parsed on first access, so keep it out of the ui thread
+     */
     private void renderRequestDetails(@NotNull ProfilerRequestInterface profilerRequest) {
         DefaultListModel<RequestDetails> listModel = (DefaultListModel<RequestDetails>) listRequestDetails.getModel();
         listModel.removeAllElements();
 
-        DefaultDataCollectorInterface defaultDataCollector = profilerRequest.getCollector(DefaultDataCollectorInterface.class);
-        if(defaultDataCollector != null) {
-            if(defaultDataCollector.getRoute() != null) {
-                listModel.addElement(new RequestDetails(defaultDataCollector.getRoute(), Symfony2Icons.ROUTE));
-            }
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            Collection<RequestDetails> details = new ArrayList<>();
 
-            if(defaultDataCollector.getController() != null) {
-                listModel.addElement(new RequestDetails(defaultDataCollector.getController(), PhpIcons.METHOD_ICON));
-            }
+            DefaultDataCollectorInterface defaultDataCollector = profilerRequest.getCollector(DefaultDataCollectorInterface.class);
+            if(defaultDataCollector != null) {
+                String route = defaultDataCollector.getRoute();
+                if(route != null) {
+                    details.add(new RequestDetails(route, Symfony2Icons.ROUTE));
+                }
 
-            if(defaultDataCollector.getTemplate() != null) {
-                listModel.addElement(new RequestDetails(defaultDataCollector.getTemplate(), TwigIcons.TwigFileIcon));
+                String controller = defaultDataCollector.getController();
+                if(controller != null) {
+                    details.add(new RequestDetails(controller, PhpIcons.METHOD_ICON));
+                }
+
+                String template = defaultDataCollector.getTemplate();
+                if(template != null) {
+                    details.add(new RequestDetails(template, TwigIcons.TwigFileIcon));
+                }
             }
-        }
+
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if(profilerRequest == listRequest.getSelectedValue()) {
+                    details.forEach(listModel::addElement);
+                }
+            }, ModalityState.any());
+        });
     }
 
     JComponent createComponent() {
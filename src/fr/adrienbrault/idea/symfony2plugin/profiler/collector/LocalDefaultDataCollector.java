@@ -1,32 +1,41 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler.collector;
 
 import org.intellij.lang.annotations.RegExp;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class LocalDefaultDataCollector implements DefaultDataCollectorInterface {
-    @Nullable
-    private final String contents;
+    @NotNull
+    private final Supplier<String> contents;
 
     public LocalDefaultDataCollector(@Nullable String contents) {
+        this.contents = () -> contents;
+    }
+
+    /**
+     * @param contents profile content is only requested on first collector access
+     */
+    public LocalDefaultDataCollector(@NotNull Supplier<String> contents) {
         this.contents = contents;
     }
 
     @Nullable
     public String getController() {
-        return this.getStringValue(this.contents, "_controller\";s:(\\d+):");
+        return this.getStringValue(this.contents.get(), "_controller\";s:(\\d+):");
     }
 
     @Nullable
     public String getRoute() {
-        return this.getStringValue(this.contents, "_route\";s:(\\d+):");
+        return this.getStringValue(this.contents.get(), "_route\";s:(\\d+):");
     }
 
     @Nullable
     public String getTemplate() {
-        return this.pregMatch(this.contents, "\"template.twig \\(([^\"]*\\.html\\.\\w{2,4})\\)\"");
+        return this.pregMatch(this.contents.get(), "\"template.twig \\(([^\"]*\\.html\\.\\w{2,4})\\)\"");
     }
 
     @Nullable
@@ -8,6 +8,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,15 +18,27 @@ import java.util.regex.Pattern;
 public class LocalMailCollector implements MailCollectorInterface {
 
     @NotNull
-    private final String contents;
+    private final Supplier<String> contents;
 
     public LocalMailCollector(@NotNull String contents) {
+        this.contents = () -> contents;
+    }
+
+    /**
+     * @param contents profile content is only requested on first collector access
+     */
+    public LocalMailCollector(@NotNull Supplier<String> contents) {
         this.contents = contents;
     }
 
     @NotNull
     public Collection<MailMessage> getMessages() {
-        String messages = this.findTwice(this.contents, "MessageDataCollector\":(\\d+):");
+        String contents = this.contents.get();
+        if(contents == null) {
+            return Collections.emptyList();
+        }
+
+        String messages = this.findTwice(contents, "MessageDataCollector\":(\\d+):");
         if(messages == null) {
             return Collections.emptyList();
         }
@@ -34,7 +34,7 @@ public class LocalProfilerFactory implements ProfilerFactoryInterface {
             profilerUrl = profilerLocalUrl;
         }
 
-        return new LocalProfilerIndex(csvIndex, profilerUrl);
+        return new LocalProfilerIndex(project, csvIndex, profilerUrl);
     }
 
     /**
@@ -0,0 +1,164 @@
+package fr.adrienbrault.idea.symfony2plugin.profiler.reader;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Follows the profiler "index.csv" like "tail -f":
+ * first call reads the last lines in reverse, after that only bytes appended since the last known offset are parsed
+ *
+ * A file getting smaller than our offset or replaced by a new file, eg on cache clear, starts again from the end
+ * of the new file. A line without its line break is still written and only read after it is complete
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class CsvIndexTailReader {
+
+    @NotNull
+    private final File file;
+
+    private final int limit;
+
+    /**
+     * Newest line first
+     */
+    @NotNull
+    private final LinkedList<String> lines = new LinkedList<>();
+
+    private long offset = 0;
+    private boolean initialized = false;
+
+    /**
+     * Inode like file key or creation time if the filesystem has no file keys
+     */
+    @Nullable
+    private Object fileIdentity = null;
+
+    /**
+     * @param limit max lines to keep
+     */
+    public CsvIndexTailReader(@NotNull File file, int limit) {
+        this.file = file;
+        this.limit = limit;
+    }
+
+    /**
+     * @return true if there are new lines since last update
+     */
+    public synchronized boolean update() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        long length = attributes.size();
+        Object identity = attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+
+        if(length < offset || (initialized && !identity.equals(fileIdentity))) {
+            lines.clear();
+            initialized = false;
+        }
+
+        if(!initialized) {
+            initialized = true;
+            fileIdentity = identity;
+            offset = getCompleteLength(length);
+
+            // empty line or incomplete line at the end need +1
+            boolean incomplete = offset < length;
+            for (String line : new ReverseFileLineReader(file, "UTF-8", limit + 1).readLines()) {
+                // line is still written; it is read on its completion
+                if(incomplete) {
+                    incomplete = false;
+                    continue;
+                }
+
+                addLine(line, false);
+            }
+
+            return lines.size() > 0;
+        }
+
+        if(length == offset) {
+            return false;
+        }
+
+        byte[] bytes = new byte[(int) (length - offset)];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(offset);
+            raf.readFully(bytes);
+        }
+
+        // incomplete line is still written; wait for its line break
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n' && bytes[end - 1] != '\r') {
+            end--;
+        }
+
+        if(end == 0) {
+            return false;
+        }
+
+        offset += end;
+
+        boolean changed = false;
+        for (String line : new String(bytes, 0, end, StandardCharsets.UTF_8).split("[\r\n]+")) {
+            changed |= addLine(line, true);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Position after the last line break
+     */
+    private long getCompleteLength(long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            for (long pos = length - 1; pos >= 0; pos--) {
+                raf.seek(pos);
+                int c = raf.read();
+                if(c == '\n' || c == '\r') {
+                    return pos + 1;
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Newest line first
+     */
+    @NotNull
+    public synchronized List<String> getLines() {
+        return new ArrayList<>(lines);
+    }
+
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    private boolean addLine(@NotNull String line, boolean newest) {
+        if(StringUtils.isBlank(line)) {
+            return false;
+        }
+
+        if(newest) {
+            lines.addFirst(line);
+            if(lines.size() > limit) {
+                lines.removeLast();
+            }
+        } else if(lines.size() < limit) {
+            lines.addLast(line);
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+package fr.adrienbrault.idea.symfony2plugin.profiler.reader;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Content of a single local profile file: "var/cache/dev/profiler/b8/e6/18e6b8"
+ *
+ * Profile files can be huge, so content is only read on first access and shared between all collectors of a request.
+ * Requests are kept in a cache, so the content is only softly reachable and read again after being collected
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class LocalProfileContent {
+
+    @NotNull
+    private final File file;
+
+    private volatile boolean loaded = false;
+
+    @Nullable
+    private volatile SoftReference<String> content;
+
+    public LocalProfileContent(@NotNull File file) {
+        this.file = file;
+    }
+
+    @Nullable
+    public String getContent() {
+        String value = dereference();
+        if(value != null || (loaded && content == null)) {
+            return value;
+        }
+
+        synchronized (this) {
+            value = dereference();
+            if(value != null || (loaded && content == null)) {
+                return value;
+            }
+
+            value = readContent(file);
+            content = value != null ? new SoftReference<>(value) : null;
+            loaded = true;
+        }
+
+        return value;
+    }
+
+    @Nullable
+    private String dereference() {
+        SoftReference<String> reference = content;
+        return reference != null ? reference.get() : null;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Nullable
+    private static String readContent(@NotNull File file) {
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException ignored) {
+        }
+
+        return null;
+    }
+}
@@ -28,6 +28,8 @@ import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -47,6 +49,13 @@ public class ProfilerUtil {
         .expireAfterWrite(5, TimeUnit.MINUTES)
         .build();
 
+    /**
+     * Collector requests are mostly io bound, but dont flood the local webserver
+     */
+    private static final int EXECUTOR_THREADS = 6;
+
+    private static ExecutorService executor = null;
+
     /**
      * Extract "table.search-results tbody tr td"
      * We dont have complete xpath with html support inside so reuse internal html parser
@@ -156,7 +165,18 @@ public class ProfilerUtil {
             request -> new MyProfilerRequestDecoratedCollectorCallable(project, request)).collect(Collectors.toCollection(ArrayList::new)
         );
 
-        return getProfilerRequestCollectorDecorated(callable, 10);
+        return getProfilerRequestCollectorDecorated(callable);
+    }
+
+    /**
+     * Same as collectHttpDataForRequest, but provides every request as soon as its collector data is loaded
+     */
+    public static void processHttpDataForRequest(@NotNull Project project, @NotNull Collection<ProfilerRequestInterface> requests, @NotNull Consumer<ProfilerRequestInterface> consumer) {
+        Collection<Callable<ProfilerRequestInterface>> callable = requests.stream().map(
+            request -> new MyProfilerRequestDecoratedCollectorCallable(project, request)).collect(Collectors.toCollection(ArrayList::new)
+        );
+
+        processProfilerRequestCollectorDecorated(callable, consumer);
     }
 
     /**
@@ -379,29 +399,68 @@ public class ProfilerUtil {
      * loads data on multiple thread to be as fast as possible
      */
     @NotNull
-    public static List<ProfilerRequestInterface> getProfilerRequestCollectorDecorated(@NotNull Collection<Callable<ProfilerRequestInterface>> callable, int threads) {
-        ExecutorService executor = Executors.newFixedThreadPool(threads);
-
-        List<Future<ProfilerRequestInterface>> futures;
-        try {
-            futures = executor.invokeAll(callable);
-        } catch (InterruptedException e) {
-            return Collections.emptyList();
-        }
+    public static List<ProfilerRequestInterface> getProfilerRequestCollectorDecorated(@NotNull Collection<Callable<ProfilerRequestInterface>> callable) {
+        List<Future<ProfilerRequestInterface>> futures = callable.stream()
+            .map(getExecutor()::submit)
+            .collect(Collectors.toList());
 
         List<ProfilerRequestInterface> requests = new ArrayList<>();
         for (Future<ProfilerRequestInterface> future : futures) {
             try {
                 requests.add(future.get());
-            } catch (ExecutionException | InterruptedException ignored) {
+            } catch (ExecutionException ignored) {
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                return requests;
             }
         }
 
-        executor.shutdown();
-
         return requests;
     }
 
+    /**
+     * Provides every decorated request on the calling thread in order of completion, not in order of the given callable
+     */
+    public static void processProfilerRequestCollectorDecorated(@NotNull Collection<Callable<ProfilerRequestInterface>> callable, @NotNull Consumer<ProfilerRequestInterface> consumer) {
+        CompletionService<ProfilerRequestInterface> completionService = new ExecutorCompletionService<>(getExecutor());
+
+        List<Future<ProfilerRequestInterface>> futures = callable.stream()
+            .map(completionService::submit)
+            .collect(Collectors.toList());
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                consumer.accept(completionService.take().get());
+            } catch (ExecutionException ignored) {
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Every profiler refresh shares this pool; threads are released when idle
+     */
+    @NotNull
+    private static synchronized ExecutorService getExecutor() {
+        if(executor == null) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(EXECUTOR_THREADS, EXECUTOR_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "Symfony Plugin Profiler " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            executor = threadPoolExecutor;
+        }
+
+        return executor;
+    }
+
     /**
      * Try to find a base url profiler relative url:
      *  "/foobar" =>  "http://127.0.0.1:8000/foobar"
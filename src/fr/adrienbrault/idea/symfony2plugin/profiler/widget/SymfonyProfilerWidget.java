@@ -1,5 +1,6 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler.widget;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.actionSystem.ActionGroup;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.DefaultActionGroup;
@@ -9,11 +10,13 @@ import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.popup.ListPopup;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.StatusBarWidget;
 import com.intellij.openapi.wm.impl.status.EditorBasedWidget;
 import com.intellij.ui.popup.PopupFactoryImpl;
 import com.intellij.util.Consumer;
+import fr.adrienbrault.idea.symfony2plugin.profiler.LocalProfilerIndex;
 import fr.adrienbrault.idea.symfony2plugin.profiler.ProfilerIndexInterface;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.DefaultDataCollectorInterface;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
@@ -41,15 +44,69 @@ public class SymfonyProfilerWidget extends EditorBasedWidget implements StatusBa
         TEMPLATE, ROUTE, CONTROLLER
     }
 
+    /**
+     * Actions of a followed local index; dropped as soon as new requests are appended
+     */
+    @Nullable
+    private volatile DefaultActionGroup actionGroupCache = null;
+
+    @Nullable
+    private String followedIndexFile = null;
+
+    @Nullable
+    private Disposable followDisposable = null;
+
     //constructs the actions for the widget popup
     public DefaultActionGroup getActions(){
-        DefaultActionGroup actionGroup = new DefaultActionGroup(null, false);
-
         ProfilerIndexInterface index = ProfilerFactoryUtil.createIndex(getProject());
         if(index == null) {
-            return actionGroup;
+            return new DefaultActionGroup(null, false);
         }
 
+        if(index instanceof LocalProfilerIndex) {
+            followLocalIndex((LocalProfilerIndex) index);
+
+            DefaultActionGroup actionGroup = this.actionGroupCache;
+            if(actionGroup != null) {
+                return actionGroup;
+            }
+
+            return this.actionGroupCache = createActions(index);
+        }
+
+        return createActions(index);
+    }
+
+    /**
+     * Subscribe to appended requests of the current index file, instead of rereading it on every popup
+     */
+    private synchronized void followLocalIndex(@NotNull LocalProfilerIndex index) {
+        // base url is part of the actions
+        String path = index.getFile().getAbsolutePath() + "|" + index.getBaseUrl();
+        if(path.equals(this.followedIndexFile)) {
+            return;
+        }
+
+        if(this.followDisposable != null) {
+            Disposer.dispose(this.followDisposable);
+        }
+
+        this.followedIndexFile = path;
+        this.actionGroupCache = null;
+
+        this.followDisposable = Disposer.newDisposable();
+        Disposer.register(this, this.followDisposable);
+
+        index.addListener(() -> {
+            this.actionGroupCache = null;
+            update(getProject());
+        }, this.followDisposable);
+    }
+
+    @NotNull
+    private DefaultActionGroup createActions(@NotNull ProfilerIndexInterface index) {
+        DefaultActionGroup actionGroup = new DefaultActionGroup(null, false);
+
         List<ProfilerRequestInterface> requests = index.getRequests();
 
         Collection<AnAction> templateActions = new ArrayList<>();
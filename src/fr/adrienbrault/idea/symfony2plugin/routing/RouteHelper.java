@@ -30,14 +30,17 @@ import com.jetbrains.php.lang.psi.elements.*;
 import fr.adrienbrault.idea.symfony2plugin.Settings;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.dic.XmlServiceParser;
 import fr.adrienbrault.idea.symfony2plugin.extension.RoutingLoader;
 import fr.adrienbrault.idea.symfony2plugin.extension.RoutingLoaderParameter;
 import fr.adrienbrault.idea.symfony2plugin.routing.dic.ControllerClassOnShortcutReturn;
-import fr.adrienbrault.idea.symfony2plugin.routing.dic.ServiceRouteContainer;
 import fr.adrienbrault.idea.symfony2plugin.routing.dict.RouteInterface;
 import fr.adrienbrault.idea.symfony2plugin.routing.dict.RoutesContainer;
+import fr.adrienbrault.idea.symfony2plugin.routing.dict.RoutesSnapshot;
 import fr.adrienbrault.idea.symfony2plugin.routing.dict.RoutingFile;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
 import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.StubIndexedRoute;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.AnnotationRoutesStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.RoutesStubIndex;
@@ -46,9 +49,11 @@ import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyBundleUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.controller.ControllerAction;
+import fr.adrienbrault.idea.symfony2plugin.util.controller.ControllerActionRegistry;
 import fr.adrienbrault.idea.symfony2plugin.util.controller.ControllerIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -59,11 +64,12 @@ import org.jetbrains.yaml.psi.*;
 
 import java.io.File;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class RouteHelper {
 
-    private static final Key<CachedValue<Map<String, Route>>> ROUTE_CACHE = new Key<>("SYMFONY:ROUTE_CACHE");
+    private static final Key<CachedValue<RoutesSnapshot>> ROUTE_CACHE = new Key<>("SYMFONY:ROUTE_CACHE");
+
+    private static final Key<CachedValue<Map<String, Set<String>>>> SERVICE_CONTROLLER_CLASS_CACHE = new Key<>("SYMFONY:SERVICE_CONTROLLER_CLASS_CACHE");
 
     public static Map<Project, Map<String, RoutesContainer>> COMPILED_CACHE = new HashMap<>();
 
@@ -534,6 +540,12 @@ public class RouteHelper {
             return null;
         }
 
+        // known bundle action; no bundle scan needed
+        String shortcutName = ControllerActionRegistry.getInstance(method.getProject()).getShortcutName(phpClass.getFQN() + "." + method.getName());
+        if(shortcutName != null) {
+            return normalizeRouteController(shortcutName);
+        }
+
         String className = StringUtils.stripStart(phpClass.getFQN(), "\\");
         int bundlePos = className.lastIndexOf("Bundle\\");
         if(bundlePos == -1) {
@@ -773,25 +785,65 @@ public class RouteHelper {
         ContainerUtil.addIfNotNull(routeNames, RouteHelper.convertMethodToRouteControllerName(method));
         ContainerUtil.addIfNotNull(routeNames, RouteHelper.convertMethodToRouteShortcutControllerName(method));
 
-        Map<String, Route> allRoutes = getAllRoutes(method.getProject());
+        Project project = method.getProject();
+        RoutesSnapshot routesSnapshot = getRoutesSnapshot(project);
         List<Route> routes = new ArrayList<>();
 
         // resolve indexed routes
-        if(routeNames.size() > 0) {
-            routes.addAll(allRoutes.values().stream()
-                .filter(route -> route.getController() != null && routeNames.contains(route.getController()))
-                .collect(Collectors.toList())
-            );
+        for (String routeName : routeNames) {
+            routes.addAll(routesSnapshot.getRoutesOnController(routeName));
         }
 
         // search for services
-        routes.addAll(
-            ServiceRouteContainer.build(allRoutes).getMethodMatches(method)
-        );
+        PhpClass phpClass = method.getContainingClass();
+        if(phpClass != null) {
+            Set<String> serviceIds = getServiceControllerClasses(project).get(StringUtils.stripStart(phpClass.getFQN(), "\\"));
+            if(serviceIds != null) {
+                for (String serviceId : serviceIds) {
+                    routes.addAll(routesSnapshot.getRoutesOnService(serviceId, method.getName()));
+                }
+            }
+        }
 
         return routes;
     }
 
+    /**
+     * Class names without leading backslash to the ids of services used as "service_id:method" controller.
+     * Every service is resolved once per route, container or class structure change; not per method
+     */
+    @NotNull
+    private static Map<String, Set<String>> getServiceControllerClasses(@NotNull Project project) {
+
+        // compiled container lives outside the psi; trigger a lazy reparse which notifies the tracker on changes
+        ServiceXmlParserFactory.getInstance(project, XmlServiceParser.class);
+
+        CachedValue<Map<String, Set<String>>> cache = project.getUserData(SERVICE_CONTROLLER_CLASS_CACHE);
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() -> {
+                Map<String, Set<String>> classes = new HashMap<>();
+
+                ContainerCollectionResolver.LazyServiceCollector collector = new ContainerCollectionResolver.LazyServiceCollector(project);
+                for (String serviceId : getRoutesSnapshot(project).getServiceNames()) {
+                    PhpClass phpClass = ServiceUtil.getResolvedClassDefinition(project, serviceId, collector);
+                    if(phpClass != null) {
+                        classes.computeIfAbsent(StringUtils.stripStart(phpClass.getFQN(), "\\"), k -> new HashSet<>()).add(serviceId);
+                    }
+                }
+
+                return CachedValueProvider.Result.create(
+                    classes,
+                    IndexTracker.getTrackers(project, IndexTracker.ROUTES, IndexTracker.SERVICES, IndexTracker.PARAMETERS),
+                    PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT
+                );
+            }, false);
+
+            project.putUserData(SERVICE_CONTROLLER_CLASS_CACHE, cache);
+        }
+
+        return cache.getValue();
+    }
+
     @Nullable
     public static PsiElement getRouteNameTarget(@NotNull Project project, @NotNull String routeName) {
 
@@ -930,12 +982,20 @@ public class RouteHelper {
     }
 
     @NotNull
-    synchronized public static Map<String, Route> getAllRoutes(final @NotNull Project project) {
+    public static Map<String, Route> getAllRoutes(final @NotNull Project project) {
+        return getRoutesSnapshot(project).getRoutes();
+    }
+
+    /**
+     * All routes with their reverse controller lookups; shared until the route tracker changes
+     */
+    @NotNull
+    synchronized public static RoutesSnapshot getRoutesSnapshot(final @NotNull Project project) {
 
-        CachedValue<Map<String, Route>> cache = project.getUserData(ROUTE_CACHE);
+        CachedValue<RoutesSnapshot> cache = project.getUserData(ROUTE_CACHE);
         if (cache == null) {
             cache = CachedValuesManager.getManager(project).createCachedValue(() ->
-                CachedValueProvider.Result.create(getAllRoutesProxy(project), PsiModificationTracker.MODIFICATION_COUNT),
+                CachedValueProvider.Result.create(new RoutesSnapshot(getAllRoutesProxy(project)), IndexTracker.ROUTES.getTracker(project)),
                 false
             );
             project.putUserData(ROUTE_CACHE, cache);
@@ -0,0 +1,81 @@
+package fr.adrienbrault.idea.symfony2plugin.routing.dict;
+
+import fr.adrienbrault.idea.symfony2plugin.routing.Route;
+import fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * All project routes with reverse lookups from their "_controller" value, build once per route change:
+ *
+ * "FooBundle:Bar:index", "Foo\BarController::indexAction" => routes
+ * "service_id" + "indexAction" => routes
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class RoutesSnapshot {
+
+    @NotNull
+    private final Map<String, Route> routes;
+
+    @NotNull
+    private final Map<String, List<Route>> controllerRoutes = new HashMap<>();
+
+    @NotNull
+    private final Map<String, Map<String, List<Route>>> serviceRoutes = new HashMap<>();
+
+    public RoutesSnapshot(@NotNull Map<String, Route> routes) {
+        this.routes = routes;
+
+        for (Route route : routes.values()) {
+            String controller = route.getController();
+            if(controller == null) {
+                continue;
+            }
+
+            controllerRoutes.computeIfAbsent(controller, k -> new ArrayList<>()).add(route);
+
+            // service_id:methodName
+            if(RouteHelper.isServiceController(controller)) {
+                String[] split = controller.split(":");
+                serviceRoutes.computeIfAbsent(split[0], k -> new HashMap<>())
+                    .computeIfAbsent(split[1], k -> new ArrayList<>())
+                    .add(route);
+            }
+        }
+    }
+
+    @NotNull
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Routes with the exact "_controller" value
+     */
+    @NotNull
+    public Collection<Route> getRoutesOnController(@NotNull String controller) {
+        List<Route> routes = controllerRoutes.get(controller);
+        return routes != null ? Collections.unmodifiableList(routes) : Collections.emptyList();
+    }
+
+    /**
+     * Service ids used as controller, eg "service_id:indexAction"
+     */
+    @NotNull
+    public Set<String> getServiceNames() {
+        return Collections.unmodifiableSet(serviceRoutes.keySet());
+    }
+
+    @NotNull
+    public Collection<Route> getRoutesOnService(@NotNull String serviceId, @NotNull String methodName) {
+        Map<String, List<Route>> methods = serviceRoutes.get(serviceId);
+        if(methods == null) {
+            return Collections.emptyList();
+        }
+
+        List<Route> routes = methods.get(methodName);
+        return routes != null ? Collections.unmodifiableList(routes) : Collections.emptyList();
+    }
+}
@@ -5,6 +5,10 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.ArrayUtil;
 import com.intellij.util.indexing.FileBasedIndexImpl;
 import fr.adrienbrault.idea.symfony2plugin.config.component.parser.ParameterServiceParser;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerParameter;
@@ -15,9 +19,12 @@ import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ContainerBuilderCall;
 import fr.adrienbrault.idea.symfony2plugin.extension.ServiceCollectorParameter;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexCacheValue;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerBuilderStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerParameterStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesDefinitionStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -27,38 +34,39 @@ import java.util.*;
 
 public class ContainerCollectionResolver {
 
-    private static final Key<CachedValue<Map<String, List<ServiceSerializable>>>> SERVICE_CONTAINER_INDEX = new Key<>("SYMFONY_SERVICE_CONTAINER_INDEX");
-    private static final Key<CachedValue<Map<String, List<String>>>> SERVICE_PARAMETER_INDEX = new Key<>("SERVICE_PARAMETER_INDEX");
+    private static final Key<CachedValue<ServiceContainerSnapshot>> SERVICE_CONTAINER_SNAPSHOT = new Key<>("SYMFONY_SERVICE_CONTAINER_SNAPSHOT");
+    private static final Key<CachedValue<ParameterContainerSnapshot>> PARAMETER_CONTAINER_SNAPSHOT = new Key<>("SYMFONY_PARAMETER_CONTAINER_SNAPSHOT");
+    private static final Key<IndexCacheValue<Map<String, List<ServiceSerializable>>>> SERVICE_CONTAINER_INDEX = new Key<>("SYMFONY_SERVICE_CONTAINER_INDEX");
+    private static final Key<IndexCacheValue<Map<String, List<String>>>> SERVICE_PARAMETER_INDEX = new Key<>("SERVICE_PARAMETER_INDEX");
 
-    private static final Key<CachedValue<Set<String>>> SERVICE_CONTAINER_INDEX_NAMES = new Key<>("SYMFONY_SERVICE_CONTAINER_INDEX_NAMES");
-    private static final Key<CachedValue<Set<String>>> SERVICE_PARAMETER_INDEX_NAMES = new Key<>("SERVICE_PARAMETER_INDEX_NAMES");
+    private static final Key<IndexCacheValue<Set<String>>> SERVICE_CONTAINER_INDEX_NAMES = new Key<>("SYMFONY_SERVICE_CONTAINER_INDEX_NAMES");
+    private static final Key<IndexCacheValue<Set<String>>> SERVICE_PARAMETER_INDEX_NAMES = new Key<>("SERVICE_PARAMETER_INDEX_NAMES");
 
     private static final ExtensionPointName<fr.adrienbrault.idea.symfony2plugin.extension.ServiceCollector> EXTENSIONS = new ExtensionPointName<>(
         "fr.adrienbrault.idea.symfony2plugin.extension.ServiceCollector"
     );
 
     public static Collection<String> getServiceNames(@NotNull Project project) {
-        return ServiceCollector.create(project).getNames();
+        return getSnapshot(project).getSortedNames();
     }
 
     public static boolean hasServiceNames(@NotNull Project project, @NotNull String serviceName) {
-        // @TODO: we dont need a collection here; stop on first match
-        return ServiceCollector.create(project).getNames().contains(serviceName);
+        return getSnapshot(project).hasService(serviceName);
     }
 
     @Nullable
     public static ContainerService getService(@NotNull Project project, @NotNull String serviceName) {
-        Map<String, ContainerService> services = getServices(project);
-        return services.containsKey(serviceName) ? services.get(serviceName) : null;
+        return getSnapshot(project).getService(serviceName);
     }
 
     public static Map<String, ContainerService> getServices(@NotNull Project project) {
-        return ServiceCollector.create(project).getServices();
+        return getSnapshot(project).getServices();
     }
 
     @Nullable
     public static String resolveService(@NotNull Project project, @NotNull String serviceName) {
-        return ServiceCollector.create(project).resolve(serviceName);
+        ContainerService service = getSnapshot(project).getService(serviceName);
+        return service != null ? ParameterCollector.resolve(getParameterSnapshot(project), service.getClassName()) : null;
     }
 
     public static class LazyServiceCollector {
@@ -101,12 +109,12 @@ public class ContainerCollectionResolver {
      */
     @Nullable
     public static String resolveParameter(@NotNull Project project, @NotNull String paramOrClassName) {
-        return resolveParameter(ParameterCollector.create(project), paramOrClassName);
+        return ParameterCollector.resolve(getParameterSnapshot(project), paramOrClassName);
     }
 
     @NotNull
     public static Map<String, ContainerParameter> getParameters(@NotNull Project project) {
-        return ParameterCollector.create(project).getParameters();
+        return getParameterSnapshot(project).getParameters();
     }
 
     @Nullable
@@ -115,7 +123,7 @@ public class ContainerCollectionResolver {
     }
 
     public static Set<String> getParameterNames(@NotNull Project project) {
-        return ParameterCollector.create(project).getNames();
+        return getParameterSnapshot(project).getNames();
     }
 
     public static class ServiceCollector {
@@ -140,19 +148,13 @@ public class ContainerCollectionResolver {
         @Nullable
         public String resolve(String serviceName) {
 
-            if(this.getServices().containsKey(serviceName)) {
-
-                // service can be a parameter, resolve if necessary
-                ContainerService service = this.getServices().get(serviceName);
-                String className = service.getClassName();
-                if(className != null && className.startsWith("%") && className.endsWith("%")) {
-                    return getParameterCollector().resolve(className);
-                } else {
-                    return className;
-                }
+            ContainerService service = this.getServices().get(serviceName);
+            if(service == null) {
+                return null;
             }
 
-            return null;
+            // service can be a parameter, resolve if necessary
+            return getParameterCollector().resolve(service.getClassName());
         }
 
         public Map<String, ContainerService> getServices() {
@@ -161,7 +163,17 @@ public class ContainerCollectionResolver {
                 return this.services;
             }
 
-            this.services = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            return this.services = getSnapshot(project).getServices();
+        }
+
+        /**
+         * Full container build; only the snapshot cache is allowed to call this
+         */
+        @NotNull
+        private ContainerIdMap<ContainerService> collectServices() {
+
+            ContainerIdMap<ContainerService> serviceMap = new ContainerIdMap<>();
+            this.services = serviceMap;
 
             // file system
             for(Map.Entry<String, String> entry: ServiceXmlParserFactory.getInstance(project, XmlServiceParser.class).getServiceMap().getMap().entrySet()) {
@@ -186,7 +198,7 @@ public class ContainerCollectionResolver {
                 exps.forEach(service -> services.put(service.getId(), new ContainerService(service, null)));
             }
 
-            for (Map.Entry<String, List<ServiceSerializable>> entry : FileIndexCaches.getSetDataCache(project, SERVICE_CONTAINER_INDEX, SERVICE_CONTAINER_INDEX_NAMES, ServicesDefinitionStubIndex.KEY, ServiceIndexUtil.getRestrictedFileTypesScope(project)).entrySet()) {
+            for (Map.Entry<String, List<ServiceSerializable>> entry : FileIndexCaches.getSetDataCache(project, SERVICE_CONTAINER_INDEX, SERVICE_CONTAINER_INDEX_NAMES, ServicesDefinitionStubIndex.KEY, ServiceIndexUtil.getRestrictedFileTypesScope(project), IndexTracker.SERVICES).entrySet()) {
 
                 // dont work twice on service;
                 // @TODO: to need to optimize this to decorate as much service data as possible
@@ -249,7 +261,7 @@ public class ContainerCollectionResolver {
                 collectDecorated(decorated);
             }
 
-            return this.services;
+            return serviceMap;
         }
 
         private void collectAliases(@NotNull Collection<ServiceInterface> aliases) {
@@ -305,12 +317,16 @@ public class ContainerCollectionResolver {
             return serviceNames;
         }
 
-        private Set<String> getNames() {
+        /**
+         * Service ids are a superset of the service map, extensions are allowed to provide ids only
+         */
+        @NotNull
+        private ContainerIdMap<Boolean> collectNames(@NotNull Map<String, ContainerService> services) {
 
-            Set<String> serviceNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            ContainerIdMap<Boolean> ids = new ContainerIdMap<>();
 
-            // local filesystem
-            serviceNames.addAll(ServiceXmlParserFactory.getInstance(project, XmlServiceParser.class).getServiceMap().getMap().keySet());
+            Set<String> serviceNames = Collections.newSetFromMap(ids);
+            serviceNames.addAll(services.keySet());
 
             // Extension points
             ServiceCollectorParameter.Id parameter = null;
@@ -322,13 +338,7 @@ public class ContainerCollectionResolver {
                 collectorEx.collectIds(parameter);
             }
 
-            // index
-            serviceNames.addAll(
-                FileIndexCaches.getIndexKeysCache(project, SERVICE_CONTAINER_INDEX_NAMES, ServicesDefinitionStubIndex.KEY)
-            );
-
-            return serviceNames;
-
+            return ids;
         }
 
 
@@ -341,13 +351,71 @@ public class ContainerCollectionResolver {
         }
     }
 
+    /**
+     * Container state is shared until a service or parameter tracker changes; Php edits dont invalidate it.
+     * Extensions are part of the snapshot, they must not depend on volatile Php content; the Symfony version
+     * used by the default services has its own tracker, which only changes with the detected version.
+     *
+     * Repeated lookups of a highlighting or type provider pass are map hits on the same instance
+     */
+    @NotNull
+    public static ServiceContainerSnapshot getSnapshot(@NotNull Project project) {
+
+        // compiled container lives outside the psi; trigger a lazy reparse which notifies the tracker on changes
+        ServiceXmlParserFactory.getInstance(project, XmlServiceParser.class);
+        ServiceXmlParserFactory.getInstance(project, ParameterServiceParser.class);
+
+        CachedValue<ServiceContainerSnapshot> cache = project.getUserData(SERVICE_CONTAINER_SNAPSHOT);
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() -> {
+                ServiceCollector collector = new ServiceCollector(project);
+                ContainerIdMap<ContainerService> services = collector.collectServices();
+
+                return CachedValueProvider.Result.create(
+                    new ServiceContainerSnapshot(services, collector.collectNames(services)),
+                    ArrayUtil.append(IndexTracker.getTrackers(project, IndexTracker.SERVICES, IndexTracker.PARAMETERS), SymfonyUtil.getVersionTracker(project))
+                );
+            }, false);
+
+            project.putUserData(SERVICE_CONTAINER_SNAPSHOT, cache);
+        }
+
+        return cache.getValue();
+    }
+
+    /**
+     * Parameters including ContainerBuilder::setParameter calls inside Php method bodies, so any psi change is a new stamp.
+     * All lookups of the same stamp share one instance
+     */
+    @NotNull
+    public static ParameterContainerSnapshot getParameterSnapshot(@NotNull Project project) {
+
+        // compiled container lives outside the psi; trigger a lazy reparse which notifies the tracker on changes
+        ServiceXmlParserFactory.getInstance(project, ParameterServiceParser.class);
+
+        CachedValue<ParameterContainerSnapshot> cache = project.getUserData(PARAMETER_CONTAINER_SNAPSHOT);
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(
+                    new ParameterContainerSnapshot(new ParameterCollector(project).collectParameters()),
+                    IndexTracker.PARAMETERS.getTracker(project),
+                    PsiModificationTracker.MODIFICATION_COUNT
+                )
+            , false);
+
+            project.putUserData(PARAMETER_CONTAINER_SNAPSHOT, cache);
+        }
+
+        return cache.getValue();
+    }
+
     public static class ParameterCollector {
 
         @NotNull
         private Project project;
 
         @Nullable
-        private Map<String, ContainerParameter> containerParameterMap;
+        private ParameterContainerSnapshot snapshot;
 
         public ParameterCollector(@NotNull Project project) {
             this.project = project;
@@ -364,6 +432,11 @@ public class ContainerCollectionResolver {
          */
         @Nullable
         private String resolve(@Nullable String paramOrClassName) {
+            return resolve(getSnapshot(), paramOrClassName);
+        }
+
+        @Nullable
+        private static String resolve(@NotNull ParameterContainerSnapshot snapshot, @Nullable String paramOrClassName) {
 
             if(paramOrClassName == null) {
                 return null;
@@ -372,30 +445,26 @@ public class ContainerCollectionResolver {
             // strip "%" to get the parameter name
             if(paramOrClassName.length() > 1 && paramOrClassName.startsWith("%") && paramOrClassName.endsWith("%")) {
 
-                paramOrClassName = paramOrClassName.substring(1, paramOrClassName.length() - 1);
-
-                // parameter is always lower see #179
-                paramOrClassName = paramOrClassName.toLowerCase();
-
-                if(this.getParameters().containsKey(paramOrClassName)) {
-                    return getParameters().get(paramOrClassName).getValue();
-                }
-
-                return null;
+                // parameter map is case insensitive see #179
+                ContainerParameter parameter = snapshot.getParameter(paramOrClassName.substring(1, paramOrClassName.length() - 1));
+                return parameter != null ? parameter.getValue() : null;
             }
 
             return paramOrClassName;
         }
 
+        @NotNull
+        private ParameterContainerSnapshot getSnapshot() {
+            return (this.snapshot != null) ? this.snapshot : (this.snapshot = getParameterSnapshot(project));
+        }
 
-        private Map<String, ContainerParameter> getParameters() {
-
-            if(this.containerParameterMap != null) {
-                return this.containerParameterMap;
-            }
-
-            this.containerParameterMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        /**
+         * Full parameter build; only the snapshot cache is allowed to call this
+         */
+        @NotNull
+        private ContainerIdMap<ContainerParameter> collectParameters() {
 
+            ContainerIdMap<ContainerParameter> containerParameterMap = new ContainerIdMap<>();
 
             // local filesystem
             for(Map.Entry<String, String> Entry: ServiceXmlParserFactory.getInstance(project, ParameterServiceParser.class).getParameterMap().entrySet()) {
@@ -403,13 +472,13 @@ public class ContainerCollectionResolver {
                 // user input here; secure nullable values
                 String key = Entry.getKey();
                 if(key != null) {
-                    this.containerParameterMap.put(key, new ContainerParameter(key, Entry.getValue()));
+                    containerParameterMap.put(key, new ContainerParameter(key, Entry.getValue()));
                 }
 
             }
 
             // index
-            for (Map.Entry<String, List<String>> entry : FileIndexCaches.getStringDataCache(project, SERVICE_PARAMETER_INDEX, SERVICE_PARAMETER_INDEX_NAMES, ContainerParameterStubIndex.KEY, ServiceIndexUtil.getRestrictedFileTypesScope(project)).entrySet()) {
+            for (Map.Entry<String, List<String>> entry : FileIndexCaches.getStringDataCache(project, SERVICE_PARAMETER_INDEX, SERVICE_PARAMETER_INDEX_NAMES, ContainerParameterStubIndex.KEY, ServiceIndexUtil.getRestrictedFileTypesScope(project), IndexTracker.PARAMETERS).entrySet()) {
                 String parameterName = entry.getKey();
                 // just for secure
                 if(parameterName == null) {
@@ -417,8 +486,8 @@ public class ContainerCollectionResolver {
                 }
 
                 // indexes is weak stuff, dont overwrite compiled ones
-                if(!this.containerParameterMap.containsKey(parameterName)) {
-                    this.containerParameterMap.put(parameterName, new ContainerParameter(parameterName, entry.getValue(), true));
+                if(!containerParameterMap.containsKey(parameterName)) {
+                    containerParameterMap.put(parameterName, new ContainerParameter(parameterName, entry.getValue(), true));
                 }
             }
 
@@ -430,48 +499,16 @@ public class ContainerCollectionResolver {
                 }
 
                 for (String parameter : parameters) {
-                    if(this.containerParameterMap.containsKey(parameter)) {
+                    if(containerParameterMap.containsKey(parameter)) {
                         continue;
                     }
 
-                    this.containerParameterMap.put(parameter, new ContainerParameter(parameter, true));
+                    containerParameterMap.put(parameter, new ContainerParameter(parameter, true));
                 }
 
             }
 
-
-
-            return this.containerParameterMap;
-
-        }
-
-        private Set<String> getNames() {
-
-            // use overall map if already generated
-            if(this.containerParameterMap != null) {
-                return this.containerParameterMap.keySet();
-            }
-
-            Set<String> parameterNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-
-            // local filesystem
-            parameterNames.addAll(ServiceXmlParserFactory.getInstance(project, ParameterServiceParser.class).getParameterMap().keySet());
-
-            // index
-            parameterNames.addAll(
-                FileIndexCaches.getIndexKeysCache(project, SERVICE_PARAMETER_INDEX_NAMES, ContainerParameterStubIndex.KEY)
-            );
-
-            // setParameter("foo") for ContainerBuilder
-            for (ContainerBuilderCall call : FileBasedIndexImpl.getInstance().getValues(ContainerBuilderStubIndex.KEY, "setParameter", GlobalSearchScope.allScope(project))) {
-                Collection<String> parameter = call.getParameter();
-                if(parameter != null) {
-                    parameterNames.addAll(parameter);
-                }
-            }
-
-
-            return parameterNames;
+            return containerParameterMap;
         }
 
     }
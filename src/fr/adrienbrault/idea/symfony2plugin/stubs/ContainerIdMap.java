@@ -0,0 +1,146 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Case insensitive map for service and parameter ids, hashed on the lowercase id.
+ *
+ * Ids are nearly always lowercase already, so normalizing a lookup key is usually free; the first given id
+ * is kept for presentation. Sorted ids are only needed for completion and navigation, so they are build on first access
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ContainerIdMap<V> extends AbstractMap<String, V> {
+
+    /**
+     * Lowercase id to original id and its value
+     */
+    @NotNull
+    private final Map<String, Entry<String, V>> entries = new HashMap<>();
+
+    @Nullable
+    private volatile List<String> sortedNames;
+
+    @Override
+    public V get(Object key) {
+        if(!(key instanceof String)) {
+            return null;
+        }
+
+        Entry<String, V> entry = entries.get(normalize((String) key));
+        return entry != null ? entry.getValue() : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && entries.containsKey(normalize((String) key));
+    }
+
+    @Override
+    public V put(@NotNull String key, V value) {
+        String normalized = normalize(key);
+
+        // like a case insensitive TreeMap: first id wins, value is replaced
+        Entry<String, V> entry = entries.get(normalized);
+        if(entry != null) {
+            return entry.setValue(value);
+        }
+
+        entries.put(normalized, new SimpleEntry<>(key, value));
+        sortedNames = null;
+
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if(!(key instanceof String)) {
+            return null;
+        }
+
+        Entry<String, V> entry = entries.remove(normalize((String) key));
+        if(entry == null) {
+            return null;
+        }
+
+        sortedNames = null;
+        return entry.getValue();
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        sortedNames = null;
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @NotNull
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                Iterator<Entry<String, V>> iterator = entries.values().iterator();
+
+                return new Iterator<Entry<String, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, V> next() {
+                        return iterator.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                        sortedNames = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    /**
+     * Ids in case insensitive order, build once per map state
+     */
+    @NotNull
+    public List<String> getSortedNames() {
+        List<String> names = sortedNames;
+        if(names != null) {
+            return names;
+        }
+
+        String[] ids = new String[entries.size()];
+
+        int i = 0;
+        for (Entry<String, V> entry : entries.values()) {
+            ids[i++] = entry.getKey();
+        }
+
+        Arrays.sort(ids, String.CASE_INSENSITIVE_ORDER);
+
+        return sortedNames = Collections.unmodifiableList(Arrays.asList(ids));
+    }
+
+    @NotNull
+    private static String normalize(@NotNull String id) {
+        // no copy for already lowercase ids
+        return id.toLowerCase(Locale.ROOT);
+    }
+}
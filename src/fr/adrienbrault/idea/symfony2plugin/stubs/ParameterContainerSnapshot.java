@@ -0,0 +1,57 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs;
+
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerParameter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable state of all parameters: compiled container, index and ContainerBuilder calls.
+ *
+ * Instances are shared between all callers of the same container state, so never modify the provided collections
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ParameterContainerSnapshot {
+
+    @NotNull
+    private final ContainerIdMap<ContainerParameter> containerParameters;
+
+    @NotNull
+    private final Map<String, ContainerParameter> parameters;
+
+    /**
+     * @param parameters case insensitive parameter map
+     */
+    ParameterContainerSnapshot(@NotNull ContainerIdMap<ContainerParameter> parameters) {
+        this.containerParameters = parameters;
+        this.parameters = Collections.unmodifiableMap(parameters);
+    }
+
+    @NotNull
+    public Map<String, ContainerParameter> getParameters() {
+        return parameters;
+    }
+
+    @NotNull
+    public Set<String> getNames() {
+        return parameters.keySet();
+    }
+
+    /**
+     * All names in case insensitive order for completion
+     */
+    @NotNull
+    public List<String> getSortedNames() {
+        return containerParameters.getSortedNames();
+    }
+
+    @Nullable
+    public ContainerParameter getParameter(@NotNull String parameterName) {
+        return parameters.get(parameterName);
+    }
+}
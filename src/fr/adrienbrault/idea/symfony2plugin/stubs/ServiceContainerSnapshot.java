@@ -0,0 +1,66 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs;
+
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable state of all services: compiled container, extensions and index.
+ *
+ * Instances are shared between all callers of the same container state, so never modify the provided collections
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ServiceContainerSnapshot {
+
+    @NotNull
+    private final Map<String, ContainerService> services;
+
+    @NotNull
+    private final ContainerIdMap<Boolean> ids;
+
+    @NotNull
+    private final Set<String> names;
+
+    /**
+     * @param services case insensitive service map
+     * @param ids case insensitive service names, can contain more items than services eg id only extensions
+     */
+    ServiceContainerSnapshot(@NotNull ContainerIdMap<ContainerService> services, @NotNull ContainerIdMap<Boolean> ids) {
+        this.services = Collections.unmodifiableMap(services);
+        this.ids = ids;
+        this.names = Collections.unmodifiableSet(ids.keySet());
+    }
+
+    @NotNull
+    public Map<String, ContainerService> getServices() {
+        return services;
+    }
+
+    @NotNull
+    public Set<String> getNames() {
+        return names;
+    }
+
+    /**
+     * All names in case insensitive order for completion and navigation
+     */
+    @NotNull
+    public List<String> getSortedNames() {
+        return ids.getSortedNames();
+    }
+
+    @Nullable
+    public ContainerService getService(@NotNull String serviceName) {
+        return services.get(serviceName);
+    }
+
+    public boolean hasService(@NotNull String serviceName) {
+        return names.contains(serviceName);
+    }
+}
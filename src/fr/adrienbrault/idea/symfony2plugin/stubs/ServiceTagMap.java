@@ -0,0 +1,158 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.indexing.FileBasedIndexImpl;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesTagStubIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Inverted view of ServicesTagStubIndex: tag name to service ids and service id to its tags.
+ *
+ * Build once per service index state, so a tag lookup only costs as much as its matching services.
+ * Instances are shared, never modify the provided collections
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ServiceTagMap {
+
+    private static final Key<CachedValue<ServiceTagMap>> SERVICE_TAG_MAP = new Key<>("SYMFONY_SERVICE_TAG_MAP");
+    private static final Key<CachedValue<Map<String, Set<String>>>> SERVICE_CLASS_TAG_MAP = new Key<>("SYMFONY_SERVICE_CLASS_TAG_MAP");
+
+    @NotNull
+    private final Map<String, Set<String>> tagServices;
+
+    @NotNull
+    private final Map<String, Set<String>> serviceTags;
+
+    /**
+     * @param serviceTags service id with its tags
+     */
+    public ServiceTagMap(@NotNull Map<String, Set<String>> serviceTags) {
+        Map<String, Set<String>> tagServices = new HashMap<>();
+
+        for (Map.Entry<String, Set<String>> entry : serviceTags.entrySet()) {
+            for (String tag : entry.getValue()) {
+                if(!tagServices.containsKey(tag)) {
+                    tagServices.put(tag, new HashSet<>());
+                }
+
+                tagServices.get(tag).add(entry.getKey());
+            }
+        }
+
+        this.serviceTags = Collections.unmodifiableMap(serviceTags);
+        this.tagServices = Collections.unmodifiableMap(tagServices);
+    }
+
+    @NotNull
+    public Set<String> getTaggedServices(@NotNull String tagName) {
+        Set<String> services = tagServices.get(tagName);
+        return services != null ? Collections.unmodifiableSet(services) : Collections.emptySet();
+    }
+
+    @NotNull
+    public Set<String> getServiceTags(@NotNull String serviceName) {
+        Set<String> tags = serviceTags.get(serviceName);
+        return tags != null ? Collections.unmodifiableSet(tags) : Collections.emptySet();
+    }
+
+    @NotNull
+    public Set<String> getServices() {
+        return serviceTags.keySet();
+    }
+
+    @NotNull
+    public Set<String> getTags() {
+        return tagServices.keySet();
+    }
+
+    @NotNull
+    public static ServiceTagMap getInstance(@NotNull Project project) {
+        CachedValue<ServiceTagMap> cache = project.getUserData(SERVICE_TAG_MAP);
+
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(create(project), IndexTracker.SERVICES.getTracker(project))
+            , false);
+
+            project.putUserData(SERVICE_TAG_MAP, cache);
+        }
+
+        return cache.getValue();
+    }
+
+    /**
+     * Resolved class of every tagged service with the tags of all its services;
+     * depends on parameters as class names can be a "%parameter%"
+     */
+    @NotNull
+    public static Map<String, Set<String>> getClassTags(@NotNull Project project) {
+        CachedValue<Map<String, Set<String>>> cache = project.getUserData(SERVICE_CLASS_TAG_MAP);
+
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(
+                    createClassTags(project),
+                    IndexTracker.getTrackers(project, IndexTracker.SERVICES, IndexTracker.PARAMETERS)
+                )
+            , false);
+
+            project.putUserData(SERVICE_CLASS_TAG_MAP, cache);
+        }
+
+        return cache.getValue();
+    }
+
+    @NotNull
+    private static ServiceTagMap create(@NotNull Project project) {
+        SymfonyProcessors.CollectProjectUniqueKeys projectUniqueKeysStrong = new SymfonyProcessors.CollectProjectUniqueKeys(project, ServicesTagStubIndex.KEY);
+        FileBasedIndexImpl.getInstance().processAllKeys(ServicesTagStubIndex.KEY, projectUniqueKeysStrong, project);
+
+        GlobalSearchScope scope = ServiceIndexUtil.getRestrictedFileTypesScope(project);
+
+        Map<String, Set<String>> serviceTags = new HashMap<>();
+        for (String serviceName : projectUniqueKeysStrong.getResult()) {
+            Set<String> tags = new HashSet<>();
+
+            for (Set<String> tagValue : FileBasedIndexImpl.getInstance().getValues(ServicesTagStubIndex.KEY, serviceName, scope)) {
+                tags.addAll(tagValue);
+            }
+
+            if(tags.size() > 0) {
+                serviceTags.put(serviceName, tags);
+            }
+        }
+
+        return new ServiceTagMap(serviceTags);
+    }
+
+    @NotNull
+    private static Map<String, Set<String>> createClassTags(@NotNull Project project) {
+        ServiceTagMap serviceTagMap = getInstance(project);
+        ContainerCollectionResolver.ServiceCollector collector = ContainerCollectionResolver.ServiceCollector.create(project);
+
+        Map<String, Set<String>> classTags = new HashMap<>();
+        for (String serviceName : serviceTagMap.getServices()) {
+            String className = collector.resolve(serviceName);
+            if(className == null) {
+                continue;
+            }
+
+            if(!classTags.containsKey(className)) {
+                classTags.put(className, new HashSet<>());
+            }
+
+            classTags.get(className).addAll(serviceTagMap.getServiceTags(serviceName));
+        }
+
+        return Collections.unmodifiableMap(classTags);
+    }
+}
@@ -0,0 +1,152 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Every class and interface in the supertype closure of a service class mapped to the services which are an instance of it:
+ * "Symfony\Component\EventDispatcher\EventDispatcherInterface" => "event_dispatcher", "debug.event_dispatcher"
+ *
+ * Build once per container snapshot and class hierarchy state, so service suggestions for a type hint are a map lookup
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ServiceTypeMap {
+
+    private static final Key<CachedValue<ServiceTypeMap>> SERVICE_TYPE_MAP = new Key<>("SYMFONY_SERVICE_TYPE_MAP");
+
+    /**
+     * Lowercase class name without leading backslash
+     */
+    @NotNull
+    private final Map<String, List<ContainerService>> typeServices;
+
+    /**
+     * Source map of the snapshot, to know which services are covered
+     */
+    @NotNull
+    private final Map<String, ContainerService> services;
+
+    @NotNull
+    private final Set<ContainerService> indexedServices = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private ServiceTypeMap(@NotNull Map<String, ContainerService> services, @NotNull Map<String, List<ContainerService>> typeServices) {
+        this.services = services;
+        this.typeServices = typeServices;
+        this.indexedServices.addAll(services.values());
+    }
+
+    /**
+     * @param fqn class name with or without leading backslash
+     */
+    @NotNull
+    public List<ContainerService> getServices(@NotNull String fqn) {
+        List<ContainerService> containerServices = typeServices.get(normalizeClassName(fqn));
+        return containerServices != null ? Collections.unmodifiableList(containerServices) : Collections.emptyList();
+    }
+
+    /**
+     * Service was part of the container snapshot this map is build on
+     */
+    public boolean isIndexed(@NotNull ContainerService containerService) {
+        return indexedServices.contains(containerService);
+    }
+
+    public boolean isIndexed(@NotNull Map<String, ContainerService> services) {
+        return this.services == services;
+    }
+
+    @NotNull
+    public static ServiceTypeMap getInstance(@NotNull Project project) {
+        CachedValue<ServiceTypeMap> cache = project.getUserData(SERVICE_TYPE_MAP);
+
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(
+                    create(project, ContainerCollectionResolver.getSnapshot(project).getServices()),
+                    IndexTracker.SERVICES.getTracker(project),
+                    IndexTracker.PARAMETERS.getTracker(project),
+                    PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT
+                )
+            , false);
+
+            project.putUserData(SERVICE_TYPE_MAP, cache);
+        }
+
+        return cache.getValue();
+    }
+
+    @NotNull
+    private static ServiceTypeMap create(@NotNull Project project, @NotNull Map<String, ContainerService> services) {
+        Map<String, List<ContainerService>> typeServices = new HashMap<>();
+
+        // many services share the same class, visit its hierarchy only once
+        Map<String, Set<String>> classTypes = new HashMap<>();
+
+        for (ContainerService service : services.values()) {
+            String className = service.getClassName();
+            if(className == null) {
+                continue;
+            }
+
+            className = normalizeClassName(className);
+
+            Set<String> types = classTypes.get(className);
+            if(types == null) {
+                types = new HashSet<>();
+
+                PhpClass phpClass = PhpElementsUtil.getClassInterface(project, className);
+                if(phpClass != null) {
+                    visitSupertypes(phpClass, types);
+                }
+
+                classTypes.put(className, types);
+            }
+
+            for (String type : types) {
+                if(!typeServices.containsKey(type)) {
+                    typeServices.put(type, new ArrayList<>());
+                }
+
+                typeServices.get(type).add(service);
+            }
+        }
+
+        return new ServiceTypeMap(services, typeServices);
+    }
+
+    /**
+     * Class itself, all parent classes and all interfaces with their parent interfaces
+     */
+    private static void visitSupertypes(@NotNull PhpClass phpClass, @NotNull Set<String> types) {
+        if(!types.add(normalizeClassName(phpClass.getFQN()))) {
+            return;
+        }
+
+        PhpClass superClass = phpClass.getSuperClass();
+        if(superClass != null) {
+            visitSupertypes(superClass, types);
+        }
+
+        for (PhpClass phpInterface : phpClass.getImplementedInterfaces()) {
+            visitSupertypes(phpInterface, types);
+        }
+    }
+
+    @NotNull
+    private static String normalizeClassName(@NotNull String className) {
+        return StringUtils.stripStart(className, "\\").toLowerCase();
+    }
+}
@@ -5,22 +5,22 @@ import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.Processor;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.ID;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class SymfonyProcessors {
 
     public static class CollectProjectUniqueKeys implements Processor<String> {
 
         final Project project;
-        final ID id;
+        final ID<String, ?> id;
 
         final Set<String> stringSet;
 
-        public CollectProjectUniqueKeys(Project project, ID id) {
+        public CollectProjectUniqueKeys(Project project, ID<String, ?> id) {
             this.project = project;
             this.id = id;
             this.stringSet = new HashSet<>();
@@ -33,11 +33,7 @@ public class SymfonyProcessors {
         }
 
         public Set<String> getResult() {
-            return stringSet.stream()
-                .filter(
-                    s -> FileBasedIndex.getInstance().getContainingFiles(id, s, GlobalSearchScope.allScope(project)).size() > 0)
-                .collect(Collectors.toSet()
-            );
+            return filterExistingKeys(project, id, stringSet);
         }
 
     }
@@ -45,12 +41,12 @@ public class SymfonyProcessors {
     public static class CollectProjectUniqueKeysStrong implements Processor<String> {
 
         final Project project;
-        final ID id;
+        final ID<String, ?> id;
 
         final Set<String> stringSet;
         final Collection<String> strongKeys;
 
-        public CollectProjectUniqueKeysStrong(Project project, ID id, Collection<String> strongKeys) {
+        public CollectProjectUniqueKeysStrong(Project project, ID<String, ?> id, Collection<String> strongKeys) {
             this.project = project;
             this.id = id;
             this.strongKeys = strongKeys;
@@ -66,14 +62,34 @@ public class SymfonyProcessors {
         }
 
         public Set<String> getResult() {
-            return stringSet.stream()
-                .filter(
-                    s -> FileBasedIndex.getInstance().getContainingFiles(id, s, GlobalSearchScope.allScope(project)).size() > 0
-                )
-                .collect(Collectors.toSet()
-            );
+            return filterExistingKeys(project, id, stringSet);
         }
 
     }
 
+    /**
+     * "processAllKeys" also provides keys of outdated or foreign project files, drop them
+     */
+    @NotNull
+    private static Set<String> filterExistingKeys(@NotNull Project project, @NotNull ID<String, ?> id, @NotNull Set<String> keys) {
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+
+        Set<String> result = new HashSet<>(keys.size());
+        for (String key : keys) {
+            if(hasKeyInScope(index, id, key, scope)) {
+                result.add(key);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Stop on first file match instead of collecting all containing files for a simple existing check
+     */
+    public static <V> boolean hasKeyInScope(@NotNull FileBasedIndex index, @NotNull ID<String, V> id, @NotNull String key, @NotNull GlobalSearchScope scope) {
+        return !index.processValues(id, key, null, (virtualFile, value) -> false, scope);
+    }
+
 }
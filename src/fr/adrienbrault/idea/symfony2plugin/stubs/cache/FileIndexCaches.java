@@ -3,10 +3,6 @@ package fr.adrienbrault.idea.symfony2plugin.stubs.cache;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.util.CachedValue;
-import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
-import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.ID;
 import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
@@ -19,7 +15,9 @@ import java.util.Set;
 
 /**
  * All FileBasedIndex are slow and cross project data, we need them every often
- * Cache values as long nothing globally change in our project.
+ * Cache values as long as nothing changes in the files of their index, see IndexTracker
+ *
+ * Every project and key has its own IndexCacheValue, so there is no global lock; see there for concurrency
  *
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
@@ -28,79 +26,75 @@ public class FileIndexCaches {
     /**
      * @param dataHolderKey Main data to cache
      * @param dataHolderNames Cache extracted name Set
+     * @param tracker Invalidates cache on changes of files that are able to contribute to the index
      */
-    static public synchronized <T> Map<String, List<T>> getSetDataCache(@NotNull final Project project, @NotNull Key<CachedValue<Map<String, List<T>>>> dataHolderKey, final @NotNull Key<CachedValue<Set<String>>> dataHolderNames, @NotNull final ID<String, T> ID, @NotNull final GlobalSearchScope scope) {
-
-        CachedValue<Map<String, List<T>>> cache = project.getUserData(dataHolderKey);
-
-        if(cache == null) {
-            cache = CachedValuesManager.getManager(project).createCachedValue(() -> {
-                Map<String, List<T>> items = new HashMap<>();
-
-                final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
-
-                getIndexKeysCache(project, dataHolderNames, ID).stream().forEach(service -> {
-                    items.put(service, fileBasedIndex.getValues(ID, service, scope));
-                });
+    static public <T> Map<String, List<T>> getSetDataCache(@NotNull final Project project, @NotNull Key<IndexCacheValue<Map<String, List<T>>>> dataHolderKey, final @NotNull Key<IndexCacheValue<Set<String>>> dataHolderNames, @NotNull final ID<String, T> ID, @NotNull final GlobalSearchScope scope, @NotNull final IndexTracker tracker) {
+        return getCacheValue(project, dataHolderKey).getValue(tracker.getTracker(project), () -> {
+            Map<String, List<T>> items = new HashMap<>();
 
-                return CachedValueProvider.Result.create(items, PsiModificationTracker.MODIFICATION_COUNT);
-            }, false);
+            final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
 
-            project.putUserData(dataHolderKey, cache);
-        }
+            getIndexKeysCache(project, dataHolderNames, ID, tracker).stream().forEach(service -> {
+                items.put(service, fileBasedIndex.getValues(ID, service, scope));
+            });
 
-        return cache.getValue();
+            return items;
+        });
     }
 
     /**
      * @param dataHolderKey Main data to cache
      * @param dataHolderNames Cache extracted name Set
+     * @param tracker Invalidates cache on changes of files that are able to contribute to the index
      */
-    static public synchronized Map<String, List<String>> getStringDataCache(@NotNull final Project project, @NotNull Key<CachedValue<Map<String, List<String>>>> dataHolderKey, final @NotNull Key<CachedValue<Set<String>>> dataHolderNames, @NotNull final ID<String, String> ID, @NotNull final GlobalSearchScope scope) {
-
-        CachedValue<Map<String, List<String>>> cache = project.getUserData(dataHolderKey);
-        if(cache == null) {
-            cache = CachedValuesManager.getManager(project).createCachedValue(() -> {
-
-                Map<String, List<String>> strings = new HashMap<>();
-
-                final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
-                getIndexKeysCache(project, dataHolderNames, ID).stream().forEach(parameterName -> {
-                    // just for secure
-                    if(parameterName == null) {
-                        return;
-                    }
-
-                    strings.put(parameterName, fileBasedIndex.getValues(ID, parameterName, scope));
-                });
-
-                return CachedValueProvider.Result.create(strings, PsiModificationTracker.MODIFICATION_COUNT);
-            }, false);
-
-            project.putUserData(dataHolderKey, cache);
-        }
-
-        return cache.getValue();
+    static public Map<String, List<String>> getStringDataCache(@NotNull final Project project, @NotNull Key<IndexCacheValue<Map<String, List<String>>>> dataHolderKey, final @NotNull Key<IndexCacheValue<Set<String>>> dataHolderNames, @NotNull final ID<String, String> ID, @NotNull final GlobalSearchScope scope, @NotNull final IndexTracker tracker) {
+        return getCacheValue(project, dataHolderKey).getValue(tracker.getTracker(project), () -> {
+            Map<String, List<String>> strings = new HashMap<>();
+
+            final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+            getIndexKeysCache(project, dataHolderNames, ID, tracker).stream().forEach(parameterName -> {
+                // just for secure
+                if(parameterName == null) {
+                    return;
+                }
+
+                strings.put(parameterName, fileBasedIndex.getValues(ID, parameterName, scope));
+            });
+
+            return strings;
+        });
     }
 
     /**
      * There several methods that just need to check for names, as they also needed for value extraction, so cache them also
      */
-    static public synchronized Set<String> getIndexKeysCache(@NotNull final Project project, @NotNull Key<CachedValue<Set<String>>> dataHolderKey, @NotNull final ID<String, ?> ID) {
-
-        CachedValue<Set<String>> cache = project.getUserData(dataHolderKey);
+    static public Set<String> getIndexKeysCache(@NotNull final Project project, @NotNull Key<IndexCacheValue<Set<String>>> dataHolderKey, @NotNull final ID<String, ?> ID, @NotNull final IndexTracker tracker) {
+        return getCacheValue(project, dataHolderKey).getValue(tracker.getTracker(project), () -> {
+            SymfonyProcessors.CollectProjectUniqueKeys projectUniqueKeys = new SymfonyProcessors.CollectProjectUniqueKeys(project, ID);
+            FileBasedIndex.getInstance().processAllKeys(ID, projectUniqueKeys, project);
+            return projectUniqueKeys.getResult();
+        });
+    }
 
-        if(cache == null) {
-            cache = CachedValuesManager.getManager(project).createCachedValue(() -> {
-                SymfonyProcessors.CollectProjectUniqueKeys projectUniqueKeys = new SymfonyProcessors.CollectProjectUniqueKeys(project, ID);
-                FileBasedIndex.getInstance().processAllKeys(ID, projectUniqueKeys, project);
-                return CachedValueProvider.Result.create(projectUniqueKeys.getResult(), PsiModificationTracker.MODIFICATION_COUNT);
-            }, false);
+    /**
+     * Lock is only held for holder creation, never while computing index data
+     */
+    @NotNull
+    private static <T> IndexCacheValue<T> getCacheValue(@NotNull Project project, @NotNull Key<IndexCacheValue<T>> key) {
+        IndexCacheValue<T> cacheValue = project.getUserData(key);
+        if(cacheValue != null) {
+            return cacheValue;
+        }
 
-            project.putUserData(dataHolderKey, cache);
+        synchronized (FileIndexCaches.class) {
+            cacheValue = project.getUserData(key);
+            if(cacheValue == null) {
+                cacheValue = new IndexCacheValue<>();
+                project.putUserData(key, cacheValue);
+            }
         }
 
-        return cache.getValue();
+        return cacheValue;
     }
 
 }
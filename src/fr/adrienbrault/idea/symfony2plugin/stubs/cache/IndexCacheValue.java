@@ -0,0 +1,74 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.cache;
+
+import com.intellij.openapi.util.ModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache holder with atomic publish of computed values; one instance per project and cache key.
+ *
+ * Rebuilds of a holder run on a single thread at a time, so unrelated caches never wait on each other.
+ * Readers of an up-to-date holder never lock. Readers of an outdated holder wait for the rebuild: their result
+ * may end up in outer caches under the current tracker stamp, so it must never be older than that stamp.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class IndexCacheValue<T> {
+
+    @NotNull
+    private final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<>();
+
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Value of the current tracker stamp; waits for a running rebuild
+     */
+    @NotNull
+    public T getValue(@NotNull ModificationTracker tracker, @NotNull Supplier<T> provider) {
+        // take stamp before computing; changes while we compute are visible for next call
+        long stamp = tracker.getModificationCount();
+
+        Snapshot<T> current = snapshot.get();
+        if(current != null && current.stamp >= stamp) {
+            return current.value;
+        }
+
+        lock.lock();
+        try {
+            return compute(stamp, provider);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caller must hold the lock; a value computed by a previous lock holder is reused
+     */
+    @NotNull
+    private T compute(long stamp, @NotNull Supplier<T> provider) {
+        Snapshot<T> current = snapshot.get();
+        if(current != null && current.stamp >= stamp) {
+            return current.value;
+        }
+
+        T value = provider.get();
+        snapshot.set(new Snapshot<>(value, stamp));
+
+        return value;
+    }
+
+    private static class Snapshot<T> {
+        @NotNull
+        private final T value;
+        private final long stamp;
+
+        private Snapshot(@NotNull T value, long stamp) {
+            this.value = value;
+            this.stamp = stamp;
+        }
+    }
+}
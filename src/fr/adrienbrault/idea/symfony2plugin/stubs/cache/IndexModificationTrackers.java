@@ -0,0 +1,186 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.cache;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.psi.*;
+import com.jetbrains.php.lang.psi.elements.Function;
+import com.jetbrains.php.lang.psi.elements.GroupStatement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Project level holder of all IndexTracker counters; dispatches psi and vfs changes by file type and php code block
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class IndexModificationTrackers {
+
+    @NotNull
+    private final Map<IndexTracker, SimpleModificationTracker> trackers = new EnumMap<>(IndexTracker.class);
+
+    public IndexModificationTrackers(@NotNull Project project) {
+        for (IndexTracker indexTracker : IndexTracker.values()) {
+            trackers.put(indexTracker, new SimpleModificationTracker());
+        }
+
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new MyPsiTreeChangeListener(), project);
+
+        project.getMessageBus().connect(project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    // saved documents are already visited by their psi changes
+                    if(event instanceof VFileContentChangeEvent && event.isFromSave()) {
+                        continue;
+                    }
+
+                    // content of external changes is unknown, so every tracker of the file type is bumped
+                    VirtualFile file = event.getFile();
+                    if(file != null) {
+                        visitFile(new IndexTracker.FileChange(file.getFileType(), file.getExtension(), !(event instanceof VFileContentChangeEvent), null, null));
+                    }
+                }
+            }
+        });
+    }
+
+    @NotNull
+    ModificationTracker getTracker(@NotNull IndexTracker indexTracker) {
+        return trackers.get(indexTracker);
+    }
+
+    void incModificationCount(@NotNull IndexTracker indexTracker) {
+        trackers.get(indexTracker).incModificationCount();
+    }
+
+    private void visitFile(@NotNull IndexTracker.FileChange change) {
+        for (Map.Entry<IndexTracker, SimpleModificationTracker> entry : trackers.entrySet()) {
+            if(entry.getKey().accepts(change)) {
+                entry.getValue().incModificationCount();
+            }
+        }
+    }
+
+    @NotNull
+    static IndexModificationTrackers getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, IndexModificationTrackers.class);
+    }
+
+    /**
+     * Before events provide the content a change removes, eg a deleted Twig extension method
+     */
+    private class MyPsiTreeChangeListener extends PsiTreeChangeAdapter {
+        @Override
+        public void beforeChildAddition(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void beforeChildRemoval(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void beforeChildReplacement(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void beforeChildMovement(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void beforeChildrenChange(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void childAdded(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void childMoved(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+            visitEvent(event);
+        }
+
+        @Override
+        public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+            // file rename
+            if(event.getElement() instanceof PsiFile) {
+                visitPsiFile((PsiFile) event.getElement(), true, null);
+            }
+        }
+
+        private void visitEvent(@NotNull PsiTreeChangeEvent event) {
+            PsiFile psiFile = event.getFile();
+            if(psiFile != null) {
+                PsiElement parent = event.getParent() != null ? event.getParent() : event.getNewParent();
+                visitPsiFile(psiFile, false, getCodeBlockFunction(parent));
+                return;
+            }
+
+            // file creation and deletion are provided on directory level
+            PsiElement child = event.getChild();
+            if(child instanceof PsiFile) {
+                visitPsiFile((PsiFile) child, true, null);
+            }
+        }
+
+        private void visitPsiFile(@NotNull PsiFile psiFile, boolean file, @Nullable String function) {
+            // non physical files dont provide a virtual file
+            VirtualFile virtualFile = psiFile.getVirtualFile();
+
+            visitFile(new IndexTracker.FileChange(
+                psiFile.getFileType(),
+                virtualFile != null ? virtualFile.getExtension() : null,
+                file,
+                function,
+                psiFile.getViewProvider().getContents()
+            ));
+        }
+    }
+
+    /**
+     * Name of the outermost Php function or method which body contains the element; also for closures inside of it
+     */
+    @Nullable
+    private static String getCodeBlockFunction(@Nullable PsiElement psiElement) {
+        String function = null;
+
+        for (PsiElement parent = psiElement; parent != null && !(parent instanceof PsiFile); parent = parent.getParent()) {
+            if(parent instanceof GroupStatement && parent.getParent() instanceof Function) {
+                function = ((Function) parent.getParent()).getName();
+            }
+        }
+
+        return function;
+    }
+}
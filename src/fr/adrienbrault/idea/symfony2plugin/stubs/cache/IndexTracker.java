@@ -0,0 +1,189 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.cache;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.twig.TwigFileType;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventSubscriberStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TwigExtensionStubIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.yaml.YAMLFileType;
+
+/**
+ * Modification trackers for our plugin data, each one is only bumped by file types which are able to change its content.
+ * Php edits inside of method bodies are ignored, unless an index reads the method, eg "getSubscribedEvents".
+ * Caches should depend on the trackers of the indexes they read instead of global psi modification count
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public enum IndexTracker {
+
+    /**
+     * Service definitions in Yaml and Xml, compiled container
+     */
+    SERVICES(change -> isContainerFile(change.getFileType())),
+
+    /**
+     * Parameter definitions in Yaml and Xml, compiled container
+     */
+    PARAMETERS(change -> isContainerFile(change.getFileType())),
+
+    /**
+     * Yaml, Xml and Php annotation routes
+     */
+    ROUTES(change -> isContainerFile(change.getFileType()) || change.isPhpStructure()),
+
+    /**
+     * Twig extends, include and macro
+     */
+    TWIG_INCLUDES(change -> change.getFileType() == TwigFileType.INSTANCE),
+
+    /**
+     * Template file names: Twig files and namespace roots provided by configuration, compiled container and
+     * bundle classes; template content is not part of it
+     */
+    TEMPLATES(change ->
+        (change.getFileType() == TwigFileType.INSTANCE && change.isFile()) ||
+        isContainerFile(change.getFileType()) ||
+        "json".equalsIgnoreCase(change.getExtension()) ||
+        change.isPhpStructure()
+    ),
+
+    /**
+     * Doctrine metadata in Yaml, Xml and Php annotations
+     */
+    DOCTRINE_METADATA(change -> isContainerFile(change.getFileType()) || change.isPhpStructure()),
+
+    /**
+     * Php indexed events: annotations, class constants and "getSubscribedEvents" return values
+     */
+    EVENTS(change -> change.isPhpStructure() || change.isPhpFunction(EventSubscriberStubIndex.METHOD_NAME)),
+
+    /**
+     * Php Twig extension classes; only files which are able to provide extensions, see TwigExtensionStubIndex
+     */
+    TWIG_EXTENSIONS(change ->
+        (change.isPhpStructure() || (change.isPhpFunction() && TwigExtensionStubIndex.isExtensionMethod(change.getFunction()))) &&
+        (change.getContent() == null || TwigExtensionStubIndex.isExtensionFile(change.getContent()))
+    );
+
+    @NotNull
+    private final FileMatcher matcher;
+
+    IndexTracker(@NotNull FileMatcher matcher) {
+        this.matcher = matcher;
+    }
+
+    boolean accepts(@NotNull FileChange change) {
+        return matcher.accepts(change);
+    }
+
+    @NotNull
+    public ModificationTracker getTracker(@NotNull Project project) {
+        return IndexModificationTrackers.getInstance(project).getTracker(this);
+    }
+
+    /**
+     * For changes outside of project files, eg compiled container or settings
+     */
+    public void incModificationCount(@NotNull Project project) {
+        IndexModificationTrackers.getInstance(project).incModificationCount(this);
+    }
+
+    @NotNull
+    public static ModificationTracker[] getTrackers(@NotNull Project project, @NotNull IndexTracker... trackers) {
+        ModificationTracker[] modificationTrackers = new ModificationTracker[trackers.length];
+
+        for (int i = 0; i < trackers.length; i++) {
+            modificationTrackers[i] = trackers[i].getTracker(project);
+        }
+
+        return modificationTrackers;
+    }
+
+    private static boolean isContainerFile(@NotNull FileType fileType) {
+        return fileType == YAMLFileType.YML || fileType == XmlFileType.INSTANCE;
+    }
+
+    private interface FileMatcher {
+        boolean accepts(@NotNull FileChange change);
+    }
+
+    /**
+     * A changed project file, dispatched to all trackers
+     */
+    static class FileChange {
+
+        @NotNull
+        private final FileType fileType;
+
+        @Nullable
+        private final String extension;
+
+        private final boolean file;
+
+        @Nullable
+        private final String function;
+
+        @Nullable
+        private final CharSequence content;
+
+        /**
+         * @param file file itself was added, removed, moved or renamed
+         * @param function Php function or method which body contains the change; changes inside code blocks dont change the file structure
+         * @param content file content if known, before or after the change
+         */
+        FileChange(@NotNull FileType fileType, @Nullable String extension, boolean file, @Nullable String function, @Nullable CharSequence content) {
+            this.fileType = fileType;
+            this.extension = extension;
+            this.file = file;
+            this.function = function;
+            this.content = content;
+        }
+
+        @NotNull
+        FileType getFileType() {
+            return fileType;
+        }
+
+        @Nullable
+        String getExtension() {
+            return extension;
+        }
+
+        boolean isFile() {
+            return file;
+        }
+
+        @Nullable
+        String getFunction() {
+            return function;
+        }
+
+        @Nullable
+        CharSequence getContent() {
+            return content;
+        }
+
+        /**
+         * Php change outside of any code block or on file level
+         */
+        boolean isPhpStructure() {
+            return fileType == PhpFileType.INSTANCE && function == null;
+        }
+
+        boolean isPhpFunction() {
+            return fileType == PhpFileType.INSTANCE && function != null;
+        }
+
+        /**
+         * Php change inside body of the given function or method
+         */
+        boolean isPhpFunction(@NotNull String name) {
+            return fileType == PhpFileType.INSTANCE && name.equals(function);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.dict;
+
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Subscribed event of EventSubscriberInterface::getSubscribedEvents
+ *
+ * 'pre.foo' => ['onPreFoo', 10]
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class EventSubscriberMethod implements Serializable {
+
+    @NotNull
+    private String fqnClassName;
+
+    @Nullable
+    private String methodName;
+
+    @Nullable
+    private Integer priority;
+
+    @Nullable
+    private String signature;
+
+    public EventSubscriberMethod(@NotNull String fqnClassName, @Nullable String methodName, @Nullable Integer priority, @Nullable String signature) {
+        this.fqnClassName = fqnClassName;
+        this.methodName = methodName;
+        this.priority = priority;
+        this.signature = signature;
+    }
+
+    /**
+     * Class name without leading backslash
+     */
+    @NotNull
+    public String getFqnClassName() {
+        return fqnClassName;
+    }
+
+    @Nullable
+    public String getMethodName() {
+        return methodName;
+    }
+
+    @Nullable
+    public Integer getPriority() {
+        return priority;
+    }
+
+    /**
+     * Signature of the event constant, eg "#K#C\Foo\Bar.BAR"; null for string event names
+     */
+    @Nullable
+    public String getSignature() {
+        return signature;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+            .append(this.fqnClassName)
+            .append(this.methodName)
+            .append(this.priority)
+            .append(this.signature)
+            .toHashCode()
+        ;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof EventSubscriberMethod &&
+            Objects.equals(((EventSubscriberMethod) obj).fqnClassName, this.fqnClassName) &&
+            Objects.equals(((EventSubscriberMethod) obj).methodName, this.methodName) &&
+            Objects.equals(((EventSubscriberMethod) obj).priority, this.priority) &&
+            Objects.equals(((EventSubscriberMethod) obj).signature, this.signature)
+        ;
+    }
+}
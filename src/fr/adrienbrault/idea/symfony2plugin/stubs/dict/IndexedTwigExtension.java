@@ -0,0 +1,106 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.dict;
+
+import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigExtension;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Filter, function, test or operator provided by a Twig extension class
+ *
+ * new \Twig_SimpleFilter('foo', array($this, 'foo'), array('needs_environment' => true))
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class IndexedTwigExtension implements Serializable {
+
+    @NotNull
+    private String fqnClassName;
+
+    @NotNull
+    private TwigExtensionParser.TwigExtensionType type;
+
+    @Nullable
+    private String signature;
+
+    @NotNull
+    private Map<String, String> options;
+
+    public IndexedTwigExtension(@NotNull String fqnClassName, @NotNull TwigExtensionParser.TwigExtensionType type, @Nullable String signature) {
+        this(fqnClassName, type, signature, new HashMap<>());
+    }
+
+    public IndexedTwigExtension(@NotNull String fqnClassName, @NotNull TwigExtensionParser.TwigExtensionType type, @Nullable String signature, @NotNull Map<String, String> options) {
+        this.fqnClassName = fqnClassName;
+        this.type = type;
+        this.signature = signature;
+        this.options = options;
+    }
+
+    /**
+     * Extension class without leading backslash
+     */
+    @NotNull
+    public String getFqnClassName() {
+        return fqnClassName;
+    }
+
+    @NotNull
+    public TwigExtensionParser.TwigExtensionType getType() {
+        return type;
+    }
+
+    /**
+     * Callable signature, eg "#M#C\Foo.bar" or "#Fjson_decode"
+     */
+    @Nullable
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * Options like "needs_environment" or "is_safe"; list values are comma separated
+     */
+    @NotNull
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @NotNull
+    public TwigExtension createTwigExtension() {
+        TwigExtension twigExtension = new TwigExtension(this.type, this.signature);
+
+        for (Map.Entry<String, String> entry : this.options.entrySet()) {
+            twigExtension.putOption(entry.getKey(), entry.getValue());
+        }
+
+        return twigExtension;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+            .append(this.fqnClassName)
+            .append(this.type)
+            .append(this.signature)
+            .append(this.options)
+            .toHashCode()
+        ;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IndexedTwigExtension &&
+            Objects.equals(((IndexedTwigExtension) obj).fqnClassName, this.fqnClassName) &&
+            Objects.equals(((IndexedTwigExtension) obj).type, this.type) &&
+            Objects.equals(((IndexedTwigExtension) obj).signature, this.signature) &&
+            Objects.equals(((IndexedTwigExtension) obj).options, this.options)
+        ;
+    }
+}
@@ -0,0 +1,225 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.patterns.PlatformPatterns;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.parser.PhpElementTypes;
+import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.EventSubscriberMethod;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.EventSubscriberMethodDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Events of EventSubscriberInterface::getSubscribedEvents
+ *
+ * 'pre.foo' => 'preFoo'              key: "pre.foo"
+ * Bar::BAR => ['postFoo', 10]        key: "#K#C\Foo\Bar.BAR", constant value is resolved on query time
+ *
+ * Subscriber interface is not resolvable while indexing, so every class with a static "getSubscribedEvents" is visited.
+ * Only classes declaring the method are indexed; subclasses inheriting it are resolved on query time.
+ * Values are merged per key, so multiple classes of one file can subscribe the same event
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class EventSubscriberStubIndex extends FileBasedIndexExtension<String, List<EventSubscriberMethod>> {
+
+    public static final ID<String, List<EventSubscriberMethod>> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.events_subscriber");
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+    private static EventSubscriberMethodDataExternalizer EXTERNALIZER = EventSubscriberMethodDataExternalizer.INSTANCE;
+
+    /**
+     * Prefix of constant signatures used as key
+     */
+    public static final String CONSTANT_SIGNATURE_PREFIX = "#K#C";
+
+    public static final String METHOD_NAME = "getSubscribedEvents";
+
+    @NotNull
+    @Override
+    public ID<String, List<EventSubscriberMethod>> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<EventSubscriberMethod>, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, List<EventSubscriberMethod>> map = new HashMap<>();
+
+            // dont build psi for files which can not provide subscribers
+            if(!StringUtil.contains(inputData.getContentAsText(), METHOD_NAME)) {
+                return map;
+            }
+
+            PsiFile psiFile = inputData.getPsiFile();
+            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+                return map;
+            }
+
+            for (PhpClass phpClass : PsiTreeUtil.findChildrenOfType(psiFile, PhpClass.class)) {
+                if(isTestClass(phpClass)) {
+                    continue;
+                }
+
+                Method method = phpClass.findOwnMethodByName(METHOD_NAME);
+                if(method == null || !method.isStatic()) {
+                    continue;
+                }
+
+                PhpReturn phpReturn = PsiTreeUtil.findChildOfType(method, PhpReturn.class);
+                if(phpReturn != null) {
+                    visitReturn(map, StringUtils.stripStart(phpClass.getFQN(), "\\"), phpReturn);
+                }
+            }
+
+            return map;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<EventSubscriberMethod>> getValueExternalizer() {
+        return EXTERNALIZER;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file ->
+            file.getFileType() == PhpFileType.INSTANCE;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    private static void visitReturn(@NotNull Map<String, List<EventSubscriberMethod>> map, @NotNull String fqnClassName, @NotNull PhpReturn phpReturn) {
+        PhpPsiElement array = phpReturn.getFirstPsiChild();
+        if(!(array instanceof ArrayCreationExpression)) {
+            return;
+        }
+
+        for(ArrayHashElement arrayHashElement: ((ArrayCreationExpression) array).getHashElements()) {
+            PsiElement arrayKey = arrayHashElement.getKey();
+
+            if(arrayKey instanceof StringLiteralExpression) {
+                // ['doh' => 'method']
+                String contents = ((StringLiteralExpression) arrayKey).getContents();
+                if(StringUtils.isNotBlank(contents)) {
+                    map.computeIfAbsent(contents, k -> new ArrayList<>()).add(createMethod(fqnClassName, arrayHashElement.getValue(), null));
+                }
+            } else if(arrayKey instanceof ClassConstantReference) {
+                // [FOO::BAR => 'method']; signature only needs imports of current file
+                String signature = ((ClassConstantReference) arrayKey).getSignature();
+                if(signature.startsWith(CONSTANT_SIGNATURE_PREFIX)) {
+                    map.computeIfAbsent(signature, k -> new ArrayList<>()).add(createMethod(fqnClassName, arrayHashElement.getValue(), signature));
+                }
+            }
+        }
+    }
+
+    /**
+     * 'pre.foo' => 'foo'
+     * 'pre.foo1' => ['onStoreOrder', 0]
+     * 'pre.foo2' => [['onStoreOrder', 0]]
+     *
+     * @TODO: support multiple method names, first one is enough for type hints for now
+     */
+    @NotNull
+    private static EventSubscriberMethod createMethod(@NotNull String fqnClassName, @Nullable PhpPsiElement value, @Nullable String signature) {
+        if(value instanceof StringLiteralExpression) {
+            return new EventSubscriberMethod(fqnClassName, getStringContents(value), null, signature);
+        }
+
+        if(!(value instanceof ArrayCreationExpression)) {
+            return new EventSubscriberMethod(fqnClassName, null, null, signature);
+        }
+
+        List<PsiElement> values = getArrayValues(value);
+        if(values.size() > 0 && values.get(0) instanceof ArrayCreationExpression) {
+            // 'pre.foo' => [['method', ...], ['method2', ...]]
+            values = getArrayValues((PhpPsiElement) values.get(0));
+        }
+
+        String methodName = values.size() > 0 ? getStringContents(values.get(0)) : null;
+        Integer priority = values.size() > 1 ? getPriority(values.get(1)) : null;
+
+        return new EventSubscriberMethod(fqnClassName, methodName, priority, signature);
+    }
+
+    @NotNull
+    private static List<PsiElement> getArrayValues(@NotNull PhpPsiElement array) {
+        List<PsiElement> values = new ArrayList<>();
+
+        for (PsiElement psiElement : PsiElementUtils.getChildrenOfTypeAsList(array, PlatformPatterns.psiElement().withElementType(PhpElementTypes.ARRAY_VALUE))) {
+            if(psiElement instanceof PhpPsiElement) {
+                PhpPsiElement firstPsiChild = ((PhpPsiElement) psiElement).getFirstPsiChild();
+                if(firstPsiChild != null) {
+                    values.add(firstPsiChild);
+                }
+            }
+        }
+
+        return values;
+    }
+
+    @Nullable
+    private static String getStringContents(@Nullable PsiElement psiElement) {
+        if(!(psiElement instanceof StringLiteralExpression)) {
+            return null;
+        }
+
+        String contents = ((StringLiteralExpression) psiElement).getContents();
+        return StringUtils.isNotBlank(contents) ? contents : null;
+    }
+
+    /**
+     * Number literal with optional sign: "10", "-255"
+     */
+    @Nullable
+    private static Integer getPriority(@NotNull PsiElement psiElement) {
+        String text = psiElement.getText().replaceAll("\\s+", "");
+
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Class hierarchy is not available on indexing, so only check the name
+     */
+    private static boolean isTestClass(@NotNull PhpClass phpClass) {
+        String fqn = phpClass.getPresentableFQN();
+        return fqn.contains("\\Test\\") || fqn.contains("\\Tests\\") || fqn.endsWith("Test");
+    }
+}
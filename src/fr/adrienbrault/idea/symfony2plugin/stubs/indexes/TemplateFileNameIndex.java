@@ -0,0 +1,76 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.twig.TwigFileType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+
+/**
+ * Template files by their file name: "index.html.twig", "index.html.php"
+ *
+ * Logical template names depend on the TwigPath roots of container, json files and settings, which an indexer
+ * must not query; so they are computed on query time for the files of a key and namespace changes never need a reindex.
+ *
+ * Only the file name is indexed, so content is not loaded and the project is unknown here
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.TwigHelper#getTemplateFiles
+ */
+public class TemplateFileNameIndex extends FileBasedIndexExtension<String, Void> {
+
+    public static final ID<String, Void> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.template_file_name");
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+
+    @NotNull
+    @Override
+    public ID<String, Void> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> Collections.singletonMap(inputData.getFileName(), null);
+    }
+
+    /**
+     * "foo.html.twig", "foo.html.php"; all other php files are no templates
+     */
+    public static boolean isTemplateFileName(@NotNull String fileName) {
+        return fileName.endsWith(".twig") || fileName.matches("^.+\\.[\\w]+\\.php$");
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<Void> getValueExternalizer() {
+        return ScalarIndexExtension.VOID_DATA_EXTERNALIZER;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file ->
+            file.getFileType() == TwigFileType.INSTANCE || (file.getFileType() == PhpFileType.INSTANCE && isTemplateFileName(file.getName()));
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return false;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+}
@@ -0,0 +1,138 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.translation.collector.YamlTranslationVistor;
+import fr.adrienbrault.idea.symfony2plugin.translation.dict.TranslationUtil;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.yaml.YAMLFileType;
+import org.jetbrains.yaml.psi.YAMLFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Single translation keys of YamlTranslationStubIndex files: "messages" + "foo.bar" => offset of its yaml key value
+ *
+ * Existence checks and navigation only need one key instead of loading all keys of a domain;
+ * xliff files have no offset, they are targeted as file only
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class TranslationKeyStubIndex extends FileBasedIndexExtension<String, Integer> {
+
+    public static final ID<String, Integer> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.translation_keys");
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+
+    /**
+     * Offset value for file targets
+     */
+    public static final int NO_OFFSET = -1;
+
+    /**
+     * Unit separator; neither part of a domain nor of usual translation keys
+     */
+    private static final char SEPARATOR = '\u001F';
+
+    @NotNull
+    public static String createKey(@NotNull String domain, @NotNull String translationKey) {
+        return domain + SEPARATOR + translationKey;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Integer, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Integer> map = new THashMap<>();
+
+            if(!Symfony2ProjectComponent.isEnabledForIndex(inputData.getProject())) {
+                return map;
+            }
+
+            String domainName = YamlTranslationStubIndex.getDomainName(inputData.getFileName());
+            if(domainName == null) {
+                return map;
+            }
+
+            String extension = inputData.getFile().getExtension();
+            if("xlf".equalsIgnoreCase(extension) || "xliff".equalsIgnoreCase(extension)) {
+                if(!YamlTranslationStubIndex.isValidXliffFile(inputData)) {
+                    return map;
+                }
+
+                InputStream inputStream;
+                try {
+                    inputStream = inputData.getFile().getInputStream();
+                } catch (IOException e) {
+                    return map;
+                }
+
+                for (String translationKey : TranslationUtil.getXliffTranslations(inputStream)) {
+                    map.put(createKey(domainName, translationKey), NO_OFFSET);
+                }
+
+                return map;
+            }
+
+            PsiFile psiFile = inputData.getPsiFile();
+            if(!(psiFile instanceof YAMLFile) || !YamlTranslationStubIndex.isValidTranslationFile(inputData, psiFile)) {
+                return map;
+            }
+
+            YamlTranslationVistor.collectFileTranslations((YAMLFile) psiFile, (keyName, yamlKeyValue) -> {
+                String key = createKey(domainName, keyName);
+
+                // first one wins, like on visiting the file
+                if(!map.containsKey(key)) {
+                    map.put(key, yamlKeyValue.getTextRange().getStartOffset());
+                }
+
+                return true;
+            });
+
+            return map;
+        };
+    }
+
+    @NotNull
+    @Override
+    public ID<String, Integer> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<Integer> getValueExternalizer() {
+        return new EnumeratorIntegerDescriptor();
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file ->
+            file.getFileType() == YAMLFileType.YML || "xlf".equalsIgnoreCase(file.getExtension()) || "xliff".equalsIgnoreCase(file.getExtension());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+}
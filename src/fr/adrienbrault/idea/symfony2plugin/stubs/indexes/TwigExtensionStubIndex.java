@@ -0,0 +1,450 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.patterns.PlatformPatterns;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.parser.PhpElementTypes;
+import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.IndexedTwigExtension;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.IndexedTwigExtensionDataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser.TwigElementType;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser.TwigExtensionType;
+import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Filters, functions, tests, operators and global names of Twig extension classes: "FILTER" + "json_decode" => class, type, callable
+ *
+ * Class hierarchy is not available on indexing: every class with one of the extension methods is visited,
+ * extension interface and unit test classes are filtered on query time. Instantiated Twig classes are matched by name
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class TwigExtensionStubIndex extends FileBasedIndexExtension<String, IndexedTwigExtension> {
+
+    public static final ID<String, IndexedTwigExtension> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.twig_extension");
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+    private static IndexedTwigExtensionDataExternalizer EXTERNALIZER = IndexedTwigExtensionDataExternalizer.INSTANCE;
+
+    /**
+     * Unit separator; not part of any twig name
+     */
+    private static final char SEPARATOR = '\u001F';
+
+    private static final Map<String, TwigElementType> METHODS = new HashMap<String, TwigElementType>() {{
+        put("getFilters", TwigElementType.FILTER);
+        put("getFunctions", TwigElementType.METHOD);
+        put("getTests", TwigElementType.SIMPLE_TEST);
+        put("getOperators", TwigElementType.OPERATOR);
+        put("getGlobals", TwigElementType.GLOBAL);
+    }};
+
+    @NotNull
+    public static String createKey(@NotNull TwigElementType type, @NotNull String name) {
+        return type.name() + SEPARATOR + name;
+    }
+
+    @Nullable
+    public static TwigElementType getElementType(@NotNull String key) {
+        int separator = key.indexOf(SEPARATOR);
+        if(separator < 0) {
+            return null;
+        }
+
+        try {
+            return TwigElementType.valueOf(key.substring(0, separator));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    public static String getExtensionName(@NotNull String key) {
+        return key.substring(key.indexOf(SEPARATOR) + 1);
+    }
+
+    /**
+     * Method which return value is indexed, eg "getFilters"
+     */
+    public static boolean isExtensionMethod(@Nullable String methodName) {
+        return methodName != null && METHODS.containsKey(methodName);
+    }
+
+    /**
+     * File content is able to provide extensions; same as indexer input check
+     */
+    public static boolean isExtensionFile(@NotNull CharSequence content) {
+        return METHODS.keySet().stream().anyMatch(method -> StringUtil.contains(content, method));
+    }
+
+    @NotNull
+    @Override
+    public ID<String, IndexedTwigExtension> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, IndexedTwigExtension, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, IndexedTwigExtension> map = new HashMap<>();
+
+            // dont build psi for files which can not provide extensions
+            if(!isExtensionFile(inputData.getContentAsText())) {
+                return map;
+            }
+
+            PsiFile psiFile = inputData.getPsiFile();
+            if(!Symfony2ProjectComponent.isEnabledForIndex(psiFile.getProject())) {
+                return map;
+            }
+
+            for (PhpClass phpClass : PsiTreeUtil.findChildrenOfType(psiFile, PhpClass.class)) {
+                String fqnClassName = StringUtils.stripStart(phpClass.getFQN(), "\\");
+
+                for (Map.Entry<String, TwigElementType> entry : METHODS.entrySet()) {
+                    Method method = phpClass.findOwnMethodByName(entry.getKey());
+                    if(method == null) {
+                        continue;
+                    }
+
+                    Map<String, IndexedTwigExtension> extensions = new HashMap<>();
+                    if(entry.getValue() == TwigElementType.OPERATOR) {
+                        visitOperators(method, fqnClassName, extensions);
+                    } else if(entry.getValue() == TwigElementType.GLOBAL) {
+                        visitGlobals(method, fqnClassName, extensions);
+                    } else {
+                        method.acceptChildren(new NewExpressionVisitor(entry.getValue(), fqnClassName, extensions));
+                    }
+
+                    for (Map.Entry<String, IndexedTwigExtension> extension : extensions.entrySet()) {
+                        map.put(createKey(entry.getValue(), extension.getKey()), extension.getValue());
+                    }
+                }
+            }
+
+            return map;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<IndexedTwigExtension> getValueExternalizer() {
+        return EXTERNALIZER;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file ->
+            file.getFileType() == PhpFileType.INSTANCE;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    /**
+     * return array(
+     *   array('not' => array()),
+     *   array('or' => array()),
+     * );
+     */
+    private static void visitOperators(@NotNull Method method, @NotNull String fqnClassName, @NotNull Map<String, IndexedTwigExtension> map) {
+        for (PhpReturn phpReturn : PsiTreeUtil.findChildrenOfType(method, PhpReturn.class)) {
+            PhpPsiElement firstPsiChild = phpReturn.getFirstPsiChild();
+            if(!(firstPsiChild instanceof ArrayCreationExpression)) {
+                continue;
+            }
+
+            // twig core returns nested array with 2 items array creation elements
+            for (PsiElement psiElement : getArrayValues(firstPsiChild)) {
+                PhpPsiElement arrayValue = ((PhpPsiElement) psiElement).getFirstPsiChild();
+                if(!(arrayValue instanceof ArrayCreationExpression)) {
+                    continue;
+                }
+
+                for (ArrayHashElement arrayHashElement : PsiTreeUtil.findChildrenOfType(arrayValue, ArrayHashElement.class)) {
+                    String operator = getStringContents(arrayHashElement.getKey());
+                    if(operator != null && StringUtils.isNotBlank(operator)) {
+                        map.put(operator, new IndexedTwigExtension(fqnClassName, TwigExtensionType.OPERATOR, null));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * return array('foo' => $this->foo); only names, types need the type resolving of the php plugin
+     */
+    private static void visitGlobals(@NotNull Method method, @NotNull String fqnClassName, @NotNull Map<String, IndexedTwigExtension> map) {
+        String signature = String.format("#M#C\\%s.%s", fqnClassName, method.getName());
+
+        for (PhpReturn phpReturn : PsiTreeUtil.findChildrenOfType(method, PhpReturn.class)) {
+            PhpPsiElement firstPsiChild = phpReturn.getFirstPsiChild();
+            if(!(firstPsiChild instanceof ArrayCreationExpression)) {
+                continue;
+            }
+
+            for (ArrayHashElement arrayHashElement : ((ArrayCreationExpression) firstPsiChild).getHashElements()) {
+                String name = getStringContents(arrayHashElement.getKey());
+                if(name != null) {
+                    map.put(name, new IndexedTwigExtension(fqnClassName, TwigExtensionType.GLOBAL, signature));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get signature for callable like array($this, 'getUrl'), 'SqlFormatter::format' or 'function'
+     */
+    @Nullable
+    private static String getCallableSignature(@NotNull PsiElement psiElement, @NotNull String fqnClassName) {
+
+        // array($this, 'getUrl')
+        if(psiElement instanceof ArrayCreationExpression) {
+            List<PsiElement> arrayValues = getArrayValues(psiElement);
+            if(arrayValues.size() > 1 && isThis(((PhpPsiElement) arrayValues.get(0)).getFirstPsiChild())) {
+                String methodName = getStringContents(((PhpPsiElement) arrayValues.get(1)).getFirstPsiChild());
+                if(StringUtils.isNotBlank(methodName)) {
+                    return String.format("#M#C\\%s.%s", fqnClassName, methodName);
+                }
+            }
+
+            return null;
+        }
+
+        String funcTargetName = getStringContents(psiElement);
+        if(funcTargetName == null) {
+            return null;
+        }
+
+        if(funcTargetName.contains("::")) {
+            // 'SqlFormatter::format'
+            String[] splits = funcTargetName.split("::");
+            return splits.length >= 2 ? String.format("#M#C\\%s.%s", splits[0], splits[1]) : null;
+        }
+
+        return "#F" + funcTargetName;
+    }
+
+    /**
+     * needs_environment, needs_context flags and is_safe list of the options parameter
+     */
+    @NotNull
+    private static Map<String, String> getOptions(@NotNull PsiElement[] parameters, int index) {
+        Map<String, String> options = new HashMap<>();
+
+        if(parameters.length <= index || !(parameters[index] instanceof ArrayCreationExpression)) {
+            return options;
+        }
+
+        for (ArrayHashElement arrayHashElement : ((ArrayCreationExpression) parameters[index]).getHashElements()) {
+            String key = getStringContents(arrayHashElement.getKey());
+            PhpPsiElement value = arrayHashElement.getValue();
+
+            if("needs_environment".equals(key) || "needs_context".equals(key)) {
+                if(value instanceof ConstantReference && "true".equalsIgnoreCase(value.getName())) {
+                    options.put(key, "true");
+                }
+            } else if("is_safe".equals(key) && value instanceof ArrayCreationExpression) {
+                Collection<String> safe = new ArrayList<>();
+                for (PsiElement arrayValue : getArrayValues(value)) {
+                    String contents = getStringContents(((PhpPsiElement) arrayValue).getFirstPsiChild());
+                    if(contents != null) {
+                        safe.add(contents);
+                    }
+                }
+
+                options.put(key, StringUtils.join(safe, ","));
+            }
+        }
+
+        return options;
+    }
+
+    @NotNull
+    private static List<PsiElement> getArrayValues(@NotNull PsiElement array) {
+        List<PsiElement> values = new ArrayList<>();
+
+        for (PsiElement psiElement : PsiElementUtils.getChildrenOfTypeAsList(array, PlatformPatterns.psiElement().withElementType(PhpElementTypes.ARRAY_VALUE))) {
+            if(psiElement instanceof PhpPsiElement) {
+                values.add(psiElement);
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Only literals; constants are not resolvable on indexing
+     */
+    @Nullable
+    private static String getStringContents(@Nullable PsiElement psiElement) {
+        if(!(psiElement instanceof StringLiteralExpression)) {
+            return null;
+        }
+
+        String contents = ((StringLiteralExpression) psiElement).getContents();
+        return StringUtils.isNotBlank(contents) ? contents : null;
+    }
+
+    private static boolean isThis(@Nullable PsiElement psiElement) {
+        return psiElement instanceof Variable && "this".equals(((Variable) psiElement).getName());
+    }
+
+    /**
+     * Key of array('name' => new \Twig_Filter_Function(...))
+     */
+    @Nullable
+    private static String getArrayHashKey(@NotNull NewExpression newExpression) {
+        PsiElement arrayValue = newExpression.getParent();
+        if(arrayValue == null || arrayValue.getNode().getElementType() != PhpElementTypes.ARRAY_VALUE) {
+            return null;
+        }
+
+        PsiElement arrayHash = arrayValue.getParent();
+        if(!(arrayHash instanceof ArrayHashElement)) {
+            return null;
+        }
+
+        return getStringContents(((ArrayHashElement) arrayHash).getKey());
+    }
+
+    /**
+     * Class name of "new \Twig_SimpleFilter()" without leading backslash; imports are resolved by the reference itself
+     */
+    @Nullable
+    private static String getClassName(@NotNull NewExpression newExpression) {
+        ClassReference classReference = newExpression.getClassReference();
+        if(classReference == null) {
+            return null;
+        }
+
+        String fqn = classReference.getFQN();
+        return fqn != null ? StringUtils.stripStart(fqn, "\\") : null;
+    }
+
+    private static class NewExpressionVisitor extends PsiRecursiveElementWalkingVisitor {
+
+        @NotNull
+        private final TwigElementType type;
+
+        @NotNull
+        private final String fqnClassName;
+
+        @NotNull
+        private final Map<String, IndexedTwigExtension> map;
+
+        NewExpressionVisitor(@NotNull TwigElementType type, @NotNull String fqnClassName, @NotNull Map<String, IndexedTwigExtension> map) {
+            this.type = type;
+            this.fqnClassName = fqnClassName;
+            this.map = map;
+        }
+
+        @Override
+        public void visitElement(PsiElement element) {
+            if(element instanceof NewExpression) {
+                String className = getClassName((NewExpression) element);
+                if(className != null) {
+                    visitNewExpression((NewExpression) element, className);
+                }
+            }
+
+            super.visitElement(element);
+        }
+
+        private void visitNewExpression(@NotNull NewExpression element, @NotNull String className) {
+            PsiElement[] parameters = element.getParameters();
+
+            if(type == TwigElementType.FILTER && "Twig_SimpleFilter".equals(className)) {
+                // new \Twig_SimpleFilter('url', array($this, 'getUrl'), array('needs_environment' => true))
+                addSimple(parameters, TwigExtensionType.FILTER);
+            } else if(type == TwigElementType.METHOD && "Twig_SimpleFunction".equals(className)) {
+                // new \Twig_SimpleFunction('url', array($this, 'getUrl'), array('is_safe' => array('html')))
+                addSimple(parameters, TwigExtensionType.SIMPLE_FUNCTION);
+            } else if(type == TwigElementType.SIMPLE_TEST && "Twig_SimpleTest".equals(className)) {
+                // new Twig_SimpleTest('even', null, array('node_class' => 'Twig_Node_Expression_Test_Even'))
+                String name = parameters.length > 0 ? getStringContents(parameters[0]) : null;
+                if(name != null && !name.contains("*")) {
+                    map.put(name, new IndexedTwigExtension(fqnClassName, TwigExtensionType.SIMPLE_TEST, null));
+                }
+            } else if(type == TwigElementType.FILTER && "Twig_Filter_Function".equals(className)) {
+                // array('shuffle' => new Twig_Filter_Function('twig_shuffle_filter'))
+                String name = getArrayHashKey(element);
+                if(name != null && !name.contains("*")) {
+                    String signature = parameters.length > 0 ? getCallableSignature(parameters[0], fqnClassName) : null;
+                    map.put(name, new IndexedTwigExtension(fqnClassName, TwigExtensionType.FILTER, signature));
+                }
+            } else if(type == TwigElementType.FILTER && "Twig_Filter_Method".equals(className)) {
+                // array('serialize' => new \Twig_Filter_Method($this, 'serialize'))
+                String name = getArrayHashKey(element);
+                if(name != null && name.matches("\\w+")) {
+                    map.put(name, new IndexedTwigExtension(fqnClassName, TwigExtensionType.FILTER, getThisMethodSignature(parameters)));
+                }
+            } else if(type == TwigElementType.METHOD && "Twig_Function_Method".equals(className)) {
+                // array('form_javascript' => new \Twig_Function_Method($this, 'renderJavascript', array('is_safe' => array('html'))))
+                String name = getArrayHashKey(element);
+                if(name != null && !name.contains("*")) {
+                    map.put(name, new IndexedTwigExtension(fqnClassName, TwigExtensionType.FUNCTION_METHOD, getThisMethodSignature(parameters)));
+                }
+            } else if(type == TwigElementType.METHOD && "Twig_Function_Node".equals(className)) {
+                // array('form_help' => new \Twig_Function_Node('Symfony\Bridge\Twig\Node\SearchAndRenderBlockNode', array('is_safe' => array('html'))))
+                String name = getArrayHashKey(element);
+                if(name != null && !name.contains("*")) {
+                    String nodeClass = parameters.length > 0 ? getStringContents(parameters[0]) : null;
+                    String signature = nodeClass != null ? String.format("#M#C\\%s.%s", StringUtils.stripStart(nodeClass, "\\"), "compile") : null;
+                    map.put(name, new IndexedTwigExtension(fqnClassName, TwigExtensionType.FUNCTION_NODE, signature));
+                }
+            }
+        }
+
+        private void addSimple(@NotNull PsiElement[] parameters, @NotNull TwigExtensionType extensionType) {
+            String name = parameters.length > 0 ? getStringContents(parameters[0]) : null;
+            if(name == null || name.contains("*")) {
+                return;
+            }
+
+            String signature = parameters.length > 1 ? getCallableSignature(parameters[1], fqnClassName) : null;
+            map.put(name, new IndexedTwigExtension(fqnClassName, extensionType, signature, getOptions(parameters, 2)));
+        }
+
+        /**
+         * ($this, 'method')
+         */
+        @Nullable
+        private String getThisMethodSignature(@NotNull PsiElement[] parameters) {
+            if(parameters.length < 2 || !isThis(parameters[0])) {
+                return null;
+            }
+
+            String methodName = getStringContents(parameters[1]);
+            return methodName != null ? String.format("#M#C\\%s.%s", fqnClassName, methodName) : null;
+        }
+    }
+}
@@ -58,7 +58,7 @@ public class YamlTranslationStubIndex extends FileBasedIndexExtension<String, Se
                     return map;
                 }
 
-                String domainName = this.getDomainName(inputData.getFileName());
+                String domainName = getDomainName(inputData.getFileName());
                 if(domainName == null) {
                     return map;
                 }
@@ -79,33 +79,13 @@ public class YamlTranslationStubIndex extends FileBasedIndexExtension<String, Se
 
             }
 
-            private boolean isValidTranslationFile(FileContent inputData, PsiFile psiFile) {
-
-                // dont index all yaml files; "Resources/translations" should be good for now
-                String relativePath = VfsUtil.getRelativePath(inputData.getFile(), psiFile.getProject().getBaseDir(), '/');
-                if(relativePath != null) {
-                    return relativePath.contains("Resources/translations");
-                }
-
-                // Resources/translations/messages.de.yml
-                // @TODO: Resources/translations/de/messages.yml
-                String path = inputData.getFile().getPath();
-                if(path.endsWith("Resources/translations/" + inputData.getFileName())) {
-                    return true;
-                }
-
-                return false;
-            }
-
             private Map<String, Set<String>> getXlfStringMap(FileContent inputData, Map<String, Set<String>> map) {
 
-                // testing files are not that nice
-                String relativePath = VfsUtil.getRelativePath(inputData.getFile(), inputData.getProject().getBaseDir(), '/');
-                if(relativePath != null && (relativePath.contains("/Test/") || relativePath.contains("/Tests/") || relativePath.contains("/Fixture/") || relativePath.contains("/Fixtures/"))) {
+                if(!isValidXliffFile(inputData)) {
                     return map;
                 }
 
-                String domainName = this.getDomainName(inputData.getFileName());
+                String domainName = getDomainName(inputData.getFileName());
                 if(domainName == null) {
                     return map;
                 }
@@ -125,19 +105,44 @@ public class YamlTranslationStubIndex extends FileBasedIndexExtension<String, Se
                 return map;
             }
 
-            @Nullable
-            private String getDomainName(@NotNull String fileName) {
-                // foo.fr.yml
-                // dont index fr.yml
-                int domainSplit = fileName.indexOf(".");
-                if(domainSplit <= 2) {
-                    return null;
-                }
+        };
+    }
 
-                return fileName.substring(0, domainSplit);
-            }
+    static boolean isValidTranslationFile(@NotNull FileContent inputData, @NotNull PsiFile psiFile) {
 
-        };
+        // dont index all yaml files; "Resources/translations" should be good for now
+        String relativePath = VfsUtil.getRelativePath(inputData.getFile(), psiFile.getProject().getBaseDir(), '/');
+        if(relativePath != null) {
+            return relativePath.contains("Resources/translations");
+        }
+
+        // Resources/translations/messages.de.yml
+        // @TODO: Resources/translations/de/messages.yml
+        String path = inputData.getFile().getPath();
+        if(path.endsWith("Resources/translations/" + inputData.getFileName())) {
+            return true;
+        }
+
+        return false;
+    }
+
+    static boolean isValidXliffFile(@NotNull FileContent inputData) {
+
+        // testing files are not that nice
+        String relativePath = VfsUtil.getRelativePath(inputData.getFile(), inputData.getProject().getBaseDir(), '/');
+        return relativePath == null || !(relativePath.contains("/Test/") || relativePath.contains("/Tests/") || relativePath.contains("/Fixture/") || relativePath.contains("/Fixtures/"));
+    }
+
+    @Nullable
+    static String getDomainName(@NotNull String fileName) {
+        // foo.fr.yml
+        // dont index fr.yml
+        int domainSplit = fileName.indexOf(".");
+        if(domainSplit <= 2) {
+            return null;
+        }
+
+        return fileName.substring(0, domainSplit);
     }
 
     @NotNull
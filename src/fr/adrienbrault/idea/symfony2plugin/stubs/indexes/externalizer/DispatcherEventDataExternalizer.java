@@ -0,0 +1,49 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.DispatcherEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ExternalizerUtil.*;
+
+/**
+ * Format: null bitmap, fqn, instance
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class DispatcherEventDataExternalizer implements DataExternalizer<DispatcherEvent> {
+
+    public static final DispatcherEventDataExternalizer INSTANCE = new DispatcherEventDataExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, DispatcherEvent value) throws IOException {
+        String fqn = value.getFqn();
+        String instance = value.getInstance();
+
+        int bitmap = nullBitmap(fqn, instance);
+        DataInputOutputUtil.writeINT(out, bitmap);
+
+        writeIfSet(out, bitmap, 0, fqn);
+        writeIfSet(out, bitmap, 1, instance);
+    }
+
+    @Override
+    public DispatcherEvent read(@NotNull DataInput in) throws IOException {
+        int bitmap = DataInputOutputUtil.readINT(in);
+
+        String fqn = readIfSet(in, bitmap, 0);
+        String instance = readIfSet(in, bitmap, 1);
+
+        // default constructor keeps a "null" fqn which is not allowed in the other one
+        if(fqn == null) {
+            return new DispatcherEvent();
+        }
+
+        return new DispatcherEvent(fqn, instance);
+    }
+}
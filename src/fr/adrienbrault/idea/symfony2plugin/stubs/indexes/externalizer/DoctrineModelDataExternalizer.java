@@ -0,0 +1,45 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModel;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelSerializable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ExternalizerUtil.*;
+
+/**
+ * Format: class, null bitmap, repository class
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class DoctrineModelDataExternalizer implements DataExternalizer<DoctrineModelSerializable> {
+
+    public static final DoctrineModelDataExternalizer INSTANCE = new DoctrineModelDataExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, DoctrineModelSerializable value) throws IOException {
+        IOUtil.writeUTF(out, value.getClassName());
+
+        String repositoryClass = value.getRepositoryClass();
+
+        int bitmap = nullBitmap(repositoryClass);
+        DataInputOutputUtil.writeINT(out, bitmap);
+
+        writeIfSet(out, bitmap, 0, repositoryClass);
+    }
+
+    @Override
+    public DoctrineModelSerializable read(@NotNull DataInput in) throws IOException {
+        DoctrineModel doctrineModel = new DoctrineModel(IOUtil.readUTF(in));
+
+        int bitmap = DataInputOutputUtil.readINT(in);
+
+        return doctrineModel.setRepositoryClass(readIfSet(in, bitmap, 0));
+    }
+}
@@ -0,0 +1,76 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.EventSubscriberMethod;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ExternalizerUtil.*;
+
+/**
+ * Format: count, per method: class, null bitmap, method, signature, priority
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class EventSubscriberMethodDataExternalizer implements DataExternalizer<List<EventSubscriberMethod>> {
+
+    public static final EventSubscriberMethodDataExternalizer INSTANCE = new EventSubscriberMethodDataExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, List<EventSubscriberMethod> values) throws IOException {
+        DataInputOutputUtil.writeINT(out, values.size());
+        for (EventSubscriberMethod value : values) {
+            saveMethod(out, value);
+        }
+    }
+
+    @Override
+    public List<EventSubscriberMethod> read(@NotNull DataInput in) throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+
+        List<EventSubscriberMethod> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readMethod(in));
+        }
+
+        return values;
+    }
+
+    private static void saveMethod(@NotNull DataOutput out, @NotNull EventSubscriberMethod value) throws IOException {
+        IOUtil.writeUTF(out, value.getFqnClassName());
+
+        String methodName = value.getMethodName();
+        String signature = value.getSignature();
+        Integer priority = value.getPriority();
+
+        int bitmap = nullBitmap(methodName, signature, priority);
+        DataInputOutputUtil.writeINT(out, bitmap);
+
+        writeIfSet(out, bitmap, 0, methodName);
+        writeIfSet(out, bitmap, 1, signature);
+
+        if(priority != null) {
+            DataInputOutputUtil.writeINT(out, priority);
+        }
+    }
+
+    @NotNull
+    private static EventSubscriberMethod readMethod(@NotNull DataInput in) throws IOException {
+        String fqnClassName = IOUtil.readUTF(in);
+
+        int bitmap = DataInputOutputUtil.readINT(in);
+
+        String methodName = readIfSet(in, bitmap, 0);
+        String signature = readIfSet(in, bitmap, 1);
+        Integer priority = hasBit(bitmap, 2) ? DataInputOutputUtil.readINT(in) : null;
+
+        return new EventSubscriberMethod(fqnClassName, methodName, priority, signature);
+    }
+}
@@ -0,0 +1,116 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Shared primitives for our compact index value formats:
+ * varint lengths, utf strings and a leading null bitmap instead of per field markers
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ExternalizerUtil {
+
+    private static final int BOOLEAN_NULL = 0;
+    private static final int BOOLEAN_FALSE = 1;
+    private static final int BOOLEAN_TRUE = 2;
+
+    /**
+     * Bitmap of all non null values; bit position is the parameter position
+     */
+    public static int nullBitmap(@Nullable Object... values) {
+        int bitmap = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            if(values[i] != null) {
+                bitmap |= 1 << i;
+            }
+        }
+
+        return bitmap;
+    }
+
+    public static boolean hasBit(int bitmap, int position) {
+        return (bitmap & (1 << position)) != 0;
+    }
+
+    /**
+     * Writes string only if its bit is set, so caller must write the bitmap before
+     */
+    public static void writeIfSet(@NotNull DataOutput out, int bitmap, int position, @Nullable String value) throws IOException {
+        if(value != null && hasBit(bitmap, position)) {
+            IOUtil.writeUTF(out, value);
+        }
+    }
+
+    @Nullable
+    public static String readIfSet(@NotNull DataInput in, int bitmap, int position) throws IOException {
+        return hasBit(bitmap, position) ? IOUtil.readUTF(in) : null;
+    }
+
+    /**
+     * Packs nullable booleans into two bits each: null, false, true
+     */
+    public static int packBooleans(@Nullable Boolean... values) {
+        int packed = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            int value = values[i] == null ? BOOLEAN_NULL : (values[i] ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+            packed |= value << (i * 2);
+        }
+
+        return packed;
+    }
+
+    @Nullable
+    public static Boolean unpackBoolean(int packed, int position) {
+        int value = (packed >> (position * 2)) & 3;
+
+        if(value == BOOLEAN_NULL) {
+            return null;
+        }
+
+        return value == BOOLEAN_TRUE;
+    }
+
+    public static void writeStrings(@NotNull DataOutput out, @NotNull Collection<String> values) throws IOException {
+        DataInputOutputUtil.writeINT(out, values.size());
+        for (String value : values) {
+            IOUtil.writeUTF(out, value);
+        }
+    }
+
+    @NotNull
+    public static List<String> readStringList(@NotNull DataInput in) throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(IOUtil.readUTF(in));
+        }
+
+        return values;
+    }
+
+    @NotNull
+    public static Collection<String> readStringSet(@NotNull DataInput in) throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+
+        Collection<String> values = new HashSet<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(IOUtil.readUTF(in));
+        }
+
+        return values;
+    }
+}
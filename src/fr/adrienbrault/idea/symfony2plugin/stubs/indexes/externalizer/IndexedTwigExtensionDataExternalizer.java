@@ -0,0 +1,64 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.IndexedTwigExtension;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ExternalizerUtil.*;
+
+/**
+ * Format: class, type ordinal, null bitmap, signature, options as key value pairs
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class IndexedTwigExtensionDataExternalizer implements DataExternalizer<IndexedTwigExtension> {
+
+    public static final IndexedTwigExtensionDataExternalizer INSTANCE = new IndexedTwigExtensionDataExternalizer();
+
+    private static final TwigExtensionParser.TwigExtensionType[] TYPES = TwigExtensionParser.TwigExtensionType.values();
+
+    @Override
+    public void save(@NotNull DataOutput out, IndexedTwigExtension value) throws IOException {
+        IOUtil.writeUTF(out, value.getFqnClassName());
+        DataInputOutputUtil.writeINT(out, value.getType().ordinal());
+
+        String signature = value.getSignature();
+
+        int bitmap = nullBitmap(signature);
+        DataInputOutputUtil.writeINT(out, bitmap);
+        writeIfSet(out, bitmap, 0, signature);
+
+        Map<String, String> options = value.getOptions();
+        DataInputOutputUtil.writeINT(out, options.size());
+        for (Map.Entry<String, String> entry : options.entrySet()) {
+            IOUtil.writeUTF(out, entry.getKey());
+            IOUtil.writeUTF(out, entry.getValue());
+        }
+    }
+
+    @Override
+    public IndexedTwigExtension read(@NotNull DataInput in) throws IOException {
+        String fqnClassName = IOUtil.readUTF(in);
+        TwigExtensionParser.TwigExtensionType type = TYPES[DataInputOutputUtil.readINT(in)];
+
+        int bitmap = DataInputOutputUtil.readINT(in);
+        String signature = readIfSet(in, bitmap, 0);
+
+        int size = DataInputOutputUtil.readINT(in);
+        Map<String, String> options = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            options.put(IOUtil.readUTF(in), IOUtil.readUTF(in));
+        }
+
+        return new IndexedTwigExtension(fqnClassName, type, signature, options);
+    }
+}
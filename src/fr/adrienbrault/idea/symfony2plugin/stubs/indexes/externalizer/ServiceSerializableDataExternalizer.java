@@ -0,0 +1,86 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.SerializableService;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ExternalizerUtil.*;
+
+/**
+ * Format: id, null bitmap, nullable strings, tri-state booleans packed into one varint
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ServiceSerializableDataExternalizer implements DataExternalizer<ServiceSerializable> {
+
+    public static final ServiceSerializableDataExternalizer INSTANCE = new ServiceSerializableDataExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, ServiceSerializable value) throws IOException {
+        IOUtil.writeUTF(out, value.getId());
+
+        String className = value.getClassName();
+        String alias = value.getAlias();
+        String decorates = value.getDecorates();
+        String decorationInnerName = value.getDecorationInnerName();
+        String parent = value.getParent();
+
+        int bitmap = nullBitmap(className, alias, decorates, decorationInnerName, parent);
+        DataInputOutputUtil.writeINT(out, bitmap);
+
+        writeIfSet(out, bitmap, 0, className);
+        writeIfSet(out, bitmap, 1, alias);
+        writeIfSet(out, bitmap, 2, decorates);
+        writeIfSet(out, bitmap, 3, decorationInnerName);
+        writeIfSet(out, bitmap, 4, parent);
+
+        if(value instanceof SerializableService) {
+            SerializableService service = (SerializableService) value;
+            DataInputOutputUtil.writeINT(out, packBooleans(
+                service.getRawPublic(),
+                service.getRawLazy(),
+                service.getRawAbstract(),
+                service.getRawAutowire(),
+                service.getRawDeprecated()
+            ));
+        } else {
+            DataInputOutputUtil.writeINT(out, packBooleans(
+                value.isPublic(),
+                value.isLazy(),
+                value.isAbstract(),
+                value.isAutowire(),
+                value.isDeprecated()
+            ));
+        }
+    }
+
+    @Override
+    public ServiceSerializable read(@NotNull DataInput in) throws IOException {
+        SerializableService service = new SerializableService(IOUtil.readUTF(in));
+
+        int bitmap = DataInputOutputUtil.readINT(in);
+
+        service
+            .setClassName(readIfSet(in, bitmap, 0))
+            .setAlias(readIfSet(in, bitmap, 1))
+            .setDecorates(readIfSet(in, bitmap, 2))
+            .setDecorationInnerName(readIfSet(in, bitmap, 3))
+            .setParent(readIfSet(in, bitmap, 4));
+
+        int booleans = DataInputOutputUtil.readINT(in);
+
+        return service
+            .setIsPublic(unpackBoolean(booleans, 0))
+            .setIsLazy(unpackBoolean(booleans, 1))
+            .setIsAbstract(unpackBoolean(booleans, 2))
+            .setIsAutowire(unpackBoolean(booleans, 3))
+            .setIsDeprecated(unpackBoolean(booleans, 4));
+    }
+}
@@ -0,0 +1,52 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.StubIndexedRoute;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ExternalizerUtil.*;
+
+/**
+ * Format: name, null bitmap, controller, path, methods
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class StubIndexedRouteDataExternalizer implements DataExternalizer<StubIndexedRoute> {
+
+    public static final StubIndexedRouteDataExternalizer INSTANCE = new StubIndexedRouteDataExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, StubIndexedRoute value) throws IOException {
+        IOUtil.writeUTF(out, value.getName());
+
+        String controller = value.getController();
+        String path = value.getPath();
+
+        int bitmap = nullBitmap(controller, path);
+        DataInputOutputUtil.writeINT(out, bitmap);
+
+        writeIfSet(out, bitmap, 0, controller);
+        writeIfSet(out, bitmap, 1, path);
+
+        writeStrings(out, value.getMethods());
+    }
+
+    @Override
+    public StubIndexedRoute read(@NotNull DataInput in) throws IOException {
+        StubIndexedRoute route = new StubIndexedRoute(IOUtil.readUTF(in));
+
+        int bitmap = DataInputOutputUtil.readINT(in);
+
+        route.setController(readIfSet(in, bitmap, 0));
+        route.setPath(readIfSet(in, bitmap, 1));
+        route.setMethods(readStringSet(in));
+
+        return route;
+    }
+}
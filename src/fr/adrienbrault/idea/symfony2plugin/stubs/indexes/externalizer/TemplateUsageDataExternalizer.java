@@ -0,0 +1,31 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.IOUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.TemplateUsage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Format: template, scopes
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class TemplateUsageDataExternalizer implements DataExternalizer<TemplateUsage> {
+
+    public static final TemplateUsageDataExternalizer INSTANCE = new TemplateUsageDataExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, TemplateUsage value) throws IOException {
+        IOUtil.writeUTF(out, value.getTemplate());
+        ExternalizerUtil.writeStrings(out, value.getScopes());
+    }
+
+    @Override
+    public TemplateUsage read(@NotNull DataInput in) throws IOException {
+        return new TemplateUsage(IOUtil.readUTF(in), ExternalizerUtil.readStringSet(in));
+    }
+}
@@ -14,12 +14,16 @@ public class IndexUtil {
             ContainerParameterStubIndex.KEY,
             DoctrineMetadataFileStubIndex.KEY,
             EventAnnotationStubIndex.KEY,
+            EventSubscriberStubIndex.KEY,
             FileResourcesIndex.KEY,
             PhpTwigTemplateUsageStubIndex.KEY,
             RoutesStubIndex.KEY,
             ServicesDefinitionStubIndex.KEY,
             ServicesTagStubIndex.KEY,
+            TemplateFileNameIndex.KEY,
+            TranslationKeyStubIndex.KEY,
             TwigExtendsStubIndex.KEY,
+            TwigExtensionStubIndex.KEY,
             TwigIncludeStubIndex.KEY,
             TwigMacroFromStubIndex.KEY,
             TwigMacroFunctionStubIndex.KEY,
@@ -632,7 +632,7 @@ public class TwigTemplateCompletionContributor extends CompletionContributor {
             // collect blocks in all related files
             Pair<PsiFile[], Boolean> scopedContext = TwigHelper.findScopedFile(position);
 
-            List<TwigBlock> blocks = new TwigBlockParser(TwigHelper.getTwigFilesByName(position.getProject()))
+            List<TwigBlock> blocks = new TwigBlockParser(position.getProject())
                 .withSelfBlocks(scopedContext.getSecond())
                 .visit(scopedContext.getFirst());
 
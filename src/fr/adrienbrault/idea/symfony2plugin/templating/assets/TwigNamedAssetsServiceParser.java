@@ -1,17 +1,17 @@
 package fr.adrienbrault.idea.symfony2plugin.templating.assets;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
 import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
-public class TwigNamedAssetsServiceParser extends AbstractServiceParser {
+public class TwigNamedAssetsServiceParser extends AbstractStreamServiceParser {
 
     protected Map<String, String[]> namedAssets = new HashMap<>();
 
@@ -20,9 +20,13 @@ public class TwigNamedAssetsServiceParser extends AbstractServiceParser {
         return "/container/services/service[@id='assetic.asset_manager']//call[@method='addResource']//service[@class='Symfony\\Bundle\\AsseticBundle\\Factory\\Resource\\ConfigurationResource']//argument/argument[@key]";
     }
 
-    public void parser(InputStream file) {
-        NodeList nodeList = this.parserer(file);
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element) || !"assetic.asset_manager".equals(element.getAttribute("id"))) {
+            return;
+        }
 
+        NodeList nodeList = evaluate(element, ".//call[@method='addResource']//service[@class='Symfony\\Bundle\\AsseticBundle\\Factory\\Resource\\ConfigurationResource']//argument/argument[@key]");
         if(nodeList == null) {
             return;
         }
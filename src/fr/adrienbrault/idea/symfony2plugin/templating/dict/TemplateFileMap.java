@@ -1,34 +1,40 @@
 package fr.adrienbrault.idea.symfony2plugin.templating.dict;
 
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.SmartList;
+import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPath;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 /**
+ * Template names to files and a reverse file to names map, filled on the same put.
+ * Names are held in a sorted map, so the reverse map can share the name instances of the forward map
+ *
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class TemplateFileMap {
 
-    private final Map<String, Set<VirtualFile>> templateNames = new HashMap<>();
+    private final NavigableMap<String, Set<VirtualFile>> templateNames = new TreeMap<>();
+
+    /**
+     * Most files only have one or two names, so keep them in a small list
+     */
+    private final Map<VirtualFile, List<String>> fileNames = new HashMap<>();
+
+    private final List<TwigPath> truncatedPaths = new ArrayList<>();
 
     public Map<String, Set<VirtualFile>> getTemplateNames() {
-        return templateNames;
+        return Collections.unmodifiableMap(templateNames);
     }
 
     public Set<String> getNames(@NotNull VirtualFile virtualFile) {
-        Set<String> fileNames = new HashSet<>();
-
-        for (Map.Entry<String, Set<VirtualFile>> entry : templateNames.entrySet()) {
-            if(entry.getValue().contains(virtualFile)) {
-                fileNames.add(entry.getKey());
-            }
+        List<String> names = fileNames.get(virtualFile);
+        if(names == null) {
+            return new HashSet<>();
         }
 
-        return fileNames;
+        return new HashSet<>(names);
     }
 
     @Deprecated
@@ -44,11 +50,25 @@ public class TemplateFileMap {
     }
 
     public void put(@NotNull String namespace, @NotNull VirtualFile virtualFile) {
-        if(!templateNames.containsKey(namespace)) {
-            templateNames.put(namespace, new HashSet<>());
+        Set<VirtualFile> virtualFiles = templateNames.get(namespace);
+
+        if(virtualFiles == null) {
+            templateNames.put(namespace, virtualFiles = new HashSet<>());
+        } else {
+            // share the name instance of the forward map
+            namespace = templateNames.ceilingKey(namespace);
+        }
+
+        if(!virtualFiles.add(virtualFile)) {
+            return;
         }
 
-        templateNames.get(namespace).add(virtualFile);
+        List<String> names = fileNames.get(virtualFile);
+        if(names == null) {
+            fileNames.put(virtualFile, names = new SmartList<>());
+        }
+
+        names.add(namespace);
     }
 
     public void putAll(@NotNull Map<String, VirtualFile> files) {
@@ -56,4 +76,20 @@ public class TemplateFileMap {
             put(entry.getKey(), entry.getValue());
         }
     }
+
+    /**
+     * Path reached a directory or depth limit, so its templates are incomplete
+     */
+    public void addTruncatedPath(@NotNull TwigPath twigPath) {
+        truncatedPaths.add(twigPath);
+    }
+
+    @NotNull
+    public List<TwigPath> getTruncatedPaths() {
+        return Collections.unmodifiableList(truncatedPaths);
+    }
+
+    public boolean isTruncated() {
+        return truncatedPaths.size() > 0;
+    }
 }
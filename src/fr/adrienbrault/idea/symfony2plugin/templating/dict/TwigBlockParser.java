@@ -1,5 +1,6 @@
 package fr.adrienbrault.idea.symfony2plugin.templating.dict;
 
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -23,12 +24,23 @@ public class TwigBlockParser {
 
     private boolean withSelfBlock = false;
 
+    @Nullable
     private Map<String, VirtualFile> twigFilesByName;
 
+    @Nullable
+    private Project project;
+
     public TwigBlockParser(Map<String, VirtualFile> twigFilesByName) {
         this.twigFilesByName = twigFilesByName;
     }
 
+    /**
+     * Templates of "extends" and "use" tags are single name lookups, no template map is needed
+     */
+    public TwigBlockParser(@NotNull Project project) {
+        this.project = project;
+    }
+
     public List<TwigBlock> visit(@NotNull PsiFile[] file) {
         List<TwigBlock> blocks = new ArrayList<>();
         for (PsiFile psiFile : file) {
@@ -71,8 +83,8 @@ public class TwigBlockParser {
         for(TwigExtendsTag extendsTag : PsiTreeUtil.getChildrenOfTypeAsList(file, TwigExtendsTag.class)) {
             for (String s : TwigHelper.getTwigExtendsTagTemplates(extendsTag)) {
                 String templateName = TwigHelper.normalizeTemplateName(s);
-                if(twigFilesByName.containsKey(templateName)) {
-                    virtualFiles.put(twigFilesByName.get(templateName), templateName);
+                for (VirtualFile virtualFile : getTemplateFiles(templateName)) {
+                    virtualFiles.put(virtualFile, templateName);
                 }
             }
         }
@@ -89,8 +101,8 @@ public class TwigBlockParser {
                             String templateName = PsiElementUtils.trimQuote(element.getText());
                             if(StringUtils.isNotBlank(templateName)) {
                                 String templateNameNormalized = TwigHelper.normalizeTemplateName(TwigHelper.normalizeTemplateName(templateName));
-                                if(twigFilesByName.containsKey(templateNameNormalized)) {
-                                    virtualFiles.put(twigFilesByName.get(templateName), templateNameNormalized);
+                                for (VirtualFile virtualFile : getTemplateFiles(templateNameNormalized)) {
+                                    virtualFiles.put(virtualFile, templateNameNormalized);
                                 }
                             }
 
@@ -119,6 +131,19 @@ public class TwigBlockParser {
         return current;
     }
 
+    @NotNull
+    private Collection<VirtualFile> getTemplateFiles(@NotNull String templateName) {
+        if(this.project != null) {
+            return TwigHelper.getTemplateFiles(this.project, templateName);
+        }
+
+        if(this.twigFilesByName != null && this.twigFilesByName.containsKey(templateName)) {
+            return Collections.singletonList(this.twigFilesByName.get(templateName));
+        }
+
+        return Collections.emptyList();
+    }
+
     public TwigBlockParser withSelfBlocks(boolean withSelfBlock) {
         this.withSelfBlock = withSelfBlock;
         return this;
@@ -0,0 +1,83 @@
+package fr.adrienbrault.idea.symfony2plugin.templating.globals;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
+import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigExtension;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.PhpMethodVariableResolveUtil;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser;
+import fr.adrienbrault.idea.symfony2plugin.templating.variable.dict.PsiVariable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Variables of all Twig extension "getGlobals" methods: name to types and its value element
+ *
+ * Providing methods are taken from the TwigExtensionStubIndex, so only their return arrays are visited
+ * and no class hierarchy scan is needed. Cache is rebuild on changes of files which are able to provide
+ * extensions, see IndexTracker.TWIG_EXTENSIONS; other php and template edits keep it
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class TwigExtensionGlobalsRegistry {
+
+    private static final Key<CachedValue<Map<String, PsiVariable>>> TWIG_EXTENSION_GLOBALS = new Key<>("SYMFONY_TWIG_EXTENSION_GLOBALS");
+
+    /**
+     * Shared instance; callers must copy before modifying
+     */
+    @NotNull
+    public static Map<String, PsiVariable> getVariables(@NotNull Project project) {
+        CachedValue<Map<String, PsiVariable>> cache = project.getUserData(TWIG_EXTENSION_GLOBALS);
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(
+                    Collections.unmodifiableMap(collectVariables(project)),
+                    IndexTracker.TWIG_EXTENSIONS.getTracker(project)
+                )
+            , false);
+
+            project.putUserData(TWIG_EXTENSION_GLOBALS, cache);
+        }
+
+        return cache.getValue();
+    }
+
+    @NotNull
+    private static Map<String, PsiVariable> collectVariables(@NotNull Project project) {
+        Map<String, PsiVariable> variables = new HashMap<>();
+
+        // several variables share one "getGlobals" method
+        Set<String> signatures = new HashSet<>();
+        for (TwigExtension twigExtension : new TwigExtensionParser(project).getGlobals().values()) {
+            if(twigExtension.getSignature() != null) {
+                signatures.add(twigExtension.getSignature());
+            }
+        }
+
+        PhpIndex phpIndex = PhpIndex.getInstance(project);
+        for (String signature : signatures) {
+            for (PhpNamedElement phpNamedElement : phpIndex.getBySignature(signature)) {
+                if(!(phpNamedElement instanceof Method)) {
+                    continue;
+                }
+
+                for(PhpReturn phpReturn: PsiTreeUtil.findChildrenOfType(phpNamedElement, PhpReturn.class)) {
+                    PhpPsiElement returnPsiElement = phpReturn.getFirstPsiChild();
+                    if(returnPsiElement instanceof ArrayCreationExpression) {
+                        variables.putAll(PhpMethodVariableResolveUtil.getTypesOnArrayHash((ArrayCreationExpression) returnPsiElement));
+                    }
+                }
+            }
+        }
+
+        return variables;
+    }
+}
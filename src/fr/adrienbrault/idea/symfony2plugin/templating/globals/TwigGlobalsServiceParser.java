@@ -1,14 +1,14 @@
 package fr.adrienbrault.idea.symfony2plugin.templating.globals;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class TwigGlobalsServiceParser extends AbstractServiceParser {
+public class TwigGlobalsServiceParser extends AbstractStreamServiceParser {
 
     protected Map<String, TwigGlobalVariable> twigGlobals = new ConcurrentHashMap<>();
 
@@ -17,9 +17,13 @@ public class TwigGlobalsServiceParser extends AbstractServiceParser {
         return "/container/services/service[@id='twig']//call[@method='addGlobal']";
     }
 
-    public void parser(InputStream file) {
-        NodeList nodeList = this.parserer(file);
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element) || !"twig".equals(element.getAttribute("id"))) {
+            return;
+        }
 
+        NodeList nodeList = evaluate(element, ".//call[@method='addGlobal']");
         if(nodeList == null) {
             return;
         }
@@ -42,7 +46,6 @@ public class TwigGlobalsServiceParser extends AbstractServiceParser {
             }
 
         }
-
     }
 
     public Map<String, TwigGlobalVariable> getTwigGlobals() {
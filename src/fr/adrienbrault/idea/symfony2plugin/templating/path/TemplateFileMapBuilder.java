@@ -0,0 +1,221 @@
+package fr.adrienbrault.idea.symfony2plugin.templating.path;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.util.containers.ContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.templating.dict.TemplateFileMap;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Walks all TwigPath namespaces and collects their templates into a TemplateFileMap.
+ *
+ * Namespace roots are resolved once on the calling thread, the directory walks itself run in parallel
+ * with the JobLauncher under the read action of the caller; walks which cant get read access are done by the caller.
+ * Limits are still applied per namespace, but truncated paths are reported to the user instead of dropping files silently
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class TemplateFileMapBuilder {
+
+    public static final int MAX_DEPTH = 5;
+    public static final int MAX_DIRECTORIES = 150;
+
+    /**
+     * Truncated namespaces we already notified about, so a rebuild of the same map stays silent
+     */
+    private static final Key<Set<String>> TRUNCATED_NOTIFIED = new Key<>("SYMFONY_TEMPLATE_MAP_TRUNCATED_NOTIFIED");
+
+    @NotNull
+    private final Project project;
+
+    private boolean withPhp = false;
+    private boolean withTwig = true;
+
+    private int maxDepth = MAX_DEPTH;
+    private int maxDirectories = MAX_DIRECTORIES;
+
+    public TemplateFileMapBuilder(@NotNull Project project) {
+        this.project = project;
+    }
+
+    @NotNull
+    public TemplateFileMap build(@NotNull Collection<TwigPath> twigPaths) {
+        List<Pair<TwigPath, VirtualFile>> roots = new ArrayList<>();
+
+        for (TwigPath twigPath : twigPaths) {
+            if(!twigPath.isEnabled()) {
+                continue;
+            }
+
+            VirtualFile virtualDirectoryFile = twigPath.getDirectory(project);
+            if(virtualDirectoryFile != null) {
+                roots.add(Pair.create(twigPath, virtualDirectoryFile));
+            }
+        }
+
+        // keep path order for the result, walks are finished in any order
+        VisitorResult[] results = new VisitorResult[roots.size()];
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < roots.size(); i++) {
+            indexes.add(i);
+        }
+
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(indexes, ProgressManager.getInstance().getProgressIndicator(), true, i -> {
+            results[i] = visit(roots.get(i).getFirst(), roots.get(i).getSecond());
+            return true;
+        });
+
+        TemplateFileMap templateFileMap = new TemplateFileMap();
+
+        for (VisitorResult result : results) {
+            if(result == null) {
+                continue;
+            }
+
+            templateFileMap.putAll(result.templates);
+
+            if(result.truncated) {
+                templateFileMap.addTruncatedPath(result.twigPath);
+            }
+        }
+
+        if(templateFileMap.isTruncated()) {
+            notifyTruncated(templateFileMap.getTruncatedPaths());
+        }
+
+        return templateFileMap;
+    }
+
+    @NotNull
+    private VisitorResult visit(@NotNull TwigPath twigPath, @NotNull VirtualFile virtualDirectoryFile) {
+        TwigPathContentIterator iterator = new TwigPathContentIterator(project, twigPath, virtualDirectoryFile)
+            .setWithPhp(withPhp)
+            .setWithTwig(withTwig);
+
+        MyLimitedVirtualFileVisitor visitor = new MyLimitedVirtualFileVisitor(iterator, maxDepth, maxDirectories);
+        VfsUtil.visitChildrenRecursively(virtualDirectoryFile, visitor);
+
+        return new VisitorResult(twigPath, iterator.getResults(), visitor.isTruncated());
+    }
+
+    private void notifyTruncated(@NotNull List<TwigPath> twigPaths) {
+        Set<String> namespaces = new TreeSet<>();
+        for (TwigPath twigPath : twigPaths) {
+            namespaces.add(twigPath.getNamespace());
+        }
+
+        Set<String> notified = ((UserDataHolderEx) project).putUserDataIfAbsent(TRUNCATED_NOTIFIED, ContainerUtil.newConcurrentSet());
+        namespaces.removeAll(notified);
+        if(namespaces.isEmpty()) {
+            return;
+        }
+
+        notified.addAll(namespaces);
+
+        Notifications.Bus.notify(new Notification("Symfony Plugin", "Symfony Plugin", String.format(
+            "Template list is incomplete for namespace(s) %s: directories deeper than %s levels or more than %s directories are skipped",
+            StringUtils.join(namespaces, ", "), maxDepth, maxDirectories
+        ), NotificationType.WARNING), project);
+    }
+
+    public TemplateFileMapBuilder setWithPhp(boolean withPhp) {
+        this.withPhp = withPhp;
+        return this;
+    }
+
+    public TemplateFileMapBuilder setWithTwig(boolean withTwig) {
+        this.withTwig = withTwig;
+        return this;
+    }
+
+    public TemplateFileMapBuilder setLimits(int maxDepth, int maxDirectories) {
+        this.maxDepth = maxDepth;
+        this.maxDirectories = maxDirectories;
+        return this;
+    }
+
+    private static class VisitorResult {
+        @NotNull
+        private final TwigPath twigPath;
+
+        @NotNull
+        private final Map<String, VirtualFile> templates;
+
+        private final boolean truncated;
+
+        VisitorResult(@NotNull TwigPath twigPath, @NotNull Map<String, VirtualFile> templates, boolean truncated) {
+            this.twigPath = twigPath;
+            this.templates = templates;
+            this.truncated = truncated;
+        }
+    }
+
+    /**
+     * Depth and directory limit per namespace; remembers if anything was skipped because of them
+     */
+    private static class MyLimitedVirtualFileVisitor extends VirtualFileVisitor {
+        @NotNull
+        private final TwigPathContentIterator twigPathContentIterator;
+
+        private final int maxDepth;
+        private int childrenAllowToVisit;
+
+        /**
+         * Directories we entered; "afterChildrenVisited" is also called for files and skipped directories
+         */
+        @NotNull
+        private final Deque<VirtualFile> entered = new ArrayDeque<>();
+
+        private boolean truncated = false;
+
+        MyLimitedVirtualFileVisitor(@NotNull TwigPathContentIterator twigPathContentIterator, int maxDepth, int maxDirs) {
+            this.twigPathContentIterator = twigPathContentIterator;
+            this.maxDepth = maxDepth;
+            this.childrenAllowToVisit = maxDirs;
+        }
+
+        @Override
+        public boolean visitFile(@NotNull VirtualFile virtualFile) {
+            ProgressManager.checkCanceled();
+
+            if(!virtualFile.isDirectory()) {
+                twigPathContentIterator.processFile(virtualFile);
+                return true;
+            }
+
+            // per path directory limit
+            if(childrenAllowToVisit-- <= 0 || entered.size() >= maxDepth) {
+                truncated = true;
+                return false;
+            }
+
+            entered.push(virtualFile);
+
+            return true;
+        }
+
+        @Override
+        public void afterChildrenVisited(@NotNull VirtualFile file) {
+            if(file.equals(entered.peek())) {
+                entered.pop();
+            }
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
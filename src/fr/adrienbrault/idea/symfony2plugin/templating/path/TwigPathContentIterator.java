@@ -6,6 +6,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.jetbrains.php.lang.PhpFileType;
 import com.jetbrains.twig.TwigFileType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -25,11 +26,27 @@ public class TwigPathContentIterator {
     @NotNull
     private Set<String> workedOn = new HashSet<>();
 
+    /**
+     * Resolving the namespace root is file system work, so do it only once per iterator
+     */
+    @Nullable
+    private VirtualFile virtualDirectoryFile;
+    private boolean directoryResolved = false;
+
     public TwigPathContentIterator(@NotNull Project project, @NotNull TwigPath twigPath) {
         this.twigPath = twigPath;
         this.project = project;
     }
 
+    /**
+     * @param virtualDirectoryFile already resolved root of the TwigPath
+     */
+    public TwigPathContentIterator(@NotNull Project project, @NotNull TwigPath twigPath, @NotNull VirtualFile virtualDirectoryFile) {
+        this(project, twigPath);
+        this.virtualDirectoryFile = virtualDirectoryFile;
+        this.directoryResolved = true;
+    }
+
     public boolean processFile(VirtualFile virtualFile) {
 
         // @TODO make file types more dynamically like eg js
@@ -45,7 +62,7 @@ public class TwigPathContentIterator {
 
         workedOn.add(filePath);
 
-        VirtualFile virtualDirectoryFile = twigPath.getDirectory(this.project);
+        VirtualFile virtualDirectoryFile = getDirectory();
         if(virtualDirectoryFile == null) {
             return true;
         }
@@ -55,6 +72,18 @@ public class TwigPathContentIterator {
             return true;
         }
 
+        this.results.put(getTemplateName(this.twigPath, templatePath), virtualFile);
+
+        return true;
+    }
+
+    /**
+     * Logical name of a template path relative to the TwigPath root, eg "Car/index.html.twig":
+     *
+     * FooBundle:Car:index.html.twig, :Car:index.html.twig, @Foo/Car/index.html.twig, Car/index.html.twig
+     */
+    @NotNull
+    public static String getTemplateName(@NotNull TwigPath twigPath, @NotNull String templatePath) {
         String templateDirectory; // xxx:XXX:xxx
         String templateFile; // xxx:xxx:XXX
 
@@ -67,10 +96,10 @@ public class TwigPathContentIterator {
             templateFile = templatePath;
         }
 
-        String namespace = this.twigPath.getNamespace().equals(TwigPathIndex.MAIN) ? "" : this.twigPath.getNamespace();
+        String namespace = twigPath.getNamespace().equals(TwigPathIndex.MAIN) ? "" : twigPath.getNamespace();
 
         String templateFinalName;
-        if(this.twigPath.getNamespaceType() == TwigPathIndex.NamespaceType.BUNDLE) {
+        if(twigPath.getNamespaceType() == TwigPathIndex.NamespaceType.BUNDLE) {
             templateFinalName = namespace + ":" + templateDirectory + ":" + templateFile;
         } else {
             templateFinalName = namespace + "/" + templateDirectory + "/" + templateFile;
@@ -84,9 +113,17 @@ public class TwigPathContentIterator {
             }
         }
 
-        this.results.put(templateFinalName, virtualFile);
+        return templateFinalName;
+    }
+
+    @Nullable
+    private VirtualFile getDirectory() {
+        if(!directoryResolved) {
+            virtualDirectoryFile = twigPath.getDirectory(this.project);
+            directoryResolved = true;
+        }
 
-        return true;
+        return virtualDirectoryFile;
     }
 
     private boolean isProcessable(VirtualFile virtualFile) {
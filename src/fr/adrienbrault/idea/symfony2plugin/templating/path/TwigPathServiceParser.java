@@ -1,12 +1,11 @@
 package fr.adrienbrault.idea.symfony2plugin.templating.path;
 
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import java.io.InputStream;
-
-public class TwigPathServiceParser extends AbstractServiceParser {
+public class TwigPathServiceParser extends AbstractStreamServiceParser {
 
     protected TwigPathIndex twigPathIndex = new TwigPathIndex();
 
@@ -15,9 +14,13 @@ public class TwigPathServiceParser extends AbstractServiceParser {
         return "/container/services/service[@id='twig.loader']//call[@method='addPath']";
     }
 
-    public void parser(InputStream file) {
-        NodeList nodeList = this.parserer(file);
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element) || !"twig.loader".equals(element.getAttribute("id"))) {
+            return;
+        }
 
+        NodeList nodeList = evaluate(element, ".//call[@method='addPath']");
         if(nodeList == null) {
             return;
         }
@@ -34,7 +37,6 @@ public class TwigPathServiceParser extends AbstractServiceParser {
             }
 
         }
-
     }
 
     public TwigPathIndex getTwigPathIndex() {
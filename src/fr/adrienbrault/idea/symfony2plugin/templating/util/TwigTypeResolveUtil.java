@@ -2,12 +2,17 @@ package fr.adrienbrault.idea.symfony2plugin.templating.util;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiWhiteSpace;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.Field;
@@ -20,6 +25,7 @@ import com.jetbrains.twig.TwigTokenTypes;
 import com.jetbrains.twig.elements.TwigCompositeElement;
 import com.jetbrains.twig.elements.TwigElementTypes;
 import fr.adrienbrault.idea.symfony2plugin.TwigHelper;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
 import fr.adrienbrault.idea.symfony2plugin.templating.variable.TwigFileVariableCollector;
 import fr.adrienbrault.idea.symfony2plugin.templating.variable.TwigFileVariableCollectorParameter;
 import fr.adrienbrault.idea.symfony2plugin.templating.variable.TwigTypeContainer;
@@ -59,6 +65,8 @@ public class TwigTypeResolveUtil {
         new IncludeVariableCollector()
     };
 
+    private static final Key<CachedValue<FileScopeVariables>> FILE_SCOPE_VARIABLES = new Key<>("SYMFONY_TWIG_FILE_SCOPE_VARIABLES");
+
     private static TwigTypeResolver[] twigTypeResolvers = new TwigTypeResolver[] {
         new FormVarsResolver(),
         new FormFieldResolver(),
@@ -223,24 +231,30 @@ public class TwigTypeResolveUtil {
     @NotNull
     public static Map<String, PsiVariable> collectScopeVariables(@NotNull PsiElement psiElement, @NotNull Set<VirtualFile> visitedFiles) {
 
-        Map<String, Set<String>> globalVars = new HashMap<>();
-        Map<String, PsiVariable> controllerVars = new HashMap<>();
+        PsiFile psiFile = psiElement.getContainingFile();
 
-        VirtualFile virtualFile = psiElement.getContainingFile().getVirtualFile();
+        VirtualFile virtualFile = psiFile.getVirtualFile();
         if(visitedFiles.contains(virtualFile)) {
-            return controllerVars;
+            return new HashMap<>();
         }
 
+        // nested calls of include collector depend on the files visited so far, so only the first level is cached
+        boolean firstLevel = visitedFiles.size() == 0;
         visitedFiles.add(virtualFile);
 
-        TwigFileVariableCollectorParameter collectorParameter = new TwigFileVariableCollectorParameter(psiElement, visitedFiles);
-        for(TwigFileVariableCollector collector: twigFileVariableCollectors) {
-            collector.collect(collectorParameter, globalVars);
+        FileScopeVariables fileScopeVariables = firstLevel ?
+            getFileScopeVariables(psiFile) :
+            collectFileScopeVariables(psiFile, visitedFiles);
 
-            if(collector instanceof TwigFileVariableCollector.TwigFileVariableCollectorExt) {
-                ((TwigFileVariableCollector.TwigFileVariableCollectorExt) collector).collectVars(collectorParameter, controllerVars);
-            }
+        // copy; types of "for" scope are merged into existing variables
+        Map<String, Set<String>> globalVars = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : fileScopeVariables.globalVars.entrySet()) {
+            globalVars.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
 
+        Map<String, PsiVariable> controllerVars = new HashMap<>();
+        for (Map.Entry<String, PsiVariable> entry : fileScopeVariables.controllerVars.entrySet()) {
+            controllerVars.put(entry.getKey(), new PsiVariable(new HashSet<>(entry.getValue().getTypes()), entry.getValue().getElement()));
         }
 
         // globals first
@@ -259,6 +273,47 @@ public class TwigTypeResolveUtil {
     }
 
 
+    /**
+     * Variables of all collectors only depend on the file, not on the element inside it.
+     * So they are build once per file until the file or one of the sources of our collectors changes
+     */
+    @NotNull
+    private static FileScopeVariables getFileScopeVariables(@NotNull PsiFile psiFile) {
+        return CachedValuesManager.getManager(psiFile.getProject()).getCachedValue(psiFile, FILE_SCOPE_VARIABLES, () -> {
+            Set<VirtualFile> visitedFiles = new HashSet<>();
+            visitedFiles.add(psiFile.getVirtualFile());
+
+            Collection<Object> dependencies = new ArrayList<>();
+            dependencies.add(psiFile);
+            dependencies.addAll(Arrays.asList(IndexTracker.getTrackers(psiFile.getProject(),
+                IndexTracker.TWIG_INCLUDES,
+                IndexTracker.TEMPLATES,
+                IndexTracker.ROUTES,
+                IndexTracker.SERVICES,
+                IndexTracker.TWIG_EXTENSIONS
+            )));
+
+            return CachedValueProvider.Result.create(collectFileScopeVariables(psiFile, visitedFiles), dependencies.toArray());
+        }, false);
+    }
+
+    @NotNull
+    private static FileScopeVariables collectFileScopeVariables(@NotNull PsiFile psiFile, @NotNull Set<VirtualFile> visitedFiles) {
+        FileScopeVariables fileScopeVariables = new FileScopeVariables();
+
+        TwigFileVariableCollectorParameter collectorParameter = new TwigFileVariableCollectorParameter(psiFile, visitedFiles);
+        for(TwigFileVariableCollector collector: twigFileVariableCollectors) {
+            collector.collect(collectorParameter, fileScopeVariables.globalVars);
+
+            if(collector instanceof TwigFileVariableCollector.TwigFileVariableCollectorExt) {
+                ((TwigFileVariableCollector.TwigFileVariableCollectorExt) collector).collectVars(collectorParameter, fileScopeVariables.controllerVars);
+            }
+
+        }
+
+        return fileScopeVariables;
+    }
+
     private static Collection<String> collectForArrayScopeVariablesFoo(Project project, String[] typeName, PsiVariable psiVariable) {
 
         Collection<String> previousElements = psiVariable.getTypes();
@@ -545,5 +600,15 @@ public class TwigTypeResolveUtil {
         return TwigTypeResolveUtil.formatPsiTypeName(afterInVarPsiElement);
     }
 
-}
+    /**
+     * Result of all file variable collectors; never modify, callers get a copy
+     */
+    private static class FileScopeVariables {
 
+        @NotNull
+        private final Map<String, Set<String>> globalVars = new HashMap<>();
+
+        @NotNull
+        private final Map<String, PsiVariable> controllerVars = new HashMap<>();
+    }
+}
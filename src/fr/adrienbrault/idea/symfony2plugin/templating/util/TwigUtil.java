@@ -428,9 +428,17 @@ public class TwigUtil {
         return map.getNames(virtualFile);
     }
 
+    /**
+     * Names are computed on the namespace roots of the file, so the template map is not needed here
+     */
     @NotNull
     public static Set<String> getTemplateName(@NotNull TwigFile twigFile) {
-        return getTemplateName(twigFile.getVirtualFile(), TwigHelper.getTemplateMap(twigFile.getProject(), true, false));
+        VirtualFile virtualFile = twigFile.getVirtualFile();
+        if(virtualFile == null) {
+            return new HashSet<>();
+        }
+
+        return TwigHelper.getTemplateNames(twigFile.getProject(), virtualFile);
     }
 
     public static Map<String, PsiVariable> collectControllerTemplateVariables(@NotNull TwigFile twigFile) {
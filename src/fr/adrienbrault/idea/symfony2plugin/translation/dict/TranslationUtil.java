@@ -10,13 +10,14 @@ import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.Processor;
+import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.FileBasedIndexImpl;
 import com.jetbrains.php.PhpIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TranslationKeyStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.YamlTranslationStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.translation.TranslationIndex;
 import fr.adrienbrault.idea.symfony2plugin.translation.TranslatorLookupElement;
-import fr.adrienbrault.idea.symfony2plugin.translation.collector.YamlTranslationCollector;
 import fr.adrienbrault.idea.symfony2plugin.translation.collector.YamlTranslationVistor;
 import fr.adrienbrault.idea.symfony2plugin.translation.parser.DomainMappings;
 import fr.adrienbrault.idea.symfony2plugin.translation.parser.TranslationStringMap;
@@ -24,6 +25,7 @@ import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlKeyFinder;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.yaml.YAMLFileType;
 import org.jetbrains.yaml.psi.YAMLDocument;
 import org.jetbrains.yaml.psi.YAMLFile;
@@ -67,13 +69,39 @@ public class TranslationUtil {
 
 
         final List<PsiElement> psiFoundElements = new ArrayList<>();
-        final List<VirtualFile> virtualFilesFound = new ArrayList<>();
+        final Set<VirtualFile> virtualFilesFound = new HashSet<>();
+
+        // jump to indexed offset of the key
+        FileBasedIndex.getInstance().processValues(TranslationKeyStubIndex.KEY, TranslationKeyStubIndex.createKey(domain, translationKey), null, (virtualFile, offset) -> {
+            // dont walk same file twice
+            if(!virtualFilesFound.add(virtualFile)) {
+                return true;
+            }
+
+            PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
+            if(psiFile == null) {
+                return true;
+            }
+
+            if(offset == TranslationKeyStubIndex.NO_OFFSET) {
+                // xlf are plain text because not supported by jetbrains
+                // for now we can only set file target
+                psiFoundElements.add(psiFile);
+            } else if(psiFile instanceof YAMLFile) {
+                PsiElement psiElement = getTranslationTargetAtOffset((YAMLFile) psiFile, translationKey, offset);
+                if(psiElement != null) {
+                    psiFoundElements.add(psiElement);
+                }
+            }
+
+            return true;
+        }, GlobalSearchScope.allScope(project));
 
         // @TODO: completely remove this? support translation paths from service compiler
         // search for available domain files
         for(VirtualFile translationVirtualFile : getDomainFilePsiElements(project, domain)) {
 
-            if(translationVirtualFile.getFileType() != YAMLFileType.YML) {
+            if(translationVirtualFile.getFileType() != YAMLFileType.YML || virtualFilesFound.contains(translationVirtualFile)) {
                 continue;
             }
 
@@ -86,7 +114,6 @@ public class TranslationUtil {
                         // multiline are line values are not resolve properly on psiElements use key as fallback target
                         PsiElement valuePsiElement = goToPsi.getValue();
                         psiFoundElements.add(valuePsiElement != null ? valuePsiElement : goToPsi);
-                        virtualFilesFound.add(translationVirtualFile);
                     }
                 }
 
@@ -94,73 +121,58 @@ public class TranslationUtil {
 
         }
 
-        // collect on index
-        final YamlTranslationCollector translationCollector = (keyName, yamlKeyValue) -> {
-            if (keyName.equals(translationKey)) {
+        return psiFoundElements.toArray(new PsiElement[psiFoundElements.size()]);
+    }
 
-                // multiline "line values" are not resolve properly on psiElements use key as fallback target
-                PsiElement valuePsiElement = yamlKeyValue.getValue();
-                psiFoundElements.add(valuePsiElement != null ? valuePsiElement : yamlKeyValue);
+    /**
+     * Key value at indexed offset; index and psi can be out of sync for a moment, so visit the file as fallback
+     */
+    @Nullable
+    private static PsiElement getTranslationTargetAtOffset(@NotNull YAMLFile yamlFile, @NotNull String translationKey, int offset) {
+        YAMLKeyValue yamlKeyValue = PsiTreeUtil.getParentOfType(yamlFile.findElementAt(offset), YAMLKeyValue.class, false);
 
-                return false;
-            }
+        if(yamlKeyValue == null || yamlKeyValue.getTextRange().getStartOffset() != offset) {
+            final YAMLKeyValue[] found = {null};
 
-            return true;
-        };
+            YamlTranslationVistor.collectFileTranslations(yamlFile, (keyName, keyValue) -> {
+                if (keyName.equals(translationKey)) {
+                    found[0] = keyValue;
+                    return false;
+                }
 
-        FileBasedIndexImpl.getInstance().getFilesWithKey(YamlTranslationStubIndex.KEY, new HashSet<>(Arrays.asList(domain)), virtualFile -> {
-            // prevent duplicate targets and dont walk same file twice
-            if(virtualFilesFound.contains(virtualFile)) {
                 return true;
-            }
-
-            PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
-            if(psiFile instanceof YAMLFile) {
-                YamlTranslationVistor.collectFileTranslations((YAMLFile) psiFile, translationCollector);
-            } else if("xlf".equalsIgnoreCase(virtualFile.getExtension()) && psiFile != null) {
-                // xlf are plain text because not supported by jetbrains
-                // for now we can only set file target
-                for(Set<String> string: FileBasedIndexImpl.getInstance().getValues(YamlTranslationStubIndex.KEY, domain, GlobalSearchScope.filesScope(project, Arrays.asList(virtualFile)))) {
-                    if(string.contains(translationKey)) {
-                        psiFoundElements.add(psiFile);
-                    }
-                }
-            }
+            });
 
-            return true;
-        }, GlobalSearchScope.allScope(project));
+            yamlKeyValue = found[0];
+        }
 
+        if(yamlKeyValue == null) {
+            return null;
+        }
 
-        return psiFoundElements.toArray(new PsiElement[psiFoundElements.size()]);
+        // multiline "line values" are not resolve properly on psiElements use key as fallback target
+        PsiElement valuePsiElement = yamlKeyValue.getValue();
+        return valuePsiElement != null ? valuePsiElement : yamlKeyValue;
     }
 
     public static boolean hasDomain(Project project, String domainName) {
         return TranslationIndex.getInstance(project).getTranslationMap().getDomainList().contains(domainName) ||
-            FileBasedIndexImpl.getInstance().getValues(
-                YamlTranslationStubIndex.KEY,
-                domainName,
-                GlobalSearchScope.allScope(project)
-            ).size() > 0;
+            SymfonyProcessors.hasKeyInScope(FileBasedIndex.getInstance(), YamlTranslationStubIndex.KEY, domainName, GlobalSearchScope.allScope(project));
     }
 
     public static boolean hasTranslationKey(@NotNull Project project, String keyName, String domainName) {
 
-        if(!hasDomain(project, domainName)) {
-            return false;
-        }
-
         Set<String> domainMap = TranslationIndex.getInstance(project).getTranslationMap().getDomainMap(domainName);
         if(domainMap != null && domainMap.contains(keyName)) {
             return true;
         }
 
-        for(Set<String> keys: FileBasedIndexImpl.getInstance().getValues(YamlTranslationStubIndex.KEY, domainName, GlobalSearchScope.allScope(project))){
-            if(keys.contains(keyName)) {
-                return true;
-            }
-        }
-
-        return false;
+        return SymfonyProcessors.hasKeyInScope(
+            FileBasedIndex.getInstance(),
+            TranslationKeyStubIndex.KEY,
+            TranslationKeyStubIndex.createKey(domainName, keyName),
+            GlobalSearchScope.allScope(project)
+        );
     }
 
 
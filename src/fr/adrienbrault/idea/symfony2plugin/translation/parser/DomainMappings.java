@@ -1,17 +1,16 @@
 package fr.adrienbrault.idea.symfony2plugin.translation.parser;
 
 import fr.adrienbrault.idea.symfony2plugin.translation.dict.DomainFileMap;
-import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractStreamServiceParser;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import java.io.File;
-import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
-public class DomainMappings extends AbstractServiceParser {
+public class DomainMappings extends AbstractStreamServiceParser {
 
     protected List<DomainFileMap> domainFileMaps = new CopyOnWriteArrayList<>();
 
@@ -20,10 +19,13 @@ public class DomainMappings extends AbstractServiceParser {
         return "/container/services/service[@class=\"Symfony\\Bundle\\FrameworkBundle\\Translation\\Translator\"]//call[@method=\"addResource\"]";
     }
 
-    public void parser(InputStream file) {
-
-        NodeList nodeList = this.parserer(file);
+    @Override
+    public void visit(@NotNull Element element) {
+        if(!isService(element) || !"Symfony\\Bundle\\FrameworkBundle\\Translation\\Translator".equals(element.getAttribute("class"))) {
+            return;
+        }
 
+        NodeList nodeList = evaluate(element, ".//call[@method=\"addResource\"]");
         if(nodeList == null) {
             return;
         }
@@ -36,7 +38,6 @@ public class DomainMappings extends AbstractServiceParser {
                 this.domainFileMaps.add(new DomainFileMap(arguments.item(0).getTextContent(), arguments.item(1).getTextContent(), arguments.item(2).getTextContent(), arguments.item(3).getTextContent()));
             }
         }
-
     }
 
     public List<DomainFileMap> getDomainFileMaps() {
@@ -1,9 +1,9 @@
 package fr.adrienbrault.idea.symfony2plugin.translation.parser;
 
+import gnu.trove.THashSet;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -35,10 +35,13 @@ public class TranslationStringMap {
         return domainMap.get(domainKey);
     }
 
+    /**
+     * Keys are hold once per domain; every catalogue locale provides nearly the same keys, so later equal keys are dropped
+     */
     public void addString(String domain, String stringId) {
 
         if(!domainMap.containsKey(domain)) {
-            domainMap.put(domain, new HashSet<>());
+            domainMap.put(domain, new THashSet<>());
         }
 
         domainMap.get(domain).add(stringId);
@@ -51,7 +54,7 @@ public class TranslationStringMap {
     public void addDomain(String domain) {
 
         if(!domainMap.containsKey(domain)) {
-            domainMap.put(domain, new HashSet<>());
+            domainMap.put(domain, new THashSet<>());
         }
 
     }
@@ -1,15 +1,24 @@
 package fr.adrienbrault.idea.symfony2plugin.translation.parser;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
 
 /**
+ * Parser for compiled translation catalogues "catalogue.de.php"
+ *
+ * new MessageCatalogue('de', array (
+ *   'validators' => array (
+ *     'This value should be false.' => 'Dieser Wert sollte false sein.',
+ *   ),
+ * ));
+ *
+ * Single pass over a buffered stream without holding the file content; only domains and keys are
+ * collected, translation values are skipped
+ *
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class TranslationStringParser {
@@ -18,64 +27,280 @@ public class TranslationStringParser {
         return this.parse(new File(file));
     }
 
+    /**
+     * All "catalogue*.php" files inside the translation cache folder
+     */
+    @NotNull
     public TranslationStringMap parsePathMatcher(String path) {
 
+        TranslationStringMap translationStringMap = new TranslationStringMap();
+
         File file = new File(path);
         File[] files = file.listFiles();
 
         if(null == files) {
-            return new TranslationStringMap();
+            return translationStringMap;
         }
 
         for (final File fileEntry : files) {
             if (!fileEntry.isDirectory()) {
                 String fileName = fileEntry.getName();
-                if( null != fileName && fileName.endsWith("php")) {
-                    return this.parse(fileEntry);
+                if(fileName.startsWith("catalogue") && fileName.endsWith("php")) {
+                    try {
+                        this.parse(fileEntry, translationStringMap);
+                    } catch (IOException ignored) {
+                        continue;
+                    }
+
+                    translationStringMap.addFile(fileName, fileEntry.lastModified());
                 }
             }
         }
 
-        return new TranslationStringMap();
+        return translationStringMap;
     }
 
     @Nullable
     public TranslationStringMap parse(File file) {
+        TranslationStringMap translationStringMap = new TranslationStringMap();
 
-        String string = "";
         try {
-            string = this.fileToString(file.getPath());
+            this.parse(file, translationStringMap);
         } catch (IOException e) {
             return null;
         }
 
-        TranslationStringMap string_map = new TranslationStringMap();
+        return translationStringMap;
+    }
+
+    public void parse(@NotNull File file, @NotNull TranslationStringMap translationStringMap) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            this.parse(reader, translationStringMap);
+        }
+    }
+
+    public void parse(@NotNull Reader reader, @NotNull TranslationStringMap translationStringMap) throws IOException {
+        new CatalogueTokenizer(reader, translationStringMap).parse();
+    }
+
+    /**
+     * Tokenizer for the var_export structure inside "new MessageCatalogue(...)":
+     * array level 1 keys are domains, array level 2 keys are translation keys
+     */
+    private static class CatalogueTokenizer {
+
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        @NotNull
+        private final Reader reader;
+
+        @NotNull
+        private final TranslationStringMap translationStringMap;
+
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int bufferPosition = 0;
+        private int bufferLength = 0;
+        private int pushBack = -1;
+
+        private final StringBuilder string = new StringBuilder();
+        private final StringBuilder identifier = new StringBuilder();
+
+        /**
+         * Bit per open parenthesis: set on array
+         */
+        private final BitSet arrays = new BitSet();
+        private int parenthesisLevel = 0;
+        private int catalogueLevel = -1;
+        private int arrayLevel = 0;
+
+        @Nullable
+        private String lastIdentifier;
+
+        @Nullable
+        private String pendingString;
 
-        Matcher matcher = Pattern.compile("'([\\w]+)'\\s=>.*?array\\s\\((.*?)\\s\\),", Pattern.MULTILINE).matcher(string);
-        while(matcher.find()){
-            String domain = matcher.group(1);
-            String array_strings = matcher.group(2);
+        @Nullable
+        private String pendingDomain;
 
-            Matcher match_strings = Pattern.compile("\\s'(.*?)'\\s=>\\s'.*?',\\s", Pattern.MULTILINE).matcher(array_strings);
-            while(match_strings.find()){
-                string_map.addString(domain, match_strings.group(1));
+        @Nullable
+        private String domain;
+
+        private boolean skipValue = false;
+
+        CatalogueTokenizer(@NotNull Reader reader, @NotNull TranslationStringMap translationStringMap) {
+            this.reader = reader;
+            this.translationStringMap = translationStringMap;
+        }
+
+        void parse() throws IOException {
+            int c;
+            while ((c = read()) != -1) {
+                if(Character.isJavaIdentifierPart(c)) {
+                    identifier.append((char) c);
+                    continue;
+                }
+
+                if(identifier.length() > 0) {
+                    lastIdentifier = identifier.toString();
+                    identifier.setLength(0);
+                }
+
+                switch (c) {
+                    case '\'':
+                    case '"':
+                        if(skipValue || catalogueLevel < 0) {
+                            skipString((char) c);
+                            skipValue = false;
+                        } else {
+                            pendingString = readString((char) c);
+                        }
+                        lastIdentifier = null;
+                        break;
+                    case '(':
+                        open("array".equalsIgnoreCase(lastIdentifier));
+                        break;
+                    case '[':
+                        open(true);
+                        break;
+                    case ')':
+                    case ']':
+                        close();
+                        break;
+                    case '=':
+                        int next = read();
+                        if(next == '>') {
+                            arrow();
+                        } else {
+                            pushBack = next;
+                        }
+                        lastIdentifier = null;
+                        break;
+                    case ',':
+                        pendingString = null;
+                        pendingDomain = null;
+                        skipValue = false;
+                        lastIdentifier = null;
+                        break;
+                    default:
+                        if(!Character.isWhitespace(c)) {
+                            lastIdentifier = null;
+                        }
+                }
+            }
+        }
+
+        private void arrow() {
+            if(pendingString == null) {
+                return;
             }
 
+            if(arrayLevel == 1) {
+                pendingDomain = pendingString;
+            } else if(arrayLevel == 2 && domain != null) {
+                translationStringMap.addString(domain, pendingString);
+                skipValue = true;
+            }
+
+            pendingString = null;
         }
 
-        return string_map;
-    }
+        private void open(boolean isArray) {
+            // "new MessageCatalogue(" starts our scope
+            if(catalogueLevel < 0 && lastIdentifier != null && lastIdentifier.endsWith("MessageCatalogue")) {
+                catalogueLevel = parenthesisLevel;
+            }
 
-    private String fileToString(String filename) throws IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(filename));
-        StringBuilder builder = new StringBuilder();
-        String line;
+            arrays.set(parenthesisLevel, isArray);
+            parenthesisLevel++;
 
-        while((line = reader.readLine()) != null){
-            builder.append(line);
+            if(isArray && catalogueLevel >= 0) {
+                arrayLevel++;
+
+                if(arrayLevel == 2 && pendingDomain != null) {
+                    domain = pendingDomain;
+                    translationStringMap.addDomain(domain);
+                }
+            }
+
+            pendingString = null;
+            pendingDomain = null;
+            skipValue = false;
+            lastIdentifier = null;
         }
 
-        return builder.toString();
-    }
+        private void close() {
+            if(parenthesisLevel == 0) {
+                return;
+            }
+
+            parenthesisLevel--;
 
+            if(arrays.get(parenthesisLevel) && catalogueLevel >= 0) {
+                if(arrayLevel == 2) {
+                    domain = null;
+                }
+                arrayLevel--;
+            }
+
+            if(parenthesisLevel == catalogueLevel) {
+                catalogueLevel = -1;
+                arrayLevel = 0;
+                domain = null;
+            }
+
+            pendingString = null;
+            lastIdentifier = null;
+        }
+
+        /**
+         * String content as it is in the file, escape sequences are not resolved
+         */
+        @NotNull
+        private String readString(char quote) throws IOException {
+            string.setLength(0);
+
+            int c;
+            while ((c = read()) != -1 && c != quote) {
+                string.append((char) c);
+
+                if(c == '\\') {
+                    int escaped = read();
+                    if(escaped == -1) {
+                        break;
+                    }
+                    string.append((char) escaped);
+                }
+            }
+
+            return string.toString();
+        }
+
+        private void skipString(char quote) throws IOException {
+            int c;
+            while ((c = read()) != -1 && c != quote) {
+                if(c == '\\' && read() == -1) {
+                    break;
+                }
+            }
+        }
+
+        private int read() throws IOException {
+            if(pushBack != -1) {
+                int c = pushBack;
+                pushBack = -1;
+                return c;
+            }
+
+            if(bufferPosition >= bufferLength) {
+                bufferLength = reader.read(buffer, 0, BUFFER_SIZE);
+                bufferPosition = 0;
+
+                if(bufferLength <= 0) {
+                    return -1;
+                }
+            }
+
+            return buffer[bufferPosition++];
+        }
+    }
 }
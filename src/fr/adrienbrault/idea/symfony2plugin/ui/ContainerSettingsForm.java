@@ -33,6 +33,7 @@ public class ContainerSettingsForm implements Configurable {
     private JPanel panel1;
     private JPanel listviewPanel;
     private JButton buttonReset;
+    private JCheckBox containerBackgroundRefresh;
     private TableView<ContainerFile> tableView;
     private Project project;
     private boolean changed = false;
@@ -50,6 +51,7 @@ public class ContainerSettingsForm implements Configurable {
         );
 
         this.fillContainerList();
+        this.containerBackgroundRefresh.setSelected(getSettings().containerBackgroundRefresh);
 
         this.modelList.addTableModelListener(e ->
             ContainerSettingsForm.this.changed = true
@@ -155,7 +157,7 @@ public class ContainerSettingsForm implements Configurable {
 
     @Override
     public boolean isModified() {
-        return this.changed;
+        return this.changed || this.containerBackgroundRefresh.isSelected() != getSettings().containerBackgroundRefresh;
     }
 
     @Override
@@ -167,6 +169,7 @@ public class ContainerSettingsForm implements Configurable {
         }
 
         getSettings().containerFiles = containerFiles;
+        getSettings().containerBackgroundRefresh = this.containerBackgroundRefresh.isSelected();
         this.changed = false;
     }
 
@@ -178,6 +181,7 @@ public class ContainerSettingsForm implements Configurable {
     public void reset() {
         this.resetContainerList();
         this.fillContainerList();
+        this.containerBackgroundRefresh.setSelected(getSettings().containerBackgroundRefresh);
         this.changed = false;
     }
 
@@ -10,6 +10,7 @@ import com.intellij.util.ui.ElementProducer;
 import com.intellij.util.ui.ListTableModel;
 import fr.adrienbrault.idea.symfony2plugin.Settings;
 import fr.adrienbrault.idea.symfony2plugin.TwigHelper;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
 import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigNamespaceSetting;
 import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPath;
 import org.jetbrains.annotations.Nls;
@@ -162,6 +163,9 @@ public class TwigSettingsForm implements Configurable {
 
         getSettings().twigNamespaces = twigPaths;
         this.changed = false;
+
+        // namespace settings are not part of any project file
+        IndexTracker.TEMPLATES.incModificationCount(project);
     }
 
     private Settings getSettings() {
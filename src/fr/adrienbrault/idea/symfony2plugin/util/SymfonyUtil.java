@@ -2,6 +2,8 @@ package fr.adrienbrault.idea.symfony2plugin.util;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.UserDataHolderEx;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
@@ -12,6 +14,7 @@ import com.jetbrains.php.lang.psi.elements.Field;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -25,7 +28,34 @@ public class SymfonyUtil {
 
     private static final Key<CachedValue<Set<String>>> CACHE = new Key<>("SYMFONY_VERSION_CACHE");
 
+    private static final Key<VersionModificationTracker> VERSION_TRACKER = new Key<>("SYMFONY_VERSION_TRACKER");
+
     private static boolean compare(@NotNull Project project, @NotNull String version, @NotNull Comparator comparator) {
+        for (String s : getCachedVersions(project)) {
+            if(comparator.accepts(s)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Only increments if the detected Symfony versions are changing, not on every psi change.
+     * Caches with values depending on the version can use it instead of a global psi dependency
+     */
+    @NotNull
+    public static ModificationTracker getVersionTracker(@NotNull Project project) {
+        VersionModificationTracker tracker = project.getUserData(VERSION_TRACKER);
+        if(tracker == null) {
+            tracker = ((UserDataHolderEx) project).putUserDataIfAbsent(VERSION_TRACKER, new VersionModificationTracker(project));
+        }
+
+        return tracker;
+    }
+
+    @NotNull
+    private static Set<String> getCachedVersions(@NotNull Project project) {
 
         CachedValue<Set<String>> cache = project.getUserData(CACHE);
         if (cache == null) {
@@ -36,13 +66,7 @@ public class SymfonyUtil {
             project.putUserData(CACHE, cache);
         }
 
-        for (String s : cache.getValue()) {
-            if(comparator.accepts(s)) {
-                return true;
-            }
-        }
-
-        return false;
+        return cache.getValue();
     }
 
     @NotNull
@@ -92,4 +116,34 @@ public class SymfonyUtil {
     private interface Comparator {
         boolean accepts(@NotNull String contents);
     }
+
+    private static class VersionModificationTracker implements ModificationTracker {
+
+        @NotNull
+        private final Project project;
+
+        @Nullable
+        private Set<String> versions;
+
+        private long modificationCount = 0;
+
+        private VersionModificationTracker(@NotNull Project project) {
+            this.project = project;
+        }
+
+        @Override
+        public long getModificationCount() {
+            // psi access outside of the monitor
+            Set<String> current = getCachedVersions(project);
+
+            synchronized (this) {
+                if(!current.equals(versions)) {
+                    versions = current;
+                    modificationCount++;
+                }
+
+                return modificationCount;
+            }
+        }
+    }
 }
@@ -0,0 +1,184 @@
+package fr.adrienbrault.idea.symfony2plugin.util.controller;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.Method;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpIndexUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyBundleUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Bundle controller actions of the project: "FooBundle:Bar:index" to method "\Foo\Controller\BarController.indexAction"
+ * and backwards, so resolving a shortcut name is a map lookup instead of a scan of all bundle controller namespaces
+ *
+ * Only names are hold, so no psi element survives a reparse. Cache is rebuild on php class structure changes
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ControllerActionRegistry {
+
+    private static final Key<CachedValue<ControllerActionRegistry>> CONTROLLER_ACTION_REGISTRY = new Key<>("SYMFONY_CONTROLLER_ACTION_REGISTRY");
+
+    /**
+     * Shortcut name to method fqn; in bundle and class order
+     */
+    @NotNull
+    private final Map<String, String> actions = new LinkedHashMap<>();
+
+    /**
+     * Lowercase method fqn without leading backslash to shortcut name
+     */
+    @NotNull
+    private final Map<String, String> shortcutNames = new HashMap<>();
+
+    private ControllerActionRegistry() {
+    }
+
+    @NotNull
+    public static ControllerActionRegistry getInstance(@NotNull Project project) {
+        CachedValue<ControllerActionRegistry> cache = project.getUserData(CONTROLLER_ACTION_REGISTRY);
+        if(cache == null) {
+            cache = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(create(project), PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT)
+            , false);
+
+            project.putUserData(CONTROLLER_ACTION_REGISTRY, cache);
+        }
+
+        return cache.getValue();
+    }
+
+    /**
+     * Shortcut names to method fqn, eg "FooBundle:Bar:index" => "\Foo\Controller\BarController.indexAction"
+     */
+    @NotNull
+    public Map<String, String> getActions() {
+        return Collections.unmodifiableMap(actions);
+    }
+
+    /**
+     * "\Foo\Controller\BarController.indexAction"
+     */
+    @Nullable
+    public String getMethodFqn(@NotNull String shortcutName) {
+        return actions.get(shortcutName);
+    }
+
+    /**
+     * "FooBundle:Bar:index"
+     */
+    @Nullable
+    public String getShortcutName(@NotNull String methodFqn) {
+        return shortcutNames.get(normalizeMethodFqn(methodFqn));
+    }
+
+    /**
+     * Resolves the action method of a shortcut name; class is taken from index so lookup is cheap
+     */
+    @Nullable
+    public Method getMethod(@NotNull Project project, @NotNull String shortcutName) {
+        String methodFqn = actions.get(shortcutName);
+        if(methodFqn == null) {
+            return null;
+        }
+
+        return findMethod(project, methodFqn);
+    }
+
+    @Nullable
+    static Method findMethod(@NotNull Project project, @NotNull String methodFqn) {
+        int dot = methodFqn.lastIndexOf(".");
+        if(dot == -1) {
+            return null;
+        }
+
+        String methodName = methodFqn.substring(dot + 1);
+
+        // class names are not unique; eg vendor duplicates
+        for (PhpClass phpClass : PhpIndex.getInstance(project).getClassesByFQN(methodFqn.substring(0, dot))) {
+            Method method = phpClass.findMethodByName(methodName);
+            if(method != null && method.getAccess().isPublic()) {
+                return method;
+            }
+        }
+
+        return null;
+    }
+
+    @NotNull
+    private static ControllerActionRegistry create(@NotNull Project project) {
+        ControllerActionRegistry registry = new ControllerActionRegistry();
+
+        for (SymfonyBundle symfonyBundle : new SymfonyBundleUtil(PhpIndex.getInstance(project)).getBundles()) {
+            registry.visitBundle(project, symfonyBundle);
+        }
+
+        return registry;
+    }
+
+    private void visitBundle(@NotNull Project project, @NotNull SymfonyBundle symfonyBundle) {
+
+        String namespaceName = symfonyBundle.getNamespaceName();
+        if(!namespaceName.startsWith("\\")) {
+            namespaceName = "\\" + namespaceName;
+        }
+
+        if(!namespaceName.endsWith("\\")) {
+            namespaceName += "\\";
+        }
+
+        namespaceName += "Controller";
+
+        for (PhpClass phpClass : PhpIndexUtil.getPhpClassInsideNamespace(project, namespaceName)) {
+
+            if(!phpClass.getName().endsWith("Controller")) {
+                continue;
+            }
+
+            String presentableFQN = phpClass.getPresentableFQN();
+            if(!presentableFQN.startsWith("\\")) {
+                presentableFQN = "\\" + presentableFQN;
+            }
+
+            presentableFQN = presentableFQN.substring(0, presentableFQN.length() - "Controller".length());
+            if(presentableFQN.length() == 0) {
+                continue;
+            }
+
+            String ns = presentableFQN.substring(namespaceName.length() + 1);
+
+            String classFqn = phpClass.getFQN();
+            if(!classFqn.startsWith("\\")) {
+                classFqn = "\\" + classFqn;
+            }
+
+            for(Method method : phpClass.getMethods()) {
+                String methodName = method.getName();
+                if(methodName.endsWith("Action") && method.getAccess().isPublic()) {
+                    String shortcutName = symfonyBundle.getName() + ":" + ns.replace("\\", "/") + ':' + methodName.substring(0, methodName.length() - 6);
+                    String methodFqn = classFqn + "." + methodName;
+
+                    // first wins, like the former linear search
+                    actions.putIfAbsent(shortcutName, methodFqn);
+                    shortcutNames.putIfAbsent(normalizeMethodFqn(methodFqn), shortcutName);
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static String normalizeMethodFqn(@NotNull String methodFqn) {
+        return StringUtils.stripStart(methodFqn, "\\").toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,17 +2,11 @@ package fr.adrienbrault.idea.symfony2plugin.util.controller;
 
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.openapi.project.Project;
-import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
-import fr.adrienbrault.idea.symfony2plugin.routing.Route;
 import fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper;
-import fr.adrienbrault.idea.symfony2plugin.routing.dic.ServiceRouteContainer;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
-import fr.adrienbrault.idea.symfony2plugin.util.PhpIndexUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.SymfonyBundleUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
-import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -21,22 +15,22 @@ import java.util.*;
 public class ControllerIndex {
 
     private Project project;
-    private PhpIndex phpIndex;
 
     private ContainerCollectionResolver.LazyServiceCollector lazyServiceCollector;
 
     public ControllerIndex(Project project) {
        this.project = project;
-       this.phpIndex = PhpIndex.getInstance(project);
     }
 
     public List<ControllerAction> getActions() {
 
         List<ControllerAction> actions = new ArrayList<>();
-        SymfonyBundleUtil symfonyBundleUtil = new SymfonyBundleUtil(phpIndex);
 
-        for (SymfonyBundle symfonyBundle : symfonyBundleUtil.getBundles()) {
-            actions.addAll(this.getActionMethods(symfonyBundle));
+        for (Map.Entry<String, String> entry : ControllerActionRegistry.getInstance(project).getActions().entrySet()) {
+            Method method = ControllerActionRegistry.findMethod(project, entry.getValue());
+            if(method != null) {
+                actions.add(new ControllerAction(entry.getKey(), method));
+            }
         }
 
         return actions;
@@ -68,67 +62,19 @@ public class ControllerIndex {
 
     @Nullable
     public ControllerAction getControllerAction(String shortcutName) {
-        for(ControllerAction controllerAction: this.getActions()) {
-            if(controllerAction.getShortcutName().equals(shortcutName)) {
-                return controllerAction;
-            }
-        }
-
-        return null;
-    }
-
-    private List<ControllerAction> getActionMethods(SymfonyBundle symfonyBundle) {
-
-        String namespaceName = symfonyBundle.getNamespaceName();
-        if(!namespaceName.startsWith("\\")) {
-            namespaceName = "\\" + namespaceName;
-        }
-
-        if(!namespaceName.endsWith("\\")) {
-            namespaceName += "\\";
-        }
-
-        namespaceName += "Controller";
-
-        List<ControllerAction> actions = new ArrayList<>();
-
-        for (PhpClass phpClass : PhpIndexUtil.getPhpClassInsideNamespace(this.project, namespaceName)) {
-
-            if(!phpClass.getName().endsWith("Controller")) {
-                continue;
-            }
-
-            String presentableFQN = phpClass.getPresentableFQN();
-            if(!presentableFQN.startsWith("\\")) {
-                presentableFQN = "\\" + presentableFQN;
-            }
-
-            presentableFQN = presentableFQN.substring(0, presentableFQN.length() - "Controller".length());
-            if(presentableFQN.length() == 0) {
-                continue;
-            }
-
-            String ns = presentableFQN.substring(namespaceName.length() + 1);
-
-            for(Method method : phpClass.getMethods()) {
-                String methodName = method.getName();
-                if(methodName.endsWith("Action") && method.getAccess().isPublic()) {
-                    String shortcutName = symfonyBundle.getName() + ":" + ns.replace("\\", "/") + ':' + methodName.substring(0, methodName.length() - 6);
-                    actions.add(new ControllerAction(shortcutName, method));
-                }
-
-            }
-
+        Method method = ControllerActionRegistry.getInstance(project).getMethod(project, shortcutName);
+        if(method == null) {
+            return null;
         }
 
-        return actions;
+        return new ControllerAction(shortcutName, method);
     }
 
     @NotNull
     public List<ControllerAction> getServiceActionMethods(@NotNull Project project) {
 
-        Map<String,Route> routes = RouteHelper.getAllRoutes(project);
-        if(routes.size() == 0) {
+        Set<String> serviceNames = RouteHelper.getRoutesSnapshot(project).getServiceNames();
+        if(serviceNames.size() == 0) {
             return Collections.emptyList();
         }
 
@@ -137,7 +83,7 @@ public class ControllerIndex {
         ContainerCollectionResolver.LazyServiceCollector collector = new ContainerCollectionResolver.LazyServiceCollector(project);
 
         List<ControllerAction> actions = new ArrayList<>();
-        for (String serviceName : ServiceRouteContainer.build(routes).getServiceNames()) {
+        for (String serviceName : serviceNames) {
 
             PhpClass phpClass = ServiceUtil.getResolvedClassDefinition(project, serviceName, collector);
             if(phpClass == null) {
@@ -17,7 +17,6 @@ import com.intellij.ui.components.JBList;
 import com.intellij.util.Consumer;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.indexing.FileBasedIndex;
-import com.intellij.util.indexing.FileBasedIndexImpl;
 import com.jetbrains.php.PhpIcons;
 import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.Parameter;
@@ -32,9 +31,9 @@ import fr.adrienbrault.idea.symfony2plugin.dic.XmlTagParser;
 import fr.adrienbrault.idea.symfony2plugin.form.util.FormUtil;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceIndexUtil;
-import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceTagMap;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceTypeMap;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerParameterStubIndex;
-import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesTagStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
@@ -207,50 +206,30 @@ public class ServiceUtil {
 
         Project project = phpClass.getProject();
 
-        SymfonyProcessors.CollectProjectUniqueKeys projectUniqueKeysStrong = new SymfonyProcessors.CollectProjectUniqueKeys(project, ServicesTagStubIndex.KEY);
-        FileBasedIndexImpl.getInstance().processAllKeys(ServicesTagStubIndex.KEY, projectUniqueKeysStrong, project);
-        ContainerCollectionResolver.ServiceCollector collector = null;
-
         Set<String> matchedTags = new HashSet<>();
-        Set<String> result = projectUniqueKeysStrong.getResult();
-        for (String serviceName : result) {
 
-            // get service where we found our tags
-            List<Set<String>> values = FileBasedIndexImpl.getInstance().getValues(ServicesTagStubIndex.KEY, serviceName, GlobalSearchScope.getScopeRestrictedByFileTypes(GlobalSearchScope.allScope(project), XmlFileType.INSTANCE, YAMLFileType.YML));
-            if(values.size() == 0) {
-                continue;
-            }
+        // every tagged service class only once; services sharing a class are already merged
+        for (Map.Entry<String, Set<String>> entry : ServiceTagMap.getClassTags(project).entrySet()) {
 
-            // create unique tag list
-            Set<String> tags = new HashSet<>();
-            for(Set<String> tagValue: values) {
-                tags.addAll(tagValue);
-            }
-
-            if(collector == null) {
-                collector = ContainerCollectionResolver.ServiceCollector.create(project);
+            // tags of this class are already collected by another class
+            if(matchedTags.containsAll(entry.getValue())) {
+                continue;
             }
 
-            PhpClass serviceClass = ServiceUtil.getServiceClass(project, serviceName, collector);
+            PhpClass serviceClass = PhpElementsUtil.getClassInterface(project, entry.getKey());
             if(serviceClass == null) {
                 continue;
             }
 
-            boolean matched = false;
-
             // get classes this service implements or extends
             for (PhpClass serviceClassImpl: getSuperClasses(serviceClass)) {
                 // find interface or extends class which also implements
                 // @TODO: currently first level only, check recursive
                 if(!PhpElementsUtil.isEqualClassName(phpClass, serviceClassImpl) && PhpElementsUtil.isInstanceOf(phpClass, serviceClassImpl)) {
-                    matched = true;
+                    matchedTags.addAll(entry.getValue());
                     break;
                 }
             }
-
-            if(matched) {
-                matchedTags.addAll(tags);
-            }
         }
 
         return matchedTags;
@@ -274,25 +253,7 @@ public class ServiceUtil {
     }
 
     public static Set<String> getTaggedServices(Project project, String tagName) {
-
-        // @TODO: cache
-        SymfonyProcessors.CollectProjectUniqueKeys projectUniqueKeysStrong = new SymfonyProcessors.CollectProjectUniqueKeys(project, ServicesTagStubIndex.KEY);
-        FileBasedIndexImpl.getInstance().processAllKeys(ServicesTagStubIndex.KEY, projectUniqueKeysStrong, project);
-
-        Set<String> service = new HashSet<>();
-
-        for(String serviceName: projectUniqueKeysStrong.getResult()) {
-
-            List<Set<String>> serviceDefinitions = FileBasedIndexImpl.getInstance().getValues(ServicesTagStubIndex.KEY, serviceName, GlobalSearchScope.getScopeRestrictedByFileTypes(GlobalSearchScope.allScope(project), XmlFileType.INSTANCE, YAMLFileType.YML));
-            for(Set<String> strings: serviceDefinitions) {
-                if(strings.contains(tagName)) {
-                    service.add(serviceName);
-                }
-            }
-
-        }
-
-        return service;
+        return new HashSet<>(ServiceTagMap.getInstance(project).getTaggedServices(tagName));
     }
 
     public static Collection<PhpClass> getTaggedClasses(@NotNull Project project, @NotNull String tagName) {
@@ -441,6 +402,13 @@ public class ServiceUtil {
 
     @NotNull
     public static Collection<ContainerService> getServiceSuggestionForPhpClass(@NotNull PhpClass phpClass, @NotNull Map<String, ContainerService> serviceMap) {
+        ServiceTypeMap serviceTypeMap = ServiceTypeMap.getInstance(phpClass.getProject());
+
+        // services of current container; no need to filter
+        if(serviceTypeMap.isIndexed(serviceMap)) {
+            return new ArrayList<>(serviceTypeMap.getServices(phpClass.getFQN()));
+        }
+
         return getServiceSuggestionForPhpClass(phpClass, serviceMap.values());
     }
 
@@ -449,9 +417,22 @@ public class ServiceUtil {
 
         String fqn = StringUtils.stripStart(phpClass.getFQN(), "\\");
 
+        ServiceTypeMap serviceTypeMap = ServiceTypeMap.getInstance(phpClass.getProject());
+        Set<ContainerService> matchedServices = Collections.newSetFromMap(new IdentityHashMap<>());
+        matchedServices.addAll(serviceTypeMap.getServices(fqn));
+
         Collection<ContainerService> instances = new ArrayList<>();
 
         for(ContainerService service: serviceMap) {
+            // known services are resolved by type map
+            if(serviceTypeMap.isIndexed(service)) {
+                if(matchedServices.contains(service)) {
+                    instances.add(service);
+                }
+
+                continue;
+            }
+
             if(service.getClassName() == null) {
                 continue;
             }
@@ -0,0 +1,63 @@
+package fr.adrienbrault.idea.symfony2plugin.util.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.*;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parser working on single service or parameter elements of a streamed container.
+ * Direct calls of "parser" stream the given file for this parser only
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+abstract public class AbstractStreamServiceParser extends AbstractServiceParser implements StreamServiceParserInterface {
+
+    @Override
+    public void parser(InputStream file) {
+        ServiceXmlStreamParser.parse(file, Collections.singletonList(this));
+    }
+
+    protected static boolean isService(@NotNull Element element) {
+        return "service".equals(element.getTagName());
+    }
+
+    protected static boolean isParameter(@NotNull Element element) {
+        return "parameter".equals(element.getTagName());
+    }
+
+    /**
+     * Direct children with given tag name
+     */
+    @NotNull
+    protected static List<Element> getChildElements(@NotNull Element element, @NotNull String tagName) {
+        List<Element> elements = new ArrayList<>();
+
+        for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if(node instanceof Element && tagName.equals(((Element) node).getTagName())) {
+                elements.add((Element) node);
+            }
+        }
+
+        return elements;
+    }
+
+    /**
+     * Xpath relative to the visited element, eg ".//call[@method='addPath']"
+     */
+    @Nullable
+    protected static NodeList evaluate(@NotNull Element element, @NotNull String xpath) {
+        try {
+            return (NodeList) XPathFactory.newInstance().newXPath().compile(xpath).evaluate(element, XPathConstants.NODESET);
+        } catch (XPathExpressionException e) {
+            return null;
+        }
+    }
+}
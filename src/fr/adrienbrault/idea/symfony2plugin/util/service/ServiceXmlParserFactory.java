@@ -1,23 +1,67 @@
 package fr.adrienbrault.idea.symfony2plugin.util.service;
 
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.StreamUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import fr.adrienbrault.idea.symfony2plugin.Settings;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.extension.CompiledServiceBuilderFactory;
 import fr.adrienbrault.idea.symfony2plugin.extension.CompiledServiceBuilderArguments;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Parsers of the compiled container files, all instances of a project share the same container state.
+ *
+ * On changes every parser requested so far is rebuild with a single streaming pass per file;
+ * parsers not supporting streams parse the file on their own
+ *
+ * With "containerBackgroundRefresh" a known container state is refreshed in a background task, readers get the
+ * previous parsers until the new ones are published. Only the very first parse is done on the calling thread
+ *
+ * Without it a changed container is reparsed by a single calling thread, concurrent readers get the previous parsers.
+ *
+ * Monitors only guard the published state: parsing and extensions may need a read action, which must never be
+ * requested while holding a lock the event dispatch thread can wait for inside a write action. Only a first parse,
+ * without any previous state to serve, is awaited and that wait stays cancelable
+ */
 public class ServiceXmlParserFactory {
 
-    protected static Map<Project, Map<Class, ServiceXmlParserFactory>> instance = new HashMap<>();
+    protected static Map<Project, ServiceXmlParserFactory> instance = new ConcurrentHashMap<>();
 
     protected Project project;
-    protected ServiceParserInterface serviceParserInstance;
 
-    protected HashMap<String, Long> serviceFiles = new HashMap<>();
+    @NotNull
+    private volatile Map<Class, ServiceParserInterface> parsers = new HashMap<>();
+
+    @NotNull
+    protected volatile Map<String, Long> serviceFiles = new HashMap<>();
+
+    private volatile boolean refreshing = false;
+
+    /**
+     * Held by the single thread which parses the container files on the calling thread
+     */
+    @NotNull
+    private final ReentrantLock parseLock = new ReentrantLock();
 
     private Collection<CompiledServiceBuilderFactory.Builder> extensions = new ArrayList<>();
     private static final ExtensionPointName<CompiledServiceBuilderFactory> EXTENSIONS = new ExtensionPointName<>(
@@ -28,17 +72,42 @@ public class ServiceXmlParserFactory {
         this.project = project;
     }
 
+    /**
+     * Container files are mostly generated by external tools, reparse as soon as the vfs knows about a change
+     */
+    private void attachFileListener() {
+        project.getMessageBus().connect(project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                Set<String> paths = serviceFiles.keySet();
+
+                for (VFileEvent event : events) {
+                    if(paths.contains(FileUtil.toSystemDependentName(event.getPath()))) {
+                        // we are inside a write action here; checking extensions can need a read action
+                        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                            if(!project.isDisposed()) {
+                                refreshIfModified(project);
+                            }
+                        });
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
     protected boolean isModified(List<File> serviceFiles) {
-        if(this.serviceFiles.size() != serviceFiles.size()) {
+        Map<String, Long> knownFiles = this.serviceFiles;
+        if(knownFiles.size() != serviceFiles.size()) {
             return true;
         }
 
         for(File serviceFile: serviceFiles) {
             if(serviceFile.exists()) {
-                if(!this.serviceFiles.containsKey(serviceFile.getAbsolutePath())) {
+                if(!knownFiles.containsKey(serviceFile.getAbsolutePath())) {
                     return true;
                 }
-                if(!this.serviceFiles.get(serviceFile.getAbsolutePath()).equals(serviceFile.lastModified())) {
+                if(!knownFiles.get(serviceFile.getAbsolutePath()).equals(serviceFile.lastModified())) {
                     return true;
                 }
             } else {
@@ -58,71 +127,329 @@ public class ServiceXmlParserFactory {
     }
 
     @Nullable
-    synchronized public <T extends ServiceParserInterface> T parser(Class<T> serviceParser) {
+    public <T extends ServiceParserInterface> T parser(Class<T> serviceParser) {
 
         Symfony2ProjectComponent symfony2ProjectComponent = this.project.getComponent(Symfony2ProjectComponent.class);
 
         List<File> settingsServiceFiles = symfony2ProjectComponent.getContainerFiles();
 
-        if (this.serviceParserInstance != null && !this.isModified(settingsServiceFiles)) {
-            return (T) this.serviceParserInstance;
+        Map<Class, ServiceParserInterface> knownParsers = this.parsers;
+        if (knownParsers.size() > 0) {
+            if(!this.refreshing && this.isModified(settingsServiceFiles) && !this.scheduleRefresh() && this.parseLock.tryLock()) {
+                // only one thread reparses, all others keep the previous state meanwhile
+                Map<Class, ServiceParserInterface> parsed;
+                try {
+                    parsed = this.reparseIfModified(serviceParser, settingsServiceFiles);
+                } finally {
+                    this.parseLock.unlock();
+                }
+
+                if(parsed != null) {
+                    this.notifyTrackers();
+                    return (T) parsed.get(serviceParser);
+                }
+            }
+
+            return getOrParse(serviceParser, settingsServiceFiles);
         }
 
+        // there is no previous state to serve, so wait for a running first parse
+        lock(this.parseLock);
+
+        Map<Class, ServiceParserInterface> parsed;
         try {
-            this.serviceParserInstance = serviceParser.newInstance();
-            Symfony2ProjectComponent.getLogger().info("new instance: " + serviceParser.getName());
-        } catch (InstantiationException | IllegalAccessException ignored) {
+            parsed = this.reparseIfModified(serviceParser, settingsServiceFiles);
+        } finally {
+            this.parseLock.unlock();
+        }
+
+        if(parsed == null) {
+            return getOrParse(serviceParser, settingsServiceFiles);
         }
 
-        if (this.serviceParserInstance != null) {
+        this.notifyTrackers();
 
-            // extensions
-            if(this.extensions.size() > 0) {
-                CompiledServiceBuilderArguments args = new CompiledServiceBuilderArguments(project);
-                for (CompiledServiceBuilderFactory.Builder builder : this.extensions) {
-                    builder.build(args);
-                }
+        return (T) parsed.get(serviceParser);
+    }
+
+    /**
+     * Caller must hold the parse lock; a state published by the previous lock holder is reused
+     *
+     * @return null if current state is still valid
+     */
+    @Nullable
+    private Map<Class, ServiceParserInterface> reparseIfModified(@NotNull Class serviceParser, @NotNull List<File> settingsServiceFiles) {
+        Map<Class, ServiceParserInterface> knownParsers = this.parsers;
+        if(knownParsers.size() > 0 && !this.isModified(settingsServiceFiles)) {
+            return null;
+        }
+
+        Set<Class> parserClasses = new HashSet<>(knownParsers.keySet());
+        parserClasses.add(serviceParser);
+
+        Map<String, Long> serviceFiles = getLastModified(settingsServiceFiles);
+        Map<Class, ServiceParserInterface> parsed = this.parse(parserClasses, settingsServiceFiles, null);
+
+        synchronized (this) {
+            this.publish(parsed, serviceFiles);
+        }
+
+        return parsed;
+    }
 
-                for (InputStream inputStream : args.getStreams()) {
-                    this.serviceParserInstance.parser(inputStream);
+    /**
+     * Parser of the current state; first request of a parser class parses it on its own, others stay valid
+     */
+    @Nullable
+    private <T extends ServiceParserInterface> T getOrParse(@NotNull Class<T> serviceParser, @NotNull List<File> settingsServiceFiles) {
+        ServiceParserInterface parser = this.parsers.get(serviceParser);
+        if(parser != null) {
+            return (T) parser;
+        }
+
+        Map<Class, ServiceParserInterface> parsed = this.parse(Collections.singletonList(serviceParser), settingsServiceFiles, null);
+
+        synchronized (this) {
+            Map<Class, ServiceParserInterface> parsers = new HashMap<>(this.parsers);
+            parsed.forEach(parsers::putIfAbsent);
+            this.parsers = parsers;
+
+            return (T) parsers.get(serviceParser);
+        }
+    }
+
+    /**
+     * Waiting callers stay cancelable, eg highlighting on a pending write action
+     */
+    private static void lock(@NotNull ReentrantLock lock) {
+        try {
+            while (!lock.tryLock(50, TimeUnit.MILLISECONDS)) {
+                ProgressManager.checkCanceled();
+            }
+        } catch (InterruptedException e) {
+            throw new ProcessCanceledException(e);
+        }
+    }
+
+    /**
+     * Reparse all known parsers in background, current ones are served until then
+     *
+     * @return false if reparse must be done on the calling thread
+     */
+    private boolean scheduleRefresh() {
+        if(!isBackgroundRefresh()) {
+            return false;
+        }
+
+        Set<Class> parserClasses;
+        synchronized (this) {
+            if(this.refreshing) {
+                return true;
+            }
+
+            this.refreshing = true;
+            parserClasses = new HashSet<>(this.parsers.keySet());
+        }
+
+        ApplicationManager.getApplication().invokeLater(() -> ProgressManager.getInstance().run(new Task.Backgroundable(project, "Symfony: Parsing container", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                List<File> settingsServiceFiles = project.getComponent(Symfony2ProjectComponent.class).getContainerFiles();
+
+                // files changed while parsing must trigger the next refresh
+                Map<String, Long> serviceFiles = getLastModified(settingsServiceFiles);
+                Map<Class, ServiceParserInterface> parsers = parse(parserClasses, settingsServiceFiles, indicator);
+
+                synchronized (ServiceXmlParserFactory.this) {
+                    // parsers requested while running are already on the new state or marked as modified
+                    Map<Class, ServiceParserInterface> published = new HashMap<>(ServiceXmlParserFactory.this.parsers);
+                    published.putAll(parsers);
+
+                    publish(published, serviceFiles);
                 }
+
+                notifyTrackers();
+                watchFiles(settingsServiceFiles);
             }
 
-            this.serviceFiles = new HashMap<>();
-            for(File settingsServiceFile: settingsServiceFiles) {
-                if(!settingsServiceFile.exists()) {
-                    continue;
+            @Override
+            public void onSuccess() {
+                if(!project.isDisposed()) {
+                    DaemonCodeAnalyzer.getInstance(project).restart();
                 }
+            }
+
+            @Override
+            public void onFinished() {
+                refreshing = false;
+            }
+        }), project.getDisposed());
+
+        return true;
+    }
 
+    private boolean isBackgroundRefresh() {
+        return Settings.getInstance(project).containerBackgroundRefresh;
+    }
+
+    private void publish(@NotNull Map<Class, ServiceParserInterface> parsers, @NotNull Map<String, Long> serviceFiles) {
+        this.parsers = parsers;
+        this.serviceFiles = new HashMap<>(serviceFiles);
+    }
+
+    /**
+     * Container model caches need to know about a new compiled container state; called outside of our monitors
+     */
+    private void notifyTrackers() {
+        Symfony2ProjectComponent.getLogger().info("update: " + parsers.size() + " parser");
+
+        IndexTracker.SERVICES.incModificationCount(project);
+        IndexTracker.PARAMETERS.incModificationCount(project);
+
+        // "twig.loader" paths are part of the template namespaces
+        IndexTracker.TEMPLATES.incModificationCount(project);
+    }
+
+    @NotNull
+    private static Map<String, Long> getLastModified(@NotNull List<File> settingsServiceFiles) {
+        Map<String, Long> serviceFiles = new HashMap<>();
+
+        for(File settingsServiceFile: settingsServiceFiles) {
+            if(settingsServiceFile.exists()) {
+                serviceFiles.put(settingsServiceFile.getAbsolutePath(), settingsServiceFile.lastModified());
+            }
+        }
+
+        return serviceFiles;
+    }
+
+    /**
+     * Vfs only provides events for files it knows about
+     */
+    private static void watchFiles(@NotNull List<File> settingsServiceFiles) {
+        for (File settingsServiceFile : settingsServiceFiles) {
+            LocalFileSystem.getInstance().refreshAndFindFileByIoFile(settingsServiceFile);
+        }
+    }
+
+    /**
+     * New parser instances fed by extensions and container files
+     */
+    @NotNull
+    private Map<Class, ServiceParserInterface> parse(@NotNull Collection<Class> parserClasses, @NotNull List<File> settingsServiceFiles, @Nullable ProgressIndicator indicator) {
+
+        Map<Class, ServiceParserInterface> parsers = new HashMap<>();
+        for (Class parserClass : parserClasses) {
+            try {
+                parsers.put(parserClass, (ServiceParserInterface) parserClass.newInstance());
+                Symfony2ProjectComponent.getLogger().info("new instance: " + parserClass.getName());
+            } catch (InstantiationException | IllegalAccessException ignored) {
+            }
+        }
+
+        Collection<StreamServiceParserInterface> streamParsers = new ArrayList<>();
+        Collection<ServiceParserInterface> documentParsers = new ArrayList<>();
+        for (ServiceParserInterface parser : parsers.values()) {
+            if(parser instanceof StreamServiceParserInterface) {
+                streamParsers.add((StreamServiceParserInterface) parser);
+            } else {
+                documentParsers.add(parser);
+            }
+        }
+
+        // extensions
+        if(this.extensions.size() > 0) {
+            CompiledServiceBuilderArguments args = new CompiledServiceBuilderArguments(project);
+            for (CompiledServiceBuilderFactory.Builder builder : this.extensions) {
+                // also called from the background refresh
+                ApplicationManager.getApplication().runReadAction(() -> builder.build(args));
+            }
+
+            for (InputStream inputStream : args.getStreams()) {
                 try {
-                    this.serviceParserInstance.parser(new FileInputStream(settingsServiceFile));
-                } catch (FileNotFoundException e) {
-                    continue;
+                    parse(inputStream, streamParsers, documentParsers);
+                } catch (IOException ignored) {
                 }
+            }
+        }
 
-                serviceFiles.put(settingsServiceFile.getAbsolutePath(), settingsServiceFile.lastModified());
+        for (int i = 0; i < settingsServiceFiles.size(); i++) {
+            File settingsServiceFile = settingsServiceFiles.get(i);
+            if(!settingsServiceFile.exists()) {
+                continue;
+            }
+
+            if(indicator != null) {
+                indicator.checkCanceled();
+                indicator.setText2(settingsServiceFile.getName());
+                indicator.setFraction((double) i / settingsServiceFiles.size());
+            }
+
+            try (InputStream inputStream = new FileInputStream(settingsServiceFile)) {
+                ServiceXmlStreamParser.parse(inputStream, streamParsers);
+            } catch (IOException ignored) {
+            }
+
+            for (ServiceParserInterface parser : documentParsers) {
+                try (InputStream inputStream = new FileInputStream(settingsServiceFile)) {
+                    parser.parser(inputStream);
+                } catch (IOException ignored) {
+                }
             }
         }
 
-        Symfony2ProjectComponent.getLogger().info("update: " + serviceParser.getName());
+        return parsers;
+    }
 
-        return (T) this.serviceParserInstance;
+    /**
+     * Streams can only be read once; buffer them if a parser needs its own pass
+     */
+    private static void parse(@NotNull InputStream inputStream, @NotNull Collection<StreamServiceParserInterface> streamParsers, @NotNull Collection<ServiceParserInterface> documentParsers) throws IOException {
+        try {
+            if(documentParsers.size() == 0) {
+                ServiceXmlStreamParser.parse(inputStream, streamParsers);
+                return;
+            }
+
+            byte[] content = StreamUtil.loadFromStream(inputStream);
+
+            ServiceXmlStreamParser.parse(new ByteArrayInputStream(content), streamParsers);
+            for (ServiceParserInterface parser : documentParsers) {
+                parser.parser(new ByteArrayInputStream(content));
+            }
+        } finally {
+            inputStream.close();
+        }
     }
 
     public void setCacheInvalid() {
         this.serviceFiles = new HashMap<>();
     }
 
-    synchronized public static <T extends ServiceParserInterface> T getInstance(Project project, Class<T> serviceParser){
-
-        Map<Class, ServiceXmlParserFactory> projectInstance = instance.get(project);
+    /**
+     * Hook for CompiledServiceBuilderFactory extensions and file watchers: check for a new container state
+     * without blocking the caller, the first parse is still lazy
+     */
+    public static void refreshIfModified(@NotNull Project project) {
+        ServiceXmlParserFactory serviceXmlParserFactory = instance.get(project);
+        if(serviceXmlParserFactory == null) {
+            return;
+        }
 
-        if(projectInstance == null) {
-            projectInstance = new HashMap<>();
-            instance.put(project, projectInstance);
+        if(serviceXmlParserFactory.parsers.size() > 0 && !serviceXmlParserFactory.refreshing && serviceXmlParserFactory.isModified(project.getComponent(Symfony2ProjectComponent.class).getContainerFiles())) {
+            serviceXmlParserFactory.scheduleRefresh();
         }
+    }
+
+    public static <T extends ServiceParserInterface> T getInstance(Project project, Class<T> serviceParser){
+        // parsing runs outside of the static lock
+        return getFactory(project).parser(serviceParser);
+    }
 
-        ServiceXmlParserFactory serviceXmlParserFactory = projectInstance.get(serviceParser);
+    @NotNull
+    synchronized private static ServiceXmlParserFactory getFactory(@NotNull Project project) {
+
+        ServiceXmlParserFactory serviceXmlParserFactory = instance.get(project);
         if(serviceXmlParserFactory == null) {
             serviceXmlParserFactory = new ServiceXmlParserFactory(project);
 
@@ -131,11 +458,12 @@ public class ServiceXmlParserFactory {
                 serviceXmlParserFactory.extensions.add(ext.create());
             }
 
-            projectInstance.put(serviceParser, serviceXmlParserFactory);
-        }
+            serviceXmlParserFactory.attachFileListener();
 
-        return serviceXmlParserFactory.parser(serviceParser);
+            instance.put(project, serviceXmlParserFactory);
+        }
 
+        return serviceXmlParserFactory;
     }
 
     synchronized public static void cleanInstance(Project project){
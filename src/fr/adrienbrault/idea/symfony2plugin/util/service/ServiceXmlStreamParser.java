@@ -0,0 +1,135 @@
+package fr.adrienbrault.idea.symfony2plugin.util.service;
+
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.Collection;
+
+/**
+ * Single StAX pass over a compiled container which feeds any number of parsers.
+ *
+ * Only one "/container/services/service" or "/container/parameters/parameter" element is build at a time,
+ * so memory depends on the largest definition and not on the size of the container file
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ServiceXmlStreamParser {
+
+    public static void parse(@NotNull InputStream inputStream, @NotNull Collection<? extends StreamServiceParserInterface> parsers) {
+        if(parsers.size() == 0) {
+            return;
+        }
+
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            return;
+        }
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(inputStream);
+
+            int depth = 0;
+            String section = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if(event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    continue;
+                }
+
+                if(event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+
+                depth++;
+                String name = reader.getLocalName();
+
+                if(depth == 2) {
+                    section = name;
+                } else if(depth == 3 && isDefinition(section, name)) {
+                    // element is read until its end tag
+                    Element element = readElement(reader, document);
+                    depth--;
+
+                    document.appendChild(element);
+                    for (StreamServiceParserInterface parser : parsers) {
+                        parser.visit(element);
+                    }
+                    document.removeChild(element);
+                }
+            }
+        } catch (XMLStreamException e) {
+            Symfony2ProjectComponent.getLogger().info("invalid container file: " + e.getMessage());
+        } finally {
+            if(reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    private static boolean isDefinition(@Nullable String section, @NotNull String name) {
+        return ("services".equals(section) && "service".equals(name)) || ("parameters".equals(section) && "parameter".equals(name));
+    }
+
+    /**
+     * Reader must be on a start element, returns with the reader on its matching end element
+     */
+    @NotNull
+    private static Element readElement(@NotNull XMLStreamReader reader, @NotNull Document document) throws XMLStreamException {
+        Element root = createElement(reader, document);
+        Element current = root;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                Element child = createElement(reader, document);
+                current.appendChild(child);
+                current = child;
+            } else if(event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE) {
+                current.appendChild(document.createTextNode(reader.getText()));
+            } else if(event == XMLStreamConstants.END_ELEMENT) {
+                if(current == root) {
+                    break;
+                }
+
+                current = (Element) current.getParentNode();
+            }
+        }
+
+        return root;
+    }
+
+    @NotNull
+    private static Element createElement(@NotNull XMLStreamReader reader, @NotNull Document document) {
+        Element element = document.createElement(reader.getLocalName());
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+
+        return element;
+    }
+}
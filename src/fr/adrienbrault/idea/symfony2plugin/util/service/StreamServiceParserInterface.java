@@ -0,0 +1,18 @@
+package fr.adrienbrault.idea.symfony2plugin.util.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Element;
+
+/**
+ * Parser which shares a single streaming pass over a compiled container with all other parsers
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public interface StreamServiceParserInterface extends ServiceParserInterface {
+
+    /**
+     * @param element "/container/services/service" or "/container/parameters/parameter" with all its children;
+     *                only valid while visiting, so dont hold any node
+     */
+    void visit(@NotNull Element element);
+}
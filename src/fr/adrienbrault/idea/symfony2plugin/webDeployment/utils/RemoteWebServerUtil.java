@@ -15,6 +15,7 @@ import com.jetbrains.plugins.webDeployment.connections.RemoteConnectionManager;
 import fr.adrienbrault.idea.symfony2plugin.dic.webDeployment.ServiceContainerRemoteFileStorage;
 import fr.adrienbrault.idea.symfony2plugin.routing.webDeployment.RoutingRemoteFileStorage;
 import fr.adrienbrault.idea.symfony2plugin.ui.dict.UiFilePathInterface;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.webDeployment.storage.RemoteFileStorageInterface;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
@@ -96,6 +97,9 @@ public class RemoteWebServerUtil {
         }
 
         connection.clone();
+
+        // remote container is provided via CompiledServiceBuilderFactory; publish it without waiting for the next lookup
+        ServiceXmlParserFactory.refreshIfModified(project);
     }
 
     @NotNull
@@ -15,6 +15,8 @@ import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -24,6 +26,7 @@ public class EventDispatcherSubscriberUtilTest extends SymfonyLightCodeInsightFi
     public void setUp() throws Exception {
         super.setUp();
         myFixture.copyFileToProject("EventSubscriber.php");
+        myFixture.copyFileToProject("EventSubscriberChild.php");
         myFixture.copyFileToProject("EventSubscriberAnnotation.php");
 
         myFixture.copyFileToProject("event.services.xml");
@@ -36,7 +39,7 @@ public class EventDispatcherSubscriberUtilTest extends SymfonyLightCodeInsightFi
 
     /**
      * @see EventDispatcherSubscriberUtil#getSubscribedEvents
-     * @see EventDispatcherSubscriberUtil#attachSubscriberEventNames
+     * @see fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventSubscriberStubIndex
      */
     public void testGetSubscribedEvent() {
         EventDispatcherSubscribedEvent event1 = EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.foo").iterator().next();
@@ -68,6 +71,22 @@ public class EventDispatcherSubscriberUtilTest extends SymfonyLightCodeInsightFi
         assertNull( event6.getMethodName());
     }
 
+    /**
+     * @see EventDispatcherSubscriberUtil#getSubscribedEvent
+     */
+    public void testGetSubscribedEventForInheritedSubscriberMethod() {
+        Set<String> classes = new HashSet<>();
+        for (EventDispatcherSubscribedEvent event : EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "pre.foo")) {
+            classes.add(event.getFqnClassName());
+        }
+
+        assertContainsElements(classes, "TestEventSubscriber", "ChildEventSubscriber");
+        assertDoesntContain(classes, "OverwriteEventSubscriber");
+
+        EventDispatcherSubscribedEvent event = EventDispatcherSubscriberUtil.getSubscribedEvent(getProject(), "child.foo").iterator().next();
+        assertEquals("OverwriteEventSubscriber", event.getFqnClassName());
+    }
+
     /**
      * @see EventDispatcherSubscriberUtil#getEventNameLookupElements
      */
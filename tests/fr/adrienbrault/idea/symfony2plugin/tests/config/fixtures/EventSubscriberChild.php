@@ -0,0 +1,18 @@
+<?php
+
+namespace {
+
+    class ChildEventSubscriber extends TestEventSubscriber
+    {
+    }
+
+    class OverwriteEventSubscriber extends TestEventSubscriber
+    {
+        public static function getSubscribedEvents()
+        {
+            return array(
+                'child.foo' => 'childFoo',
+            );
+        }
+    }
+}
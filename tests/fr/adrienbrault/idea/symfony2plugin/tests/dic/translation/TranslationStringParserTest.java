@@ -5,6 +5,9 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Set;
 
 import fr.adrienbrault.idea.symfony2plugin.translation.parser.TranslationStringMap;
 
@@ -31,4 +34,53 @@ public class TranslationStringParserTest  extends Assert {
         TranslationStringMap map = new TranslationStringParser().parsePathMatcher(testFile.getParentFile().getPath());
         assertTrue(map.getDomainMap("FOSUserBundle").contains("registration.email.message"));
     }
+
+    @Test
+    public void testThatFallbackCatalogueAndMultilineValuesAreParsed() {
+        File testFile = new File(this.getClass().getResource("translations/catalogue.de.php").getFile());
+        TranslationStringMap map = new TranslationStringParser().parse(testFile);
+
+        // en fallback catalogue
+        assertTrue(map.getDomainMap("FOSUserBundle").contains("resetting.flash.success"));
+        assertTrue(map.getDomainMap("CraueFormFlowBundle").contains("button.reset"));
+
+        // after multiline and escaped values
+        assertTrue(map.getDomainMap("validators").contains("foo.baz"));
+        assertTrue(map.getDomainMap("FOSUserBundle").contains("layout.logout"));
+        assertTrue(map.getDomainMap("welcome_login").contains("login.headline"));
+
+        // values are never keys
+        assertFalse(map.getDomainMap("validators").contains("Dieser Wert sollte true sein."));
+    }
+
+    @Test
+    public void testThatValuesWithArraySyntaxDontBreakParser() throws IOException {
+        TranslationStringMap map = new TranslationStringMap();
+
+        new TranslationStringParser().parse(new StringReader("<?php\n" +
+            "$foo = array('no_domain' => array('no_key' => 'foo'));\n" +
+            "$catalogue = new MessageCatalogue('de', array (\n" +
+            "  'messages+intl-icu' => \n" +
+            "  array (\n" +
+            "    'foo' => 'array ( \\'bar\\' => \\'car\\' ), ',\n" +
+            "    'foo\\'s' => \"bar\",\n" +
+            "    'bar' => 'bar',\n" +
+            "  ),\n" +
+            "  'empty' => array (),\n" +
+            "  'short' => ['car' => 'car'],\n" +
+            "));\n"
+        ), map);
+
+        assertContainsElements(map.getDomainMap("messages+intl-icu"), "foo", "foo\\'s", "bar");
+        assertEquals(3, map.getDomainMap("messages+intl-icu").size());
+        assertTrue(map.getDomainMap("empty").isEmpty());
+        assertTrue(map.getDomainMap("short").contains("car"));
+        assertNull(map.getDomainMap("no_domain"));
+    }
+
+    private static void assertContainsElements(Set<String> set, String... values) {
+        for (String value : values) {
+            assertTrue(value, set.contains(value));
+        }
+    }
 }
@@ -6,6 +6,7 @@ import com.jetbrains.php.lang.psi.elements.impl.ClassConstantReferenceImpl;
 import com.jetbrains.php.lang.psi.elements.impl.PhpTypedElementImpl;
 import com.jetbrains.php.lang.psi.elements.impl.StringLiteralExpressionImpl;
 import fr.adrienbrault.idea.symfony2plugin.form.dict.FormTypeClass;
+import fr.adrienbrault.idea.symfony2plugin.form.util.FormTypeRegistry;
 import fr.adrienbrault.idea.symfony2plugin.form.util.FormUtil;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 
@@ -60,6 +61,22 @@ public class FormUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertEquals(formTypeClasses.get("foo_bar").getPhpClass().getFQN(), "\\Form\\FormType\\FooBar");
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.form.util.FormTypeRegistry
+     */
+    @SuppressWarnings({"ConstantConditions"})
+    public void testFormTypeRegistryProvidesIndexedTypes() {
+        FormTypeRegistry registry = FormTypeRegistry.getInstance(getProject());
+
+        assertEquals("Form\\FormType\\Foo", registry.getFormType("foo_type").getPhpClassName());
+        assertEquals("Form\\FormType\\FooBar", registry.getIndexFormType("foo_bar").getPhpClassName());
+        assertNull(registry.getFormType("unknown_type"));
+
+        assertSame(registry, FormTypeRegistry.getInstance(getProject()));
+
+        assertEquals("\\Form\\FormType\\Foo", new FormUtil.FormTypeCollector(getProject()).collect().getFormTypeClass("foo_type").getFQN());
+    }
+
     public void testGetFormAliases() {
         PhpClass phpClass = PhpPsiElementFactory.createPhpPsiFromText(getProject(), PhpClass.class, "<?php\n" +
                 "class Foo implements \\Symfony\\Component\\Form\\FormTypeInterface {\n" +
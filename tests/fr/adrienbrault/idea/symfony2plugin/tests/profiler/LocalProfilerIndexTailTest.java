@@ -0,0 +1,74 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.profiler;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtil;
+import fr.adrienbrault.idea.symfony2plugin.profiler.LocalProfilerIndexTail;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.profiler.LocalProfilerIndexTail
+ */
+public class LocalProfilerIndexTailTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    private File file;
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        file = new File(FileUtil.createTempDirectory("profiler", null), "index.csv");
+        FileUtil.writeToFile(file, "a1,127.0.0.1,GET,/a\n");
+    }
+
+    public void testThatListenersAreNotifiedOnVfsChanges() throws Exception {
+        // vfs needs to know the file before it provides change events
+        LocalFileSystem.getInstance().refreshAndFindFileByIoFile(file);
+
+        LocalProfilerIndexTail tail = LocalProfilerIndexTail.getInstance(getProject(), file);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Disposable disposable = Disposer.newDisposable();
+        Disposer.register(getTestRootDisposable(), disposable);
+
+        tail.addListener(latch::countDown, disposable);
+
+        append("a2,127.0.0.1,GET,/b\n");
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    public void testThatDisposedListenersAreNotCalled() throws Exception {
+        LocalFileSystem.getInstance().refreshAndFindFileByIoFile(file);
+
+        LocalProfilerIndexTail tail = LocalProfilerIndexTail.getInstance(getProject(), file);
+
+        AtomicInteger calls = new AtomicInteger();
+        Disposable disposable = Disposer.newDisposable();
+        tail.addListener(calls::incrementAndGet, disposable);
+        Disposer.dispose(disposable);
+
+        append("a2,127.0.0.1,GET,/b\n");
+
+        // checks are running on a pooled thread; give a late one the chance
+        Thread.sleep(500);
+        assertEquals(0, calls.get());
+    }
+
+    private void append(String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        file.setLastModified(file.lastModified() + 2000);
+
+        VfsUtil.markDirtyAndRefresh(false, false, false, file);
+    }
+}
@@ -0,0 +1,109 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.profiler.reader;
+
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.CsvIndexTailReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.profiler.reader.CsvIndexTailReader
+ */
+public class CsvIndexTailReaderTest extends Assert {
+
+    @Test
+    public void testThatOnlyAppendedLinesAreRead() throws IOException {
+        File file = createCsv("a1,127.0.0.1,GET,/a\na2,127.0.0.1,GET,/b\n");
+
+        CsvIndexTailReader reader = new CsvIndexTailReader(file, 3);
+        assertTrue(reader.update());
+        assertEquals(Arrays.asList("a2,127.0.0.1,GET,/b", "a1,127.0.0.1,GET,/a"), reader.getLines());
+
+        long offset = reader.getOffset();
+        assertFalse(reader.update());
+        assertEquals(offset, reader.getOffset());
+
+        append(file, "a3,127.0.0.1,GET,/c\na4,127.0.0.1,GET,/d\n");
+        assertTrue(reader.update());
+        assertEquals(Arrays.asList("a4,127.0.0.1,GET,/d", "a3,127.0.0.1,GET,/c", "a2,127.0.0.1,GET,/b"), reader.getLines());
+        assertEquals(file.length(), reader.getOffset());
+    }
+
+    @Test
+    public void testThatIncompleteLineIsDelayed() throws IOException {
+        File file = createCsv("a1,127.0.0.1,GET,/a\n");
+
+        CsvIndexTailReader reader = new CsvIndexTailReader(file, 10);
+        reader.update();
+
+        append(file, "a2,127.0.0.1");
+        assertFalse(reader.update());
+
+        append(file, ",GET,/b\n");
+        assertTrue(reader.update());
+        assertEquals("a2,127.0.0.1,GET,/b", reader.getLines().get(0));
+    }
+
+    @Test
+    public void testThatTruncatedFileIsReadAgain() throws IOException {
+        File file = createCsv("a1,127.0.0.1,GET,/a\na2,127.0.0.1,GET,/b\n");
+
+        CsvIndexTailReader reader = new CsvIndexTailReader(file, 10);
+        reader.update();
+
+        Files.write(file.toPath(), "b1,127.0.0.1,GET,/c\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(reader.update());
+        assertEquals(Arrays.asList("b1,127.0.0.1,GET,/c"), reader.getLines());
+    }
+
+    @Test
+    public void testThatIncompleteLineOnFirstReadIsDelayed() throws IOException {
+        File file = createCsv("a1,127.0.0.1,GET,/a\na2,127.0");
+
+        CsvIndexTailReader reader = new CsvIndexTailReader(file, 10);
+        assertTrue(reader.update());
+        assertEquals(Arrays.asList("a1,127.0.0.1,GET,/a"), reader.getLines());
+        assertEquals("a1,127.0.0.1,GET,/a\n".length(), reader.getOffset());
+
+        append(file, ".0.1,GET,/b\n");
+        assertTrue(reader.update());
+        assertEquals(Arrays.asList("a2,127.0.0.1,GET,/b", "a1,127.0.0.1,GET,/a"), reader.getLines());
+    }
+
+    @Test
+    public void testThatRecreatedLargerFileIsReadFromItsEnd() throws IOException {
+        File file = createCsv("a1,127.0.0.1,GET,/a\n");
+
+        CsvIndexTailReader reader = new CsvIndexTailReader(file, 10);
+        reader.update();
+
+        // new file replaces the old one, eg on cache clear
+        File replacement = new File(file.getPath() + ".new");
+        replacement.deleteOnExit();
+        Files.write(replacement.toPath(), "b1,127.0.0.1,GET,/b\nb2,127.0.0.1,GET,/c\n".getBytes(StandardCharsets.UTF_8));
+        Files.move(replacement.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        assertTrue(reader.update());
+        assertEquals(Arrays.asList("b2,127.0.0.1,GET,/c", "b1,127.0.0.1,GET,/b"), reader.getLines());
+    }
+
+    private static File createCsv(String content) throws IOException {
+        File file = File.createTempFile("index", ".csv");
+        file.deleteOnExit();
+
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+        return file;
+    }
+
+    private static void append(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+}
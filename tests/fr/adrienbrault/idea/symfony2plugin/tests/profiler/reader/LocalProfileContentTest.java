@@ -0,0 +1,59 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.profiler.reader;
+
+import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalDefaultDataCollector;
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.LocalProfileContent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.profiler.reader.LocalProfileContent
+ */
+public class LocalProfileContentTest extends Assert {
+
+    @Test
+    public void testThatContentIsOnlyReadOnFirstAccess() throws IOException {
+        File file = File.createTempFile("profile", null);
+        file.deleteOnExit();
+
+        Files.write(file.toPath(), "a:1:{s:6:\"_route\";s:9:\"foo_route\";}".getBytes(StandardCharsets.UTF_8));
+
+        LocalProfileContent content = new LocalProfileContent(file);
+        assertFalse(content.isLoaded());
+
+        LocalDefaultDataCollector collector = new LocalDefaultDataCollector(content::getContent);
+        assertFalse(content.isLoaded());
+
+        assertEquals("foo_route", collector.getRoute());
+        assertTrue(content.isLoaded());
+    }
+
+    @Test
+    public void testThatMissingFileProvidesNull() {
+        LocalProfileContent content = new LocalProfileContent(new File("foo-profile-not-existing"));
+
+        assertNull(content.getContent());
+        assertTrue(content.isLoaded());
+        assertNull(new LocalDefaultDataCollector(content::getContent).getRoute());
+    }
+
+    @Test
+    public void testThatCollectorDoesNotRequestContentOnCreation() {
+        AtomicInteger calls = new AtomicInteger();
+
+        LocalDefaultDataCollector collector = new LocalDefaultDataCollector(() -> {
+            calls.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(0, calls.get());
+        assertNull(collector.getController());
+        assertEquals(1, calls.get());
+    }
+}
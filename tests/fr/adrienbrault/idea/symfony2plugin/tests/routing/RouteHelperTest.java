@@ -12,6 +12,7 @@ import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import fr.adrienbrault.idea.symfony2plugin.routing.Route;
 import fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper;
+import fr.adrienbrault.idea.symfony2plugin.routing.dict.RoutesSnapshot;
 import fr.adrienbrault.idea.symfony2plugin.stubs.dict.StubIndexedRoute;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
@@ -313,6 +314,31 @@ public class RouteHelperTest extends SymfonyLightCodeInsightFixtureTestCase {
         ));
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper#getRoutesSnapshot
+     */
+    public void testRoutesSnapshotReverseLookups() {
+        myFixture.copyFileToProject("GetRoutesOnControllerAction.routing.xml");
+
+        RoutesSnapshot routesSnapshot = RouteHelper.getRoutesSnapshot(getProject());
+
+        assertContainsElements(
+            ContainerUtil.map(routesSnapshot.getRoutesOnController("FooBarFooBundle:SubFolder\\FooBar:foo"), Route::getName),
+            "xml_route_subfolder_backslash", "xml_route_subfolder_slash"
+        );
+
+        assertContainsElements(
+            ContainerUtil.map(routesSnapshot.getRoutesOnService("foo.bar_controller", "indexAction"), Route::getName),
+            "xml_route_as_service"
+        );
+
+        assertContainsElements(routesSnapshot.getServiceNames(), "foo.bar_controller");
+        assertSize(0, routesSnapshot.getRoutesOnService("foo.bar_controller", "fooAction"));
+        assertSize(0, routesSnapshot.getRoutesOnController("FooBarFooBundle:Unknown:foo"));
+
+        assertSame(routesSnapshot.getRoutes(), RouteHelper.getAllRoutes(getProject()));
+    }
+
     /**
      * @see fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper#getRoutesInsideUrlGeneratorFile
      */
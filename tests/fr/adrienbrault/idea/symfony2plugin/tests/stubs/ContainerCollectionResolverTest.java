@@ -1,5 +1,6 @@
 package fr.adrienbrault.idea.symfony2plugin.tests.stubs;
 
+import com.jetbrains.php.lang.PhpFileType;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerParameter;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
@@ -7,6 +8,7 @@ import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureT
 import org.jetbrains.yaml.YAMLFileType;
 
 import java.io.File;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -127,4 +129,59 @@ public class ContainerCollectionResolverTest extends SymfonyLightCodeInsightFixt
         assertEquals(true, service.isPrivate());
         assertEquals(true, service.isWeak());
     }
+
+    public void testThatServiceSnapshotIsSharedUntilServiceFileChanges() {
+        Map<String, ContainerService> services = ContainerCollectionResolver.getServices(getProject());
+        assertSame(services, ContainerCollectionResolver.getServices(getProject()));
+
+        myFixture.configureByText(PhpFileType.INSTANCE, "<?php class FooSnapshot {}");
+        assertSame(services, ContainerCollectionResolver.getServices(getProject()));
+
+        myFixture.configureByText(YAMLFileType.YML, "" +
+            "services:\n" +
+            "    foo_snapshot:\n" +
+            "        class: DateTime\n"
+        );
+
+        assertNotSame(services, ContainerCollectionResolver.getServices(getProject()));
+        assertTrue(ContainerCollectionResolver.hasServiceNames(getProject(), "foo_snapshot"));
+    }
+
+    public void testThatServiceSnapshotFollowsSymfonyVersion() {
+        assertFalse(ContainerCollectionResolver.hasServiceNames(getProject(), "request"));
+
+        myFixture.configureByText(PhpFileType.INSTANCE, "<?php\n" +
+            "namespace Symfony\\Component\\HttpKernel {\n" +
+            "   class Kernel {\n" +
+            "       const VERSION = '2.8.0';" +
+            "   }" +
+            "}"
+        );
+
+        assertTrue(ContainerCollectionResolver.hasServiceNames(getProject(), "request"));
+        assertNotNull(ContainerCollectionResolver.getService(getProject(), "request"));
+    }
+
+    public void testThatLookupsOfSameStampShareOneSnapshot() {
+        assertSame(ContainerCollectionResolver.getSnapshot(getProject()), ContainerCollectionResolver.getSnapshot(getProject()));
+        assertSame(ContainerCollectionResolver.getParameterSnapshot(getProject()), ContainerCollectionResolver.getParameterSnapshot(getProject()));
+
+        assertSame(
+            ContainerCollectionResolver.getServices(getProject()).get("foo"),
+            ContainerCollectionResolver.getService(getProject(), "foo")
+        );
+
+        Map<String, ContainerParameter> parameters = ContainerCollectionResolver.getParameters(getProject());
+        assertSame(parameters, ContainerCollectionResolver.getParameters(getProject()));
+        assertEquals("foo", ContainerCollectionResolver.resolveParameter(getProject(), "%BAR%"));
+        assertEquals("DateTime", ContainerCollectionResolver.resolveService(getProject(), "foo"));
+
+        myFixture.configureByText(YAMLFileType.YML, "" +
+            "parameters:\n" +
+            "    bar_snapshot: foo\n"
+        );
+
+        assertNotSame(parameters, ContainerCollectionResolver.getParameters(getProject()));
+        assertTrue(ContainerCollectionResolver.getParameterNames(getProject()).contains("bar_snapshot"));
+    }
 }
@@ -0,0 +1,91 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs;
+
+import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerIdMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.ContainerIdMap
+ */
+public class ContainerIdMapTest extends Assert {
+
+    @Test
+    public void testCaseInsensitiveLookupKeepsFirstId() {
+        ContainerIdMap<String> map = new ContainerIdMap<>();
+        map.put("foo_UPPER", "foo");
+        map.put("FOO_upper", "bar");
+
+        assertEquals(1, map.size());
+        assertEquals("bar", map.get("foo_upper"));
+        assertEquals("bar", map.get("FOO_UPPER"));
+        assertTrue(map.containsKey("Foo_Upper"));
+        assertTrue(map.keySet().contains("foo_upper"));
+        assertEquals(Collections.singleton("foo_UPPER"), new HashSet<>(map.keySet()));
+
+        assertNull(map.get("unknown"));
+        assertNull(map.get(null));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void testLookupDoesNotDependOnDefaultLocale() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+
+        try {
+            ContainerIdMap<String> map = new ContainerIdMap<>();
+            map.put("FOO_ID", "foo");
+
+            assertEquals("foo", map.get("foo_id"));
+            assertTrue(map.containsKey("Foo_Id"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void testSortedNamesAreRebuildOnChange() {
+        ContainerIdMap<Boolean> map = new ContainerIdMap<>();
+        map.put("b", true);
+        map.put("C", true);
+        map.put("a", true);
+
+        List<String> names = map.getSortedNames();
+        assertEquals(Arrays.asList("a", "b", "C"), names);
+        assertSame(names, map.getSortedNames());
+
+        map.remove("B");
+        assertEquals(Arrays.asList("a", "C"), map.getSortedNames());
+    }
+
+    @Test
+    public void testSetViewIsCaseInsensitive() {
+        Set<String> ids = Collections.newSetFromMap(new ContainerIdMap<>());
+        ids.add("foo");
+
+        assertFalse(ids.add("FOO"));
+        assertTrue(ids.contains("Foo"));
+    }
+
+    @Test
+    public void testLookupOnLargeContainers() {
+        for (int size : new int[] {10000, 50000}) {
+            ContainerIdMap<Integer> map = new ContainerIdMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put("app.service_" + i, i);
+            }
+
+            assertEquals(size, map.size());
+
+            for (int i = 0; i < size; i++) {
+                assertEquals(Integer.valueOf(i), map.get(i % 2 == 0 ? "app.service_" + i : "APP.Service_" + i));
+            }
+
+            assertEquals(size, map.getSortedNames().size());
+            assertEquals("app.service_0", map.getSortedNames().get(0));
+        }
+    }
+}
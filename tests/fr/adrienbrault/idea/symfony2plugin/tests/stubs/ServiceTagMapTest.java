@@ -0,0 +1,32 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs;
+
+import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceTagMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.ServiceTagMap
+ */
+public class ServiceTagMapTest extends Assert {
+
+    @Test
+    public void testTagToServiceInversion() {
+        Map<String, Set<String>> serviceTags = new HashMap<>();
+        serviceTags.put("foo", new HashSet<>(Arrays.asList("twig.extension", "kernel.event_subscriber")));
+        serviceTags.put("bar", new HashSet<>(Collections.singletonList("twig.extension")));
+
+        ServiceTagMap map = new ServiceTagMap(serviceTags);
+
+        assertEquals(new HashSet<>(Arrays.asList("foo", "bar")), map.getTaggedServices("twig.extension"));
+        assertEquals(Collections.singleton("foo"), map.getTaggedServices("kernel.event_subscriber"));
+        assertTrue(map.getTaggedServices("unknown").isEmpty());
+
+        assertEquals(Collections.singleton("twig.extension"), map.getServiceTags("bar"));
+        assertTrue(map.getServiceTags("unknown").isEmpty());
+
+        assertEquals(new HashSet<>(Arrays.asList("twig.extension", "kernel.event_subscriber")), map.getTags());
+    }
+}
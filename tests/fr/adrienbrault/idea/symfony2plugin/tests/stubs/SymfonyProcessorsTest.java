@@ -0,0 +1,39 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs;
+
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesDefinitionStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors
+ */
+public class SymfonyProcessorsTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureByText("processors.yml", "" +
+            "services:\n" +
+            "    foo_processor:\n" +
+            "        class: DateTime\n"
+        );
+    }
+
+    public void testCollectProjectUniqueKeysProvidesExistingKeys() {
+        SymfonyProcessors.CollectProjectUniqueKeys processor = new SymfonyProcessors.CollectProjectUniqueKeys(getProject(), ServicesDefinitionStubIndex.KEY);
+        FileBasedIndex.getInstance().processAllKeys(ServicesDefinitionStubIndex.KEY, processor, getProject());
+
+        assertContainsElements(processor.getResult(), "foo_processor");
+    }
+
+    public void testHasKeyInScope() {
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        GlobalSearchScope scope = GlobalSearchScope.allScope(getProject());
+
+        assertTrue(SymfonyProcessors.hasKeyInScope(index, ServicesDefinitionStubIndex.KEY, "foo_processor", scope));
+        assertFalse(SymfonyProcessors.hasKeyInScope(index, ServicesDefinitionStubIndex.KEY, "foo_processor_unknown", scope));
+    }
+}
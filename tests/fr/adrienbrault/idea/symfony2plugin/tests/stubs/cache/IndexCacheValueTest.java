@@ -0,0 +1,156 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.cache;
+
+import com.intellij.openapi.util.SimpleModificationTracker;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexCacheValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexCacheValue
+ */
+public class IndexCacheValueTest extends Assert {
+
+    @Test
+    public void testValueIsComputedOncePerModificationCount() {
+        SimpleModificationTracker tracker = new SimpleModificationTracker();
+        IndexCacheValue<String> cacheValue = new IndexCacheValue<>();
+        AtomicInteger counter = new AtomicInteger();
+
+        assertEquals("1", cacheValue.getValue(tracker, () -> String.valueOf(counter.incrementAndGet())));
+        assertEquals("1", cacheValue.getValue(tracker, () -> String.valueOf(counter.incrementAndGet())));
+
+        tracker.incModificationCount();
+        assertEquals("2", cacheValue.getValue(tracker, () -> String.valueOf(counter.incrementAndGet())));
+    }
+
+    @Test
+    public void testReadersWaitForRunningRebuild() throws Exception {
+        SimpleModificationTracker tracker = new SimpleModificationTracker();
+        IndexCacheValue<String> cacheValue = new IndexCacheValue<>();
+        cacheValue.getValue(tracker, () -> "old");
+
+        tracker.incModificationCount();
+
+        CountDownLatch rebuildStarted = new CountDownLatch(1);
+        CountDownLatch rebuildRelease = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> rebuild = executor.submit(() -> cacheValue.getValue(tracker, () -> {
+                rebuildStarted.countDown();
+                await(rebuildRelease);
+                return "new";
+            }));
+
+            assertTrue(rebuildStarted.await(10, TimeUnit.SECONDS));
+
+            // outdated value must not leak into callers of the new stamp
+            Future<String> reader = executor.submit(() -> cacheValue.getValue(tracker, () -> "unexpected"));
+
+            rebuildRelease.countDown();
+            assertEquals("new", rebuild.get(10, TimeUnit.SECONDS));
+            assertEquals("new", reader.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRunningRebuildDoesNotBlockOtherKeys() throws Exception {
+        SimpleModificationTracker tracker = new SimpleModificationTracker();
+        IndexCacheValue<String> slowValue = new IndexCacheValue<>();
+        IndexCacheValue<String> otherValue = new IndexCacheValue<>();
+
+        CountDownLatch rebuildStarted = new CountDownLatch(1);
+        CountDownLatch rebuildRelease = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> rebuild = executor.submit(() -> slowValue.getValue(tracker, () -> {
+                rebuildStarted.countDown();
+                await(rebuildRelease);
+                return "slow";
+            }));
+
+            assertTrue(rebuildStarted.await(10, TimeUnit.SECONDS));
+
+            // computed while the other holder is still rebuilding
+            Future<String> other = executor.submit(() -> otherValue.getValue(tracker, () -> "other"));
+            assertEquals("other", other.get(10, TimeUnit.SECONDS));
+
+            rebuildRelease.countDown();
+            assertEquals("slow", rebuild.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testManyThreadsOnDifferentKeys() throws Exception {
+        int keys = 16;
+        int threads = 32;
+        int iterations = 2000;
+
+        List<IndexCacheValue<Integer>> cacheValues = new ArrayList<>();
+        List<SimpleModificationTracker> trackers = new ArrayList<>();
+        List<AtomicInteger> computations = new ArrayList<>();
+        for (int i = 0; i < keys; i++) {
+            cacheValues.add(new IndexCacheValue<>());
+            trackers.add(new SimpleModificationTracker());
+            computations.add(new AtomicInteger());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        int key = (thread + i) % keys;
+
+                        // some writers
+                        if(i % 100 == 0) {
+                            trackers.get(key).incModificationCount();
+                        }
+
+                        Integer value = cacheValues.get(key).getValue(trackers.get(key), () -> {
+                            computations.get(key).incrementAndGet();
+                            return key;
+                        });
+
+                        // a key must never see a value of another key
+                        assertEquals(Integer.valueOf(key), value);
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < keys; i++) {
+            assertTrue(computations.get(i).get() > 0);
+
+            // after everything settled the current stamp is served
+            final int key = i;
+            assertEquals(Integer.valueOf(key), cacheValues.get(key).getValue(trackers.get(key), () -> key));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {
+        }
+    }
+}
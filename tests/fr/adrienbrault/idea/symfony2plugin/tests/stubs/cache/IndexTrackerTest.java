@@ -0,0 +1,111 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.cache;
+
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.twig.TwigFileType;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import org.jetbrains.yaml.YAMLFileType;
+
+import java.util.Map;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker
+ */
+public class IndexTrackerTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void testThatPhpEditsDontInvalidateContainerFileTrackers() {
+        myFixture.configureByText(YAMLFileType.YML, "" +
+            "services:\n" +
+            "    foo_tracker:\n" +
+            "        class: DateTime\n"
+        );
+
+        myFixture.configureByText(PhpFileType.INSTANCE, "<?php class FooTracker { function foo() { $foo = 'b<caret>'; } }");
+
+        long services = IndexTracker.SERVICES.getTracker(getProject()).getModificationCount();
+        long parameters = IndexTracker.PARAMETERS.getTracker(getProject()).getModificationCount();
+        long routes = IndexTracker.ROUTES.getTracker(getProject()).getModificationCount();
+        long templates = IndexTracker.TEMPLATES.getTracker(getProject()).getModificationCount();
+        long events = IndexTracker.EVENTS.getTracker(getProject()).getModificationCount();
+        long twigExtensions = IndexTracker.TWIG_EXTENSIONS.getTracker(getProject()).getModificationCount();
+
+        Map<String, ContainerService> serviceMap = ContainerCollectionResolver.getServices(getProject());
+
+        myFixture.type("ar");
+
+        assertEquals(services, IndexTracker.SERVICES.getTracker(getProject()).getModificationCount());
+        assertEquals(parameters, IndexTracker.PARAMETERS.getTracker(getProject()).getModificationCount());
+        assertSame(serviceMap, ContainerCollectionResolver.getServices(getProject()));
+
+        // method body edits are not able to provide routes, templates, events or extensions
+        assertEquals(routes, IndexTracker.ROUTES.getTracker(getProject()).getModificationCount());
+        assertEquals(templates, IndexTracker.TEMPLATES.getTracker(getProject()).getModificationCount());
+        assertEquals(events, IndexTracker.EVENTS.getTracker(getProject()).getModificationCount());
+        assertEquals(twigExtensions, IndexTracker.TWIG_EXTENSIONS.getTracker(getProject()).getModificationCount());
+    }
+
+    public void testThatPhpStructureEditsInvalidatePhpTrackers() {
+        myFixture.configureByText(PhpFileType.INSTANCE, "<?php class FooTracker { <caret> }");
+
+        long routes = IndexTracker.ROUTES.getTracker(getProject()).getModificationCount();
+        long templates = IndexTracker.TEMPLATES.getTracker(getProject()).getModificationCount();
+        long twigExtensions = IndexTracker.TWIG_EXTENSIONS.getTracker(getProject()).getModificationCount();
+
+        myFixture.type("/** @Route(\"/foo\") */ function fooAction() {}");
+
+        // php annotations are able to provide routes; bundle classes can be added to existing files
+        assertTrue(routes < IndexTracker.ROUTES.getTracker(getProject()).getModificationCount());
+        assertTrue(templates < IndexTracker.TEMPLATES.getTracker(getProject()).getModificationCount());
+
+        // no Twig extension inside
+        assertEquals(twigExtensions, IndexTracker.TWIG_EXTENSIONS.getTracker(getProject()).getModificationCount());
+    }
+
+    public void testThatIndexedMethodBodyEditsInvalidateTheirTrackers() {
+        myFixture.configureByText(PhpFileType.INSTANCE, "<?php\n" +
+            "class FooSubscriber { static function getSubscribedEvents() { return ['pre.foo' => 'pre<caret>']; } }\n" +
+            "class FooExtension { function getFilters() { return []; } }\n"
+        );
+
+        long events = IndexTracker.EVENTS.getTracker(getProject()).getModificationCount();
+        long twigExtensions = IndexTracker.TWIG_EXTENSIONS.getTracker(getProject()).getModificationCount();
+        long routes = IndexTracker.ROUTES.getTracker(getProject()).getModificationCount();
+
+        myFixture.type("Foo");
+
+        assertTrue(events < IndexTracker.EVENTS.getTracker(getProject()).getModificationCount());
+        assertEquals(twigExtensions, IndexTracker.TWIG_EXTENSIONS.getTracker(getProject()).getModificationCount());
+        assertEquals(routes, IndexTracker.ROUTES.getTracker(getProject()).getModificationCount());
+    }
+
+    public void testThatTwigContentEditsDontInvalidateTemplateNames() {
+        myFixture.configureByText(TwigFileType.INSTANCE, "{{ <caret> }}");
+
+        long templates = IndexTracker.TEMPLATES.getTracker(getProject()).getModificationCount();
+        long twigIncludes = IndexTracker.TWIG_INCLUDES.getTracker(getProject()).getModificationCount();
+
+        myFixture.type("foo");
+
+        assertEquals(templates, IndexTracker.TEMPLATES.getTracker(getProject()).getModificationCount());
+        assertTrue(twigIncludes < IndexTracker.TWIG_INCLUDES.getTracker(getProject()).getModificationCount());
+    }
+
+    public void testThatContainerFileEditsInvalidateServiceTrackers() {
+        myFixture.configureByText(YAMLFileType.YML, "" +
+            "services:\n" +
+            "    foo_tracker:\n" +
+            "        class: <caret>\n"
+        );
+
+        long services = IndexTracker.SERVICES.getTracker(getProject()).getModificationCount();
+        long twigIncludes = IndexTracker.TWIG_INCLUDES.getTracker(getProject()).getModificationCount();
+
+        myFixture.type("DateTime");
+
+        assertTrue(services < IndexTracker.SERVICES.getTracker(getProject()).getModificationCount());
+        assertEquals(twigIncludes, IndexTracker.TWIG_INCLUDES.getTracker(getProject()).getModificationCount());
+    }
+}
@@ -0,0 +1,82 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.EventSubscriberMethod;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventSubscriberStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ *
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.indexes.EventSubscriberStubIndex
+ */
+public class EventSubscriberStubIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureFromExistingVirtualFile(myFixture.copyFileToProject("EventSubscriberStubIndex.php"));
+    }
+
+    public String getTestDataPath() {
+        return new File(this.getClass().getResource("fixtures").getFile()).getAbsolutePath();
+    }
+
+    public void testThatStringEventIsIndexed() {
+        assertIndexContains(EventSubscriberStubIndex.KEY, "pre.foo", "pre.foo2");
+
+        EventSubscriberMethod method = getFirstValue("pre.foo");
+        assertEquals("TestEventSubscriber", method.getFqnClassName());
+        assertEquals("preFoo", method.getMethodName());
+        assertNull(method.getPriority());
+        assertNull(method.getSignature());
+
+        method = getFirstValue("pre.foo2");
+        assertEquals("onKernelResponseMid", method.getMethodName());
+        assertEquals(10, method.getPriority().intValue());
+    }
+
+    public void testThatConstantEventIsIndexedBySignature() {
+        assertIndexContains(EventSubscriberStubIndex.KEY, "#K#C\\Foo\\Bar.BAR");
+
+        EventSubscriberMethod method = getFirstValue("#K#C\\Foo\\Bar.BAR");
+        assertEquals("postFoo", method.getMethodName());
+        assertEquals(-10, method.getPriority().intValue());
+        assertEquals("#K#C\\Foo\\Bar.BAR", method.getSignature());
+    }
+
+    public void testThatSameEventOfMultipleClassesInOneFileIsMerged() {
+        Set<String> methods = new HashSet<>();
+        for (EventSubscriberMethod method : getValues("pre.foo")) {
+            methods.add(method.getFqnClassName() + "::" + method.getMethodName());
+        }
+
+        assertContainsElements(methods, "TestEventSubscriber::preFoo", "SecondEventSubscriber::secondPreFoo");
+    }
+
+    public void testThatNonStaticSubscribedEventsAreNotIndexed() {
+        assertIndexNotContains(EventSubscriberStubIndex.KEY, "doctrine.foo");
+    }
+
+    private EventSubscriberMethod getFirstValue(String key) {
+        return ContainerUtil.getFirstItem(getValues(key));
+    }
+
+    private List<EventSubscriberMethod> getValues(String key) {
+        List<EventSubscriberMethod> methods = new ArrayList<>();
+
+        for (List<EventSubscriberMethod> values : FileBasedIndex.getInstance().getValues(EventSubscriberStubIndex.KEY, key, GlobalSearchScope.allScope(getProject()))) {
+            methods.addAll(values);
+        }
+
+        return methods;
+    }
+}
@@ -0,0 +1,91 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.util.containers.ContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.TwigHelper;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TemplateFileNameIndex;
+import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigBlock;
+import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigBlockParser;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TemplateFileNameIndex
+ * @see fr.adrienbrault.idea.symfony2plugin.TwigHelper#getTemplateFiles
+ */
+public class TemplateFileNameIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    private PsiFile carIndex;
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        addNamespaces("Foo");
+
+        carIndex = myFixture.addFileToProject("res/Car/index.html.twig", "{% extends '@Foo/layout.html.twig' %}");
+        myFixture.addFileToProject("res/layout.html.twig", "{% block layout_foo %}{% endblock %}");
+        myFixture.addFileToProject("res/index.html.php", "<?php");
+        myFixture.addFileToProject("res/helper.php", "<?php");
+    }
+
+    public void testThatTemplateFileNamesAreIndexed() {
+        assertIndexContains(TemplateFileNameIndex.KEY, "index.html.twig", "layout.html.twig", "index.html.php");
+        assertIndexNotContains(TemplateFileNameIndex.KEY, "helper.php");
+    }
+
+    public void testThatTemplateNamesAreComputedOnNamespaceRoots() {
+        assertContainsElements(
+            TwigHelper.getTemplateNames(getProject(), carIndex.getVirtualFile()),
+            "@Foo/Car/index.html.twig", "FooBundle:Car:index.html.twig"
+        );
+    }
+
+    public void testThatTemplateFilesAreResolvedByName() {
+        assertContainsElements(TwigHelper.getTemplateFiles(getProject(), "@Foo/Car/index.html.twig"), carIndex.getVirtualFile());
+        assertContainsElements(TwigHelper.getTemplateFiles(getProject(), "FooBundle:Car:index.html.twig"), carIndex.getVirtualFile());
+
+        assertEmpty(TwigHelper.getTemplateFiles(getProject(), "@Foo/index.html.twig"));
+        assertEmpty(TwigHelper.getTemplateFiles(getProject(), "@Bar/Car/index.html.twig"));
+    }
+
+    public void testThatNamespaceChangeNeedsNoReindex() {
+        addNamespaces("Bar");
+
+        assertContainsElements(TwigHelper.getTemplateFiles(getProject(), "@Bar/Car/index.html.twig"), carIndex.getVirtualFile());
+        assertEmpty(TwigHelper.getTemplateFiles(getProject(), "@Foo/Car/index.html.twig"));
+    }
+
+    public void testThatTemplatesAreStreamedFromIndex() {
+        Set<String> twig = new HashSet<>();
+        TwigHelper.processTemplates(getProject(), false, (templateName, virtualFile) -> twig.add(templateName));
+
+        assertContainsElements(twig, "@Foo/layout.html.twig", "@Foo/Car/index.html.twig", "FooBundle::layout.html.twig");
+        assertDoesntContain(twig, "@Foo/index.html.php");
+
+        Set<String> all = new HashSet<>();
+        TwigHelper.processTemplates(getProject(), true, (templateName, virtualFile) -> all.add(templateName));
+
+        assertContainsElements(all, "@Foo/layout.html.twig", "@Foo/index.html.php");
+        assertDoesntContain(all, "@Foo/helper.php");
+    }
+
+    public void testThatBlockParserResolvesExtendsWithoutTemplateMap() {
+        List<TwigBlock> blocks = new TwigBlockParser(getProject()).walk(carIndex);
+
+        assertNotNull(ContainerUtil.find(blocks, twigBlock -> "layout_foo".equals(twigBlock.getName())));
+    }
+
+    private void addNamespaces(String namespace) {
+        myFixture.addFileToProject("ide-twig.json", "{\n" +
+            "  \"namespaces\": [\n" +
+            "    {\"namespace\": \"" + namespace + "\", \"path\": \"res\"},\n" +
+            "    {\"namespace\": \"FooBundle\", \"type\": \"bundle\", \"path\": \"res\"}\n" +
+            "  ]\n" +
+            "}"
+        );
+    }
+}
@@ -0,0 +1,59 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TranslationKeyStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TranslationKeyStubIndex
+ */
+public class TranslationKeyStubIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void setUp() throws Exception {
+        super.setUp();
+        myFixture.configureFromExistingVirtualFile(myFixture.copyFileToProject("messages.fr.xlf"));
+        myFixture.copyFileToProject("apple.de.yml", "Resources/translations/apple.de.yml");
+    }
+
+    public String getTestDataPath() {
+        return new File(this.getClass().getResource("fixtures").getFile()).getAbsolutePath();
+    }
+
+    public void testThatYamlKeysAreIndexedWithOffset() {
+        assertIndexContains(TranslationKeyStubIndex.KEY,
+            TranslationKeyStubIndex.createKey("apple", "yaml_weak.symfony.great"),
+            TranslationKeyStubIndex.createKey("apple", "yaml_weak.symfony.more.lines")
+        );
+
+        assertIndexNotContains(TranslationKeyStubIndex.KEY,
+            TranslationKeyStubIndex.createKey("apple", "yaml_weak.symfony"),
+            TranslationKeyStubIndex.createKey("car", "yaml_weak.symfony.great")
+        );
+
+        List<Integer> offsets = FileBasedIndex.getInstance().getValues(
+            TranslationKeyStubIndex.KEY,
+            TranslationKeyStubIndex.createKey("apple", "yaml_weak.symfony.great"),
+            GlobalSearchScope.allScope(getProject())
+        );
+
+        assertEquals(1, offsets.size());
+        assertTrue(offsets.get(0) > 0);
+    }
+
+    public void testThatXliffKeysAreIndexedAsFileTarget() {
+        assertIndexContains(TranslationKeyStubIndex.KEY, TranslationKeyStubIndex.createKey("messages", "Symfony is great"));
+
+        List<Integer> offsets = FileBasedIndex.getInstance().getValues(
+            TranslationKeyStubIndex.KEY,
+            TranslationKeyStubIndex.createKey("messages", "Symfony is great"),
+            GlobalSearchScope.allScope(getProject())
+        );
+
+        assertContainsElements(offsets, TranslationKeyStubIndex.NO_OFFSET);
+    }
+}
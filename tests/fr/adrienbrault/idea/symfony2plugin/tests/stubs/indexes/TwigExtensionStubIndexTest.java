@@ -0,0 +1,75 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.IndexedTwigExtension;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TwigExtensionStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser.TwigElementType;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser.TwigExtensionType;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.io.File;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ *
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TwigExtensionStubIndex
+ */
+public class TwigExtensionStubIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureFromExistingVirtualFile(myFixture.copyFileToProject("TwigExtensionStubIndex.php"));
+    }
+
+    public String getTestDataPath() {
+        return new File(this.getClass().getResource("fixtures").getFile()).getAbsolutePath();
+    }
+
+    public void testThatFiltersAreIndexedWithOptions() {
+        IndexedTwigExtension filter = getFirstValue(TwigElementType.FILTER, "foo_filter");
+        assertEquals("TwigExtensionStubIndex", filter.getFqnClassName());
+        assertEquals(TwigExtensionType.FILTER, filter.getType());
+        assertEquals("#M#C\\TwigExtensionStubIndex.fooFilter", filter.getSignature());
+        assertEquals("true", filter.getOptions().get("needs_environment"));
+        assertEquals("html,js", filter.getOptions().get("is_safe"));
+
+        assertEquals("#M#C\\TwigExtensionStubIndex.legacyFilter", getFirstValue(TwigElementType.FILTER, "legacy_filter").getSignature());
+        assertEquals("#M#C\\Foo\\ImportedFilterExtension.imported", getFirstValue(TwigElementType.FILTER, "imported_filter").getSignature());
+    }
+
+    public void testThatFunctionsAreIndexed() {
+        assertEquals("#M#C\\SqlFormatter.format", getFirstValue(TwigElementType.METHOD, "foo_function").getSignature());
+        assertEquals("#Fjson_decode", getFirstValue(TwigElementType.METHOD, "json_foo").getSignature());
+
+        IndexedTwigExtension node = getFirstValue(TwigElementType.METHOD, "legacy_node");
+        assertEquals(TwigExtensionType.FUNCTION_NODE, node.getType());
+        assertEquals("#M#C\\Foo\\FooNode.compile", node.getSignature());
+    }
+
+    public void testThatTestsAndOperatorsAreIndexed() {
+        assertIndexContains(TwigExtensionStubIndex.KEY,
+            TwigExtensionStubIndex.createKey(TwigElementType.SIMPLE_TEST, "foo_test"),
+            TwigExtensionStubIndex.createKey(TwigElementType.OPERATOR, "foo_not"),
+            TwigExtensionStubIndex.createKey(TwigElementType.OPERATOR, "foo_or")
+        );
+
+        assertIndexNotContains(TwigExtensionStubIndex.KEY, TwigExtensionStubIndex.createKey(TwigElementType.FILTER, "foo_test"));
+    }
+
+    public void testThatGlobalNamesAreIndexedWithProvidingMethod() {
+        IndexedTwigExtension global = getFirstValue(TwigElementType.GLOBAL, "foo_global");
+        assertEquals(TwigExtensionType.GLOBAL, global.getType());
+        assertEquals("#M#C\\TwigExtensionStubIndex.getGlobals", global.getSignature());
+    }
+
+    private IndexedTwigExtension getFirstValue(TwigElementType type, String name) {
+        return ContainerUtil.getFirstItem(FileBasedIndex.getInstance().getValues(
+            TwigExtensionStubIndex.KEY,
+            TwigExtensionStubIndex.createKey(type, name),
+            GlobalSearchScope.allScope(getProject()))
+        );
+    }
+}
@@ -0,0 +1,119 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.SerializableService;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModel;
+import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelSerializable;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.DispatcherEvent;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.EventSubscriberMethod;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.IndexedTwigExtension;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.StubIndexedRoute;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.TemplateUsage;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.*;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class CompactDataExternalizerTest extends Assert {
+
+    @Test
+    public void testServiceRoundTripKeepsUndefinedState() throws Exception {
+        SerializableService service = new SerializableService("foo")
+            .setClassName("Foo\\Bar")
+            .setDecorates("bar")
+            .setIsPublic(false)
+            .setIsLazy(true);
+
+        ServiceSerializable read = roundTrip(ServiceSerializableDataExternalizer.INSTANCE, service);
+        assertEquals(service, read);
+        assertFalse(read.isPublic());
+        assertTrue(read.isLazy());
+        assertNull(read.getAlias());
+        assertNull(((SerializableService) read).getRawAbstract());
+
+        assertEquals(new SerializableService("foo"), roundTrip(ServiceSerializableDataExternalizer.INSTANCE, new SerializableService("foo")));
+    }
+
+    @Test
+    public void testRouteRoundTrip() throws Exception {
+        StubIndexedRoute route = new StubIndexedRoute("foo_route");
+        route.setController("FooBundle:Bar:index");
+        route.addMethod(new String[] {"GET", "POST"});
+
+        StubIndexedRoute read = roundTrip(StubIndexedRouteDataExternalizer.INSTANCE, route);
+        assertEquals(route, read);
+        assertNull(read.getPath());
+    }
+
+    @Test
+    public void testDispatcherEventRoundTrip() throws Exception {
+        assertEquals(new DispatcherEvent("Foo\\Event", null), roundTrip(DispatcherEventDataExternalizer.INSTANCE, new DispatcherEvent("Foo\\Event", null)));
+        assertEquals(new DispatcherEvent(), roundTrip(DispatcherEventDataExternalizer.INSTANCE, new DispatcherEvent()));
+    }
+
+    @Test
+    public void testEventSubscriberMethodRoundTrip() throws Exception {
+        List<EventSubscriberMethod> methods = Arrays.asList(
+            new EventSubscriberMethod("Foo\\Subscriber", "onFoo", -255, "#K#C\\Foo\\Bar.BAR"),
+            new EventSubscriberMethod("Foo\\Subscriber", null, null, null)
+        );
+
+        assertEquals(methods, roundTrip(EventSubscriberMethodDataExternalizer.INSTANCE, methods));
+    }
+
+    @Test
+    public void testTemplateUsageRoundTrip() throws Exception {
+        TemplateUsage usage = new TemplateUsage("foo.html.twig", Arrays.asList("Foo::bar", "Foo::baz"));
+        assertEquals(usage, roundTrip(TemplateUsageDataExternalizer.INSTANCE, usage));
+    }
+
+    @Test
+    public void testDoctrineModelRoundTrip() throws Exception {
+        DoctrineModelSerializable model = new DoctrineModel("Foo\\Entity").setRepositoryClass("Foo\\Repository");
+        assertEquals(model, roundTrip(DoctrineModelDataExternalizer.INSTANCE, model));
+        assertEquals(new DoctrineModel("Foo\\Entity"), roundTrip(DoctrineModelDataExternalizer.INSTANCE, new DoctrineModel("Foo\\Entity")));
+    }
+
+    @Test
+    public void testIndexedTwigExtensionRoundTrip() throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("needs_environment", "true");
+        options.put("is_safe", "html,js");
+
+        IndexedTwigExtension extension = new IndexedTwigExtension("Foo\\Extension", TwigExtensionParser.TwigExtensionType.FILTER, "#M#C\\Foo\\Extension.foo", options);
+        assertEquals(extension, roundTrip(IndexedTwigExtensionDataExternalizer.INSTANCE, extension));
+
+        IndexedTwigExtension operator = new IndexedTwigExtension("Foo\\Extension", TwigExtensionParser.TwigExtensionType.OPERATOR, null);
+        assertEquals(operator, roundTrip(IndexedTwigExtensionDataExternalizer.INSTANCE, operator));
+    }
+
+    @Test
+    public void testThatCompactFormatIsSmallerThanObjectStream() throws Exception {
+        SerializableService service = new SerializableService("foo.bar").setClassName("Foo\\Bar").setIsPublic(false);
+
+        int compact = write(ServiceSerializableDataExternalizer.INSTANCE, service).length;
+        int objectStream = write(new ObjectStreamDataExternalizer<ServiceSerializable>(), service).length;
+
+        assertTrue(compact * 10 < objectStream);
+    }
+
+    private static <T> byte[] write(DataExternalizer<T> externalizer, T value) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        externalizer.save(new DataOutputStream(stream), value);
+        return stream.toByteArray();
+    }
+
+    private static <T> T roundTrip(DataExternalizer<T> externalizer, T value) throws IOException {
+        return externalizer.read(new DataInputStream(new ByteArrayInputStream(write(externalizer, value))));
+    }
+}
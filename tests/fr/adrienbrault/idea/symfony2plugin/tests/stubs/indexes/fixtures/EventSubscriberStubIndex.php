@@ -0,0 +1,48 @@
+<?php
+
+namespace Foo {
+    class Bar {
+        const BAR = 'post.foo';
+    }
+}
+
+namespace {
+
+    use Foo\Bar;
+    use Symfony\Component\EventDispatcher\EventSubscriberInterface;
+
+    class TestEventSubscriber implements EventSubscriberInterface
+    {
+        public static function getSubscribedEvents()
+        {
+            return array(
+                'pre.foo' => 'preFoo',
+                Bar::BAR => ['postFoo', -10],
+                'pre.foo2' => [
+                    ['onKernelResponseMid', 10],
+                    ['onKernelResponsePre', 20],
+                ],
+            );
+        }
+    }
+
+    class SecondEventSubscriber implements EventSubscriberInterface
+    {
+        public static function getSubscribedEvents()
+        {
+            return array(
+                'pre.foo' => 'secondPreFoo',
+            );
+        }
+    }
+
+    class DoctrineSubscriber
+    {
+        public function getSubscribedEvents()
+        {
+            return array(
+                'doctrine.foo' => 'preFoo',
+            );
+        }
+    }
+}
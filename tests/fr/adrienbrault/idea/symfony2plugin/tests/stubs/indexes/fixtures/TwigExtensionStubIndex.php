@@ -0,0 +1,57 @@
+<?php
+
+namespace
+{
+    class TwigExtensionStubIndex extends Twig_Extension
+    {
+        public function getFilters()
+        {
+            return array(
+                new \Twig_SimpleFilter('foo_filter', array($this, 'fooFilter'), array('needs_environment' => true, 'is_safe' => array('html', 'js'))),
+                'legacy_filter' => new \Twig_Filter_Method($this, 'legacyFilter'),
+            );
+        }
+
+        public function getFunctions()
+        {
+            return array(
+                new \Twig_SimpleFunction('foo_function', 'SqlFormatter::format'),
+                new \Twig_SimpleFunction('json_foo', 'json_decode'),
+                'legacy_node' => new \Twig_Function_Node('\Foo\FooNode'),
+            );
+        }
+
+        public function getTests()
+        {
+            return array(
+                new \Twig_SimpleTest('foo_test', null),
+            );
+        }
+
+        public function getGlobals()
+        {
+            return array('foo_global' => $this);
+        }
+
+        public function getOperators()
+        {
+            return array(
+                array('foo_not' => array()),
+                array('foo_or' => array()),
+            );
+        }
+    }
+}
+
+namespace Foo
+{
+    use Twig_SimpleFilter as Filter;
+
+    class ImportedFilterExtension extends \Twig_Extension
+    {
+        public function getFilters()
+        {
+            return [new Filter('imported_filter', [$this, 'imported'])];
+        }
+    }
+}
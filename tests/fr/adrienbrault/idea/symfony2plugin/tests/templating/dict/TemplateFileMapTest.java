@@ -0,0 +1,46 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.templating.dict;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.LightVirtualFile;
+import fr.adrienbrault.idea.symfony2plugin.templating.dict.TemplateFileMap;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.templating.dict.TemplateFileMap
+ */
+public class TemplateFileMapTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void testGetNamesOfFileWithMultipleNames() {
+        VirtualFile file = new LightVirtualFile("index.html.twig");
+        VirtualFile other = new LightVirtualFile("other.html.twig");
+
+        TemplateFileMap map = new TemplateFileMap();
+        map.put("@Foo/index.html.twig", file);
+        map.put("FooBundle::index.html.twig", file);
+        map.put("FooBundle::index.html.twig", file);
+        map.put("@Foo/other.html.twig", other);
+
+        assertContainsElements(map.getNames(file), "@Foo/index.html.twig", "FooBundle::index.html.twig");
+        assertSize(2, map.getNames(file));
+        assertContainsElements(map.getNames(other), "@Foo/other.html.twig");
+        assertEmpty(map.getNames(new LightVirtualFile("unknown.html.twig")));
+    }
+
+    public void testGetNamesOnLargeMap() {
+        TemplateFileMap map = new TemplateFileMap();
+
+        VirtualFile[] files = new VirtualFile[20000];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new LightVirtualFile("template" + i + ".html.twig");
+            map.put("@Foo/template" + i + ".html.twig", files[i]);
+            map.put("FooBundle::template" + i + ".html.twig", files[i]);
+        }
+
+        for (int i = 0; i < files.length; i++) {
+            assertSize(2, map.getNames(files[i]));
+        }
+
+        assertContainsElements(map.getNames(files[12345]), "@Foo/template12345.html.twig", "FooBundle::template12345.html.twig");
+    }
+}
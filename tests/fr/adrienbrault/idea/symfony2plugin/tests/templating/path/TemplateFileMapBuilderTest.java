@@ -0,0 +1,123 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.templating.path;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.Notifications;
+import fr.adrienbrault.idea.symfony2plugin.templating.dict.TemplateFileMap;
+import fr.adrienbrault.idea.symfony2plugin.templating.path.TemplateFileMapBuilder;
+import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPath;
+import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPathIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.templating.path.TemplateFileMapBuilder
+ */
+public class TemplateFileMapBuilderTest extends SymfonyLightCodeInsightFixtureTestCase {
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+
+        createDummyFiles(
+            "src/FooBundle/Resources/views/foo.html.twig",
+            "src/FooBundle/Resources/views/Car/index.html.twig",
+            "src/FooBundle/Resources/views/a/b/c/deep.html.twig",
+            "src/BarBundle/Resources/views/bar.html.twig",
+            "src/BarBundle/Resources/views/bar.php",
+            "app/Resources/views/base.html.twig"
+        );
+    }
+
+    public void testThatNamespacesAreCollectedWithoutTruncation() {
+        TemplateFileMap map = new TemplateFileMapBuilder(getProject()).build(createTwigPaths());
+
+        assertContainsElements(map.getTemplateNames().keySet(),
+            "FooBundle::foo.html.twig",
+            "FooBundle:Car:index.html.twig",
+            "FooBundle:a/b/c:deep.html.twig",
+            "@Bar/bar.html.twig",
+            "base.html.twig"
+        );
+
+        assertFalse(map.getTemplateNames().containsKey("@Bar/bar.php"));
+        assertFalse(map.isTruncated());
+    }
+
+    public void testThatPhpTemplatesAreCollectedOnlyIfEnabled() {
+        TemplateFileMap map = new TemplateFileMapBuilder(getProject())
+            .setWithPhp(true)
+            .build(createTwigPaths());
+
+        assertTrue(map.getTemplateNames().containsKey("@Bar/bar.php"));
+    }
+
+    public void testThatLimitsAreReportedAsTruncation() {
+        TemplateFileMap map = new TemplateFileMapBuilder(getProject())
+            .setLimits(2, 150)
+            .build(createTwigPaths());
+
+        assertTrue(map.getTemplateNames().containsKey("FooBundle:Car:index.html.twig"));
+        assertFalse(map.getTemplateNames().containsKey("FooBundle:a/b/c:deep.html.twig"));
+
+        assertSize(1, map.getTruncatedPaths());
+        assertEquals("FooBundle", map.getTruncatedPaths().get(0).getNamespace());
+    }
+
+    public void testThatTruncationIsNotifiedOncePerNamespace() {
+        List<Notification> notifications = new ArrayList<>();
+        getProject().getMessageBus().connect(getTestRootDisposable()).subscribe(Notifications.TOPIC, new Notifications.Adapter() {
+            @Override
+            public void notify(@NotNull Notification notification) {
+                notifications.add(notification);
+            }
+        });
+
+        // light project is shared between tests, so use a namespace no other test truncates
+        Collection<TwigPath> twigPaths = Arrays.asList(new TwigPath("src/FooBundle/Resources/views", "NotifyBundle", TwigPathIndex.NamespaceType.BUNDLE, true));
+
+        new TemplateFileMapBuilder(getProject()).setLimits(2, 150).build(twigPaths);
+        new TemplateFileMapBuilder(getProject()).setLimits(2, 150).build(twigPaths);
+
+        assertSize(1, notifications);
+        assertTrue(notifications.get(0).getContent().contains("NotifyBundle"));
+    }
+
+    public void testThatDepthLimitIsNotWeakenedBySiblingFiles() {
+        createDummyFiles(
+            "src/DepthBundle/Resources/views/1.html.twig",
+            "src/DepthBundle/Resources/views/2.html.twig",
+            "src/DepthBundle/Resources/views/3.html.twig",
+            "src/DepthBundle/Resources/views/a/4.html.twig",
+            "src/DepthBundle/Resources/views/a/5.html.twig",
+            "src/DepthBundle/Resources/views/a/b/c/d/deep.html.twig"
+        );
+
+        TemplateFileMap map = new TemplateFileMapBuilder(getProject())
+            .setLimits(2, 150)
+            .build(Arrays.asList(new TwigPath("src/DepthBundle/Resources/views", "DepthBundle", TwigPathIndex.NamespaceType.BUNDLE, true)));
+
+        assertTrue(map.getTemplateNames().containsKey("DepthBundle:a:5.html.twig"));
+        assertFalse(map.getTemplateNames().containsKey("DepthBundle:a/b/c/d:deep.html.twig"));
+        assertTrue(map.isTruncated());
+    }
+
+    public void testThatDisabledPathsAreIgnored() {
+        TwigPath twigPath = new TwigPath("src/FooBundle/Resources/views", "FooBundle", TwigPathIndex.NamespaceType.BUNDLE, true);
+        twigPath.setEnabled(false);
+
+        assertSize(0, new TemplateFileMapBuilder(getProject()).build(Arrays.asList(twigPath)).getTemplateNames().keySet());
+    }
+
+    private Collection<TwigPath> createTwigPaths() {
+        return Arrays.asList(
+            new TwigPath("src/FooBundle/Resources/views", "FooBundle", TwigPathIndex.NamespaceType.BUNDLE, true),
+            new TwigPath("src/BarBundle/Resources/views", "Bar", TwigPathIndex.NamespaceType.ADD_PATH, true),
+            new TwigPath("app/Resources/views", TwigPathIndex.MAIN, TwigPathIndex.NamespaceType.ADD_PATH, true)
+        );
+    }
+}
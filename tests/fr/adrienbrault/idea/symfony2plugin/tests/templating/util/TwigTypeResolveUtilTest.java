@@ -0,0 +1,61 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.templating.util;
+
+import com.intellij.psi.PsiElement;
+import com.jetbrains.twig.TwigFileType;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigTypeResolveUtil;
+import fr.adrienbrault.idea.symfony2plugin.templating.variable.dict.PsiVariable;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.util.Map;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.templating.util.TwigTypeResolveUtil
+ */
+public class TwigTypeResolveUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureByText("classes.php", "<?php\n" +
+            "namespace Bar;\n" +
+            "class FooClass {}\n"
+        );
+    }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.templating.util.TwigTypeResolveUtil#collectScopeVariables
+     */
+    public void testFileScopeVariablesAreSharedButElementScopesAreNot() {
+        myFixture.configureByText(TwigFileType.INSTANCE, "" +
+            "{# @var bars \\Bar\\FooClass[] #}\n" +
+            "{% block foo %}{# @var block_var \\Bar\\FooClass #}{{ block_var }}{% endblock %}\n" +
+            "{% for bar in bars %}{{ bar }}{% endfor %}\n" +
+            "{{ outside }}"
+        );
+
+        Map<String, PsiVariable> outside = TwigTypeResolveUtil.collectScopeVariables(findElement("outside"));
+        assertContainsElements(outside.keySet(), "bars", "app");
+        assertFalse(outside.containsKey("block_var"));
+        assertFalse(outside.containsKey("bar"));
+
+        Map<String, PsiVariable> block = TwigTypeResolveUtil.collectScopeVariables(findElement("block_var }}"));
+        assertContainsElements(block.keySet(), "bars", "block_var");
+
+        Map<String, PsiVariable> forScope = TwigTypeResolveUtil.collectScopeVariables(findElement("bar }}"));
+        assertContainsElements(forScope.get("bar").getTypes(), "\\Bar\\FooClass");
+
+        // callers get copies of the file scope
+        outside.get("bars").getTypes().add("\\Foo\\Leaked");
+        outside.put("leaked", outside.get("bars"));
+
+        Map<String, PsiVariable> again = TwigTypeResolveUtil.collectScopeVariables(findElement("outside"));
+        assertFalse(again.containsKey("leaked"));
+        assertDoesntContain(again.get("bars").getTypes(), "\\Foo\\Leaked");
+    }
+
+    private PsiElement findElement(String text) {
+        String content = myFixture.getFile().getText();
+        return myFixture.getFile().findElementAt(content.lastIndexOf(text));
+    }
+}
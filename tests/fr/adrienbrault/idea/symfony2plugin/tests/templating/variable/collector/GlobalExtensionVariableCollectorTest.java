@@ -0,0 +1,78 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.templating.variable.collector;
+
+import com.jetbrains.twig.TwigFileType;
+import fr.adrienbrault.idea.symfony2plugin.templating.globals.TwigExtensionGlobalsRegistry;
+import fr.adrienbrault.idea.symfony2plugin.templating.variable.dict.PsiVariable;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.util.Map;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.templating.variable.collector.GlobalExtensionVariableCollector
+ * @see fr.adrienbrault.idea.symfony2plugin.templating.globals.TwigExtensionGlobalsRegistry
+ */
+public class GlobalExtensionVariableCollectorTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureByText("classes.php", "<?php\n" +
+            "namespace {\n" +
+            "  interface Twig_ExtensionInterface {}\n" +
+            "  abstract class Twig_Extension implements Twig_ExtensionInterface {}\n" +
+            "}\n" +
+            "namespace Bar {\n" +
+            "class FooClass {\n" +
+            "  public function getFooBar() {}\n" +
+            "}\n" +
+            "class GlobalExtension extends \\Twig_Extension {\n" +
+            "  public function getGlobals() {\n" +
+            "    return array('foo_global' => new FooClass());\n" +
+            "  }\n" +
+            "}\n" +
+            "class NoExtension {\n" +
+            "  public function getGlobals() {\n" +
+            "    return array('no_global' => new FooClass());\n" +
+            "  }\n" +
+            "}\n" +
+            "}"
+        );
+    }
+
+    public void testGlobalsOfTwigExtensions() {
+        assertCompletionContains(TwigFileType.INSTANCE, "{{ <caret> }}", "foo_global");
+        assertCompletionContains(TwigFileType.INSTANCE, "{{ foo_global.<caret> }}", "fooBar");
+
+        assertCompletionNotContains(TwigFileType.INSTANCE, "{{ <caret> }}", "no_global");
+    }
+
+    public void testThatRegistryIsSharedUntilExtensionChanges() {
+        assertSame(TwigExtensionGlobalsRegistry.getVariables(getProject()), TwigExtensionGlobalsRegistry.getVariables(getProject()));
+        assertContainsElements(TwigExtensionGlobalsRegistry.getVariables(getProject()).get("foo_global").getTypes(), "\\Bar\\FooClass");
+    }
+
+    public void testThatNonExtensionPhpEditsKeepRegistry() {
+        Map<String, PsiVariable> variables = TwigExtensionGlobalsRegistry.getVariables(getProject());
+
+        myFixture.configureByText("car.php", "<?php class Car { <caret> }");
+        myFixture.type("public function drive() {}");
+
+        assertSame(variables, TwigExtensionGlobalsRegistry.getVariables(getProject()));
+    }
+
+    public void testThatExtensionEditsRebuildRegistry() {
+        Map<String, PsiVariable> variables = TwigExtensionGlobalsRegistry.getVariables(getProject());
+
+        myFixture.configureByText("car.php", "<?php\n" +
+            "class CarExtension extends \\Twig_Extension {\n" +
+            "  public function getGlobals() { return array('car_<caret>' => new \\Bar\\FooClass()); }\n" +
+            "}"
+        );
+
+        myFixture.type("global");
+
+        assertNotSame(variables, TwigExtensionGlobalsRegistry.getVariables(getProject()));
+        assertTrue(TwigExtensionGlobalsRegistry.getVariables(getProject()).containsKey("car_global"));
+    }
+}
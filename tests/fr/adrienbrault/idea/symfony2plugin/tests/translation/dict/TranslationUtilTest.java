@@ -1,5 +1,6 @@
 package fr.adrienbrault.idea.symfony2plugin.tests.translation.dict;
 
+import com.intellij.psi.PsiElement;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 import fr.adrienbrault.idea.symfony2plugin.translation.dict.TranslationUtil;
 
@@ -37,4 +38,16 @@ public class TranslationUtilTest extends SymfonyLightCodeInsightFixtureTestCase
 
         assertTrue(TranslationUtil.getTranslationPsiElements(getProject(), "foo_yaml.symfony.great", "car").length > 0);
     }
+
+    public void testGetTranslationPsiElementsTargetsKeyValue() {
+        PsiElement[] psiElements = TranslationUtil.getTranslationPsiElements(getProject(), "yaml_weak.symfony.great", "apple");
+        assertEquals(1, psiElements.length);
+        assertEquals("'YAML Symfony2 is great'", psiElements[0].getText());
+    }
+
+    public void testHasTranslationKey() {
+        assertTrue(TranslationUtil.hasTranslationKey(getProject(), "yaml_weak.symfony.great", "apple"));
+        assertFalse(TranslationUtil.hasTranslationKey(getProject(), "yaml_weak.symfony.great", "car"));
+        assertFalse(TranslationUtil.hasTranslationKey(getProject(), "yaml_weak.symfony.unknown", "apple"));
+    }
 }
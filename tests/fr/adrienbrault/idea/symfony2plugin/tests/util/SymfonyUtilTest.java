@@ -115,6 +115,31 @@ public class SymfonyUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertTrue(SymfonyUtil.isVersionGreaterThen(getProject(), "3.1.0"));
     }
 
+    public void testVersionTrackerOnlyChangesWithVersion() {
+        myFixture.configureByText("Kernel.php", "<?php\n" +
+            "namespace Symfony\\Component\\HttpKernel {\n" +
+            "   class Kernel {\n" +
+            "       const VERSION = '3.2.0';" +
+            "   }" +
+            "}"
+        );
+
+        long count = SymfonyUtil.getVersionTracker(getProject()).getModificationCount();
+
+        myFixture.configureByText("FooVersion.php", "<?php class FooVersion {}");
+        assertEquals(count, SymfonyUtil.getVersionTracker(getProject()).getModificationCount());
+
+        myFixture.configureByText("Kernel.php", "<?php\n" +
+            "namespace Symfony\\Component\\HttpKernel {\n" +
+            "   class Kernel {\n" +
+            "       const VERSION = '3.3.0';" +
+            "   }" +
+            "}"
+        );
+
+        assertTrue(count < SymfonyUtil.getVersionTracker(getProject()).getModificationCount());
+    }
+
     public void testIsVersionInvalidateNull() {
         myFixture.configureByText(PhpFileType.INSTANCE, "<?php\n" +
             "namespace Symfony\\Component\\HttpKernel {\n" +
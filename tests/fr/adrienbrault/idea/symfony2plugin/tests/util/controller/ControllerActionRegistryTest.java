@@ -0,0 +1,99 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.util.controller;
+
+import com.jetbrains.php.lang.psi.elements.Method;
+import fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.controller.ControllerActionRegistry;
+import fr.adrienbrault.idea.symfony2plugin.util.controller.ControllerIndex;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.util.controller.ControllerActionRegistry
+ */
+public class ControllerActionRegistryTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        myFixture.configureByText("classes.php", "<?php\n" +
+            "namespace AppBundle {\n" +
+            "  class AppBundle extends \\Symfony\\Component\\HttpKernel\\Bundle\\Bundle {}\n" +
+            "}\n" +
+            "namespace AppBundle\\Controller {\n" +
+            "  abstract class BaseController { public function parentAction() {} }\n" +
+            "  class DefaultController extends BaseController {\n" +
+            "    public function indexAction() {}\n" +
+            "    private function fooAction() {}\n" +
+            "  }\n" +
+            "}\n" +
+            "namespace AppBundle\\Controller\\Foo {\n" +
+            "  class DefaultController { public function indexAction() {} }\n" +
+            "}\n"
+        );
+    }
+
+    public void testShortcutNameAndMethodLookup() {
+        ControllerActionRegistry registry = ControllerActionRegistry.getInstance(getProject());
+
+        assertEquals("\\AppBundle\\Controller\\DefaultController.indexAction", registry.getMethodFqn("AppBundle:Default:index"));
+        assertEquals("\\AppBundle\\Controller\\Foo\\DefaultController.indexAction", registry.getMethodFqn("AppBundle:Foo/Default:index"));
+        assertEquals("\\AppBundle\\Controller\\DefaultController.parentAction", registry.getMethodFqn("AppBundle:Default:parent"));
+        assertNull(registry.getMethodFqn("AppBundle:Default:foo"));
+
+        assertEquals("AppBundle:Default:index", registry.getShortcutName("AppBundle\\Controller\\DefaultController.indexAction"));
+        assertEquals("AppBundle:Foo/Default:index", registry.getShortcutName("\\appbundle\\controller\\foo\\defaultcontroller.indexaction"));
+
+        Method method = registry.getMethod(getProject(), "AppBundle:Default:parent");
+        assertNotNull(method);
+        assertEquals("parentAction", method.getName());
+    }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper#convertMethodToRouteShortcutControllerName
+     */
+    public void testMethodToShortcutNameForRoutes() {
+        Method method = PhpElementsUtil.getClassMethod(getProject(), "\\AppBundle\\Controller\\Foo\\DefaultController", "indexAction");
+        assertNotNull(method);
+
+        assertEquals("AppBundle:Foo\\Default:index", RouteHelper.convertMethodToRouteShortcutControllerName(method));
+    }
+
+    public void testRegistryIsRebuildOnClassStructureChange() {
+        assertNull(ControllerActionRegistry.getInstance(getProject()).getMethodFqn("AppBundle:Bar:index"));
+
+        myFixture.addFileToProject("BarController.php", "<?php\n" +
+            "namespace AppBundle\\Controller;\n" +
+            "class BarController { public function indexAction() {} }\n"
+        );
+
+        assertNotNull(ControllerActionRegistry.getInstance(getProject()).getMethodFqn("AppBundle:Bar:index"));
+        assertNotNull(ControllerIndex.getControllerMethod(getProject(), "AppBundle:Bar:index"));
+    }
+
+    public void testLookupOnManyActionsIsServedFromCache() {
+        StringBuilder content = new StringBuilder("<?php\nnamespace AppBundle\\Controller\\Many;\n");
+        for (int i = 0; i < 100; i++) {
+            content.append("class Many").append(i).append("Controller {\n");
+            for (int j = 0; j < 30; j++) {
+                content.append("  public function foo").append(j).append("Action() {}\n");
+            }
+            content.append("}\n");
+        }
+
+        myFixture.addFileToProject("ManyController.php", content.toString());
+
+        ControllerActionRegistry registry = ControllerActionRegistry.getInstance(getProject());
+        assertTrue(registry.getActions().size() >= 3000);
+
+        // 3k lookups must not rebuild the registry
+        ControllerIndex controllerIndex = new ControllerIndex(getProject());
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 30; j++) {
+                assertNotNull(controllerIndex.getControllerAction("AppBundle:Many/Many" + i + ":foo" + j));
+            }
+        }
+
+        assertSame(registry, ControllerActionRegistry.getInstance(getProject()));
+    }
+}
@@ -40,6 +40,15 @@ public class ServiceUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertDoesntContain(myTaggedClass, "foo_extends");
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil#getTaggedServices
+     */
+    public void testGetTaggedServices() {
+        assertContainsElements(ServiceUtil.getTaggedServices(getProject(), "foo_iterator"), "iterator_service");
+        assertDoesntContain(ServiceUtil.getTaggedServices(getProject(), "foo_iterator"), "datetime_service");
+        assertEmpty(ServiceUtil.getTaggedServices(getProject(), "foo_unknown"));
+    }
+
     /**
      * @see fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil#getServiceSuggestionForPhpClass
      */
@@ -71,6 +80,41 @@ public class ServiceUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         ));
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil#getServiceSuggestionForPhpClass
+     */
+    public void testGetServiceSuggestionForPhpClassOnSupertypeClosure() {
+
+        myFixture.configureByText(XmlFileType.INSTANCE, "" +
+            "<container>\n" +
+            "    <services>\n" +
+            "        <service id=\"my_foo_child\" class=\"MyFooChild\"/>\n" +
+            "    </services>\n" +
+            "</container>\n"
+        );
+
+        myFixture.configureByText(PhpFileType.INSTANCE, "<?php\n" +
+            "class MyFooChild extends MyFooParent {};\n" +
+            "class MyFooParent implements MyFooChildInterface {};\n" +
+            "interface MyFooChildInterface extends MyFooParentInterface {};\n" +
+            "interface MyFooParentInterface {};"
+        );
+
+        Map<String, ContainerService> services = ContainerCollectionResolver.getServices(getProject());
+
+        for (String className : new String[] {"MyFooChild", "MyFooParent", "MyFooChildInterface", "MyFooParentInterface"}) {
+            assertNotNull(ContainerUtil.find(
+                ServiceUtil.getServiceSuggestionForPhpClass(PhpElementsUtil.getClassInterface(getProject(), className), services),
+                new MyNameContainerServiceCondition("my_foo_child")
+            ));
+
+            assertNotNull(ContainerUtil.find(
+                ServiceUtil.getServiceSuggestionForPhpClass(PhpElementsUtil.getClassInterface(getProject(), className), services.values()),
+                new MyNameContainerServiceCondition("my_foo_child")
+            ));
+        }
+    }
+
     private static class MyNameContainerServiceCondition implements Condition<ContainerService> {
 
         @NotNull
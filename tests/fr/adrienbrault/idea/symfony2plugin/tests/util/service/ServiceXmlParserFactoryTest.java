@@ -0,0 +1,130 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.util.service;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.ui.UIUtil;
+import fr.adrienbrault.idea.symfony2plugin.Settings;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerFile;
+import fr.adrienbrault.idea.symfony2plugin.dic.XmlServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.IndexTracker;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory
+ */
+public class ServiceXmlParserFactoryTest extends SymfonyLightCodeInsightFixtureTestCase {
+
+    private File container;
+    private List<ContainerFile> containerFiles;
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        container = File.createTempFile("container", ".xml");
+        writeContainer("foo_service");
+
+        containerFiles = Settings.getInstance(getProject()).containerFiles;
+        Settings.getInstance(getProject()).containerFiles = new ArrayList<>(Collections.singletonList(new ContainerFile(container.getAbsolutePath())));
+
+        ServiceXmlParserFactory.cleanInstance(getProject());
+    }
+
+    public void tearDown() throws Exception {
+        Settings.getInstance(getProject()).containerFiles = containerFiles;
+        Settings.getInstance(getProject()).containerBackgroundRefresh = false;
+        ServiceXmlParserFactory.cleanInstance(getProject());
+        FileUtil.delete(container);
+
+        super.tearDown();
+    }
+
+    public void testThatUnchangedContainerKeepsParser() {
+        XmlServiceParser parser = ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class);
+        assertTrue(parser.getServiceMap().getMap().containsKey("foo_service"));
+
+        long services = IndexTracker.SERVICES.getTracker(getProject()).getModificationCount();
+
+        assertSame(parser, ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class));
+        assertEquals(services, IndexTracker.SERVICES.getTracker(getProject()).getModificationCount());
+    }
+
+    public void testThatChangedContainerIsPublishedAndNotified() throws Exception {
+        XmlServiceParser parser = ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class);
+        long services = IndexTracker.SERVICES.getTracker(getProject()).getModificationCount();
+
+        writeContainer("bar_service");
+
+        XmlServiceParser newParser = ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class);
+        assertNotSame(parser, newParser);
+        assertTrue(newParser.getServiceMap().getMap().containsKey("bar_service"));
+        assertTrue(services < IndexTracker.SERVICES.getTracker(getProject()).getModificationCount());
+    }
+
+    public void testThatConcurrentReadersReparseChangedContainerOnce() throws Exception {
+        ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class);
+        long services = IndexTracker.SERVICES.getTracker(getProject()).getModificationCount();
+
+        writeContainer("bar_service");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<XmlServiceParser>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class);
+            }));
+        }
+
+        start.countDown();
+        for (Future<XmlServiceParser> future : futures) {
+            assertNotNull(future.get(30, TimeUnit.SECONDS));
+        }
+
+        executor.shutdown();
+
+        assertEquals(services + 1, IndexTracker.SERVICES.getTracker(getProject()).getModificationCount());
+        assertTrue(ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class).getServiceMap().getMap().containsKey("bar_service"));
+    }
+
+    public void testThatBackgroundRefreshServesPreviousStateUntilPublished() throws Exception {
+        Settings.getInstance(getProject()).containerBackgroundRefresh = true;
+
+        XmlServiceParser parser = ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class);
+
+        writeContainer("bar_service");
+
+        // refresh is scheduled, readers keep the known state
+        assertSame(parser, ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class));
+
+        // background tasks are running synchronously in tests, after being scheduled on the dispatch thread
+        UIUtil.dispatchAllInvocationEvents();
+
+        XmlServiceParser newParser = ServiceXmlParserFactory.getInstance(getProject(), XmlServiceParser.class);
+        assertNotSame(parser, newParser);
+        assertTrue(newParser.getServiceMap().getMap().containsKey("bar_service"));
+    }
+
+    private void writeContainer(String serviceId) throws Exception {
+        long lastModified = container.lastModified();
+
+        FileUtil.writeToFile(container, "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+            "<container xmlns=\"http://symfony.com/schema/dic/services\">\n" +
+            "  <services>\n" +
+            "    <service id=\"" + serviceId + "\" class=\"My\\Foo\"/>\n" +
+            "  </services>\n" +
+            "</container>\n"
+        );
+
+        // file systems with a coarse timestamp resolution
+        container.setLastModified(lastModified + 2000);
+    }
+}
@@ -0,0 +1,93 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.util.service;
+
+import fr.adrienbrault.idea.symfony2plugin.config.component.parser.ParameterServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.dic.XmlServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.dic.XmlTagParser;
+import fr.adrienbrault.idea.symfony2plugin.form.dict.FormExtensionServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.form.dict.FormTypeServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlStreamParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlStreamParser
+ */
+public class ServiceXmlStreamParserTest extends Assert {
+
+    private static final String CONTAINER = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+        "<container xmlns=\"http://symfony.com/schema/dic/services\">\n" +
+        "  <parameters>\n" +
+        "    <parameter key=\"foo.class\">My\\Foo</parameter>\n" +
+        "    <parameter key=\"foo.collection\" type=\"collection\">\n" +
+        "      <parameter>bar</parameter>\n" +
+        "    </parameter>\n" +
+        "  </parameters>\n" +
+        "  <services>\n" +
+        "    <service id=\"foo\" class=\"\\My\\Foo\">\n" +
+        "      <tag name=\"twig.extension\"/>\n" +
+        "      <argument type=\"service\">\n" +
+        "        <service id=\"foo.inline\" class=\"My\\Inline\"/>\n" +
+        "      </argument>\n" +
+        "    </service>\n" +
+        "    <service id=\"foo.extension\" class=\"My\\FooExtension\">\n" +
+        "      <tag name=\"form.type_extension\" alias=\"form\"/>\n" +
+        "    </service>\n" +
+        "    <service id=\"form.registry\" class=\"Symfony\\Component\\Form\\FormRegistry\">\n" +
+        "      <argument type=\"collection\">\n" +
+        "        <argument type=\"service\">\n" +
+        "          <service class=\"Symfony\\Component\\Form\\Extension\\DependencyInjection\\DependencyInjectionExtension\">\n" +
+        "            <argument type=\"collection\">\n" +
+        "              <argument key=\"form\">form.type.form</argument>\n" +
+        "            </argument>\n" +
+        "          </service>\n" +
+        "        </argument>\n" +
+        "      </argument>\n" +
+        "    </service>\n" +
+        "    <service id=\"foo.alias\" alias=\"foo\"/>\n" +
+        "  </services>\n" +
+        "</container>\n";
+
+    @Test
+    public void testSinglePassFeedsAllParsers() {
+        XmlServiceParser serviceParser = new XmlServiceParser();
+        ParameterServiceParser parameterParser = new ParameterServiceParser();
+        XmlTagParser tagParser = new XmlTagParser();
+        FormTypeServiceParser formTypeParser = new FormTypeServiceParser();
+        FormExtensionServiceParser formExtensionParser = new FormExtensionServiceParser();
+
+        ServiceXmlStreamParser.parse(
+            new ByteArrayInputStream(CONTAINER.getBytes()),
+            Arrays.asList(serviceParser, parameterParser, tagParser, formTypeParser, formExtensionParser)
+        );
+
+        assertEquals("My\\Foo", serviceParser.getServiceMap().getMap().get("foo"));
+        assertEquals("My\\Inline", serviceParser.getServiceMap().getMap().get("foo.inline"));
+        assertEquals("My\\Foo", serviceParser.getServiceMap().getMap().get("foo.alias"));
+
+        assertEquals("My\\Foo", parameterParser.getParameterMap().get("foo.class"));
+        assertEquals("collection", parameterParser.getParameterMap().get("foo.collection"));
+        assertFalse(parameterParser.getParameterMap().containsKey("bar"));
+
+        assertTrue(tagParser.get().contains("twig.extension"));
+        assertTrue(tagParser.getTaggedClass("twig.extension").contains("\\My\\Foo"));
+
+        assertEquals("form", formTypeParser.getFormTypeMap().getMap().get("form.type.form"));
+        assertEquals("form", formExtensionParser.getFormExtensions().get("My\\FooExtension"));
+    }
+
+    @Test
+    public void testInvalidContentKeepsParsedDefinitions() {
+        ParameterServiceParser parameterParser = new ParameterServiceParser();
+
+        parameterParser.parser(new ByteArrayInputStream((
+            "<container><parameters><parameter key=\"foo\">bar</parameter><parameter key=\"broken\">"
+        ).getBytes()));
+
+        assertEquals("bar", parameterParser.getParameterMap().get("foo"));
+        assertFalse(parameterParser.getParameterMap().containsKey("broken"));
+    }
+}